@@ -0,0 +1,163 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.ReaderProperties;
+import com.itextpdf.kernel.pdf.StampingProperties;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A form template which is parsed once and then filled many times.
+ * <p>
+ * When the template is compiled, the field tree is walked once and the object numbers and types of the fields
+ * are stored. Filling the template doesn't build {@link PdfAcroForm#getFormFields()}: only the fields with
+ * the given values are read, directly by their object numbers, and the result is written as an incremental
+ * update of the template, so only the changed objects are written after the template bytes.
+ * <p>
+ * The instance is immutable, so the same template can be filled by several threads at once.
+ */
+public class CompiledFormTemplate {
+
+    private final byte[] template;
+    private final Map<String, CompiledField> fields;
+
+    /**
+     * Compiles the template.
+     *
+     * @param template the bytes of the PDF document with an AcroForm
+     * @throws IOException if the template can't be read
+     */
+    public CompiledFormTemplate(byte[] template) throws IOException {
+        this.template = Arrays.copyOf(template, template.length);
+        Map<String, CompiledField> compiledFields = new LinkedHashMap<>();
+        PdfDocument document = new PdfDocument(createReader());
+        PdfAcroForm form = PdfAcroForm.getAcroForm(document, false);
+        if (form != null) {
+            for (Map.Entry<String, PdfFormField> entry : form.getFormFields().entrySet()) {
+                PdfFormField field = entry.getValue();
+                PdfIndirectReference reference = field.getPdfObject().getIndirectReference();
+                if (reference == null) {
+                    continue;
+                }
+                compiledFields.put(entry.getKey(), new CompiledField(reference.getObjNumber(), field.getFormType()));
+            }
+        }
+        document.close();
+        this.fields = Collections.unmodifiableMap(compiledFields);
+    }
+
+    /**
+     * Gets the fully qualified names of the fields of the template.
+     *
+     * @return the names of the fields in the order of the field tree
+     */
+    public Set<String> getFieldNames() {
+        return fields.keySet();
+    }
+
+    /**
+     * Gets the type of the field.
+     *
+     * @param fieldName the fully qualified name of the field
+     * @return the value of the field type entry, e.g. {@link PdfName#Tx}, or {@code null} if there is no such field
+     * or its type is not defined
+     */
+    public PdfName getFieldType(String fieldName) {
+        CompiledField field = fields.get(fieldName);
+        return field != null ? field.formType : null;
+    }
+
+    /**
+     * Fills the template with the values and writes the filled document. The appearances of the filled fields
+     * are regenerated, see {@link PdfFormField#setValue(String)}.
+     *
+     * @param values       the values of the fields by their fully qualified names
+     * @param outputStream the stream to which the filled document is written, it is not closed
+     * @throws IOException if the document can't be written
+     */
+    public void fill(Map<String, String> values, OutputStream outputStream) throws IOException {
+        for (String fieldName : values.keySet()) {
+            if (!fields.containsKey(fieldName)) {
+                throw new PdfException(PdfException.ThereIsNoFieldInTheDocumentWithSuchName1).setMessageParams(fieldName);
+            }
+        }
+        PdfWriter writer = new PdfWriter(outputStream);
+        writer.setCloseStream(false);
+        PdfDocument document = new PdfDocument(createReader(), writer, new StampingProperties().useAppendMode());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            PdfObject field = document.getPdfObject(fields.get(entry.getKey()).objectNumber);
+            PdfFormField.makeFormField(field, document).setValue(entry.getValue());
+        }
+        document.close();
+    }
+
+    private PdfReader createReader() throws IOException {
+        return new PdfReader(new RandomAccessSourceFactory().createSource(template), new ReaderProperties());
+    }
+
+    private static class CompiledField {
+        final int objectNumber;
+        final PdfName formType;
+
+        CompiledField(int objectNumber, PdfName formType) {
+            this.objectNumber = objectNumber;
+            this.formType = formType;
+        }
+    }
+}
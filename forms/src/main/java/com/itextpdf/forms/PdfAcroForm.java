@@ -43,6 +43,7 @@
  */
 package com.itextpdf.forms;
 
+import com.itextpdf.forms.fields.FormFieldAppearanceCache;
 import com.itextpdf.forms.fields.PdfFormField;
 import com.itextpdf.forms.xfa.XfaForm;
 import com.itextpdf.io.LogMessageConstant;
@@ -70,6 +71,7 @@ import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -136,6 +138,8 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
     private PdfDictionary defaultResources;
     private Set<PdfFormField> fieldsForFlattening = new LinkedHashSet<>();
     private XfaForm xfaForm;
+    private boolean flushFlattenedPages = false;
+    private FormFieldAppearanceCache appearanceCache;
 
     /**
      * Creates a PdfAcroForm as a wrapper of a dictionary.
@@ -601,6 +605,42 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
         this.generateAppearance = generateAppearance;
     }
 
+    /**
+     * Checks whether {@link #flattenFields()} flushes the pages on which the fields were flattened.
+     *
+     * @return boolean value indicating if the pages with flattened fields are flushed
+     */
+    public boolean isFlushFlattenedPages() {
+        return flushFlattenedPages;
+    }
+
+    /**
+     * Sets whether {@link #flattenFields()} flushes each page as soon as all the fields on it are flattened.
+     * This keeps the memory consumption low when the fields of a large document are flattened, but the flushed
+     * pages, including their remaining annotations, can't be modified afterwards.
+     * The default is <CODE>false</CODE>.
+     *
+     * @param flushFlattenedPages a boolean
+     */
+    public void setFlushFlattenedPages(boolean flushFlattenedPages) {
+        this.flushFlattenedPages = flushFlattenedPages;
+    }
+
+    /**
+     * Sets the cache of the field appearances which is used when the appearances of the form fields are
+     * generated, see {@link FormFieldAppearanceCache}. The cache is set to all the fields which are got from
+     * {@link #getFormFields()} and {@link #getField(String)}.
+     *
+     * @param appearanceCache the cache of the appearances of the document, or {@code null} to generate
+     *                        the appearance of each field anew
+     */
+    public void setAppearanceCache(FormFieldAppearanceCache appearanceCache) {
+        this.appearanceCache = appearanceCache;
+        for (PdfFormField field : getFormFields().values()) {
+            field.setAppearanceCache(appearanceCache);
+        }
+    }
+
     /**
      * Flattens interactive {@link PdfFormField form field}s in the document. If
      * no fields have been explicitly included via {#link #partialFormFlattening},
@@ -622,114 +662,12 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
             }
         }
 
-        // In case of appearance resources and page resources are the same object, it would not be possible to add
-        // the xObject to the page resources. So in that case we would copy page resources and use the copy for
-        // xObject, so that circular reference is avoided.
-        // We copy beforehand firstly not to produce a copy every time, and secondly not to copy all the
-        // xObjects that have already been added to the page resources.
-        Map<Integer, PdfObject> initialPageResourceClones = new LinkedHashMap<>();
-        for (int i = 1; i <= document.getNumberOfPages(); i++) {
-            PdfObject resources = document.getPage(i).getPdfObject().getAsDictionary(PdfName.Resources);
-            initialPageResourceClones.put(i, resources == null ? null : resources.clone());
-        }
-
-        PdfPage page;
-        for (PdfFormField field : fields) {
-            PdfDictionary fieldObject = field.getPdfObject();
-            page = getFieldPage(fieldObject);
-            if (page == null) {
-                continue;
-            }
-
-            PdfAnnotation annotation = PdfAnnotation.makeAnnotation(fieldObject);
-            TagTreePointer tagPointer = null;
-            if (annotation != null && document.isTagged()) {
-                tagPointer = document.getTagStructureContext().removeAnnotationTag(annotation);
-            }
-
-            PdfDictionary appDic = fieldObject.getAsDictionary(PdfName.AP);
-            PdfObject asNormal = null;
-            if (appDic != null) {
-                asNormal = appDic.getAsStream(PdfName.N);
-                if (asNormal == null) {
-                    asNormal = appDic.getAsDictionary(PdfName.N);
-                }
-            }
-            if (generateAppearance) {
-                if (appDic == null || asNormal == null) {
-                    field.regenerateField();
-                    appDic = fieldObject.getAsDictionary(PdfName.AP);
-                }
-            }
-            if (appDic != null) {
-                PdfObject normal = appDic.get(PdfName.N);
-                PdfFormXObject xObject = null;
-                if (normal.isStream()) {
-                    xObject = new PdfFormXObject((PdfStream) normal);
-                } else if (normal.isDictionary()) {
-                    PdfName as = fieldObject.getAsName(PdfName.AS);
-                    if (((PdfDictionary) normal).getAsStream(as) != null) {
-                        xObject = new PdfFormXObject(((PdfDictionary) normal).getAsStream(as));
-                        xObject.makeIndirect(document);
-                    }
-                }
-
-                // Subtype is required key, if there is no Subtype it is invalid XObject. DEVSIX-725
-                if (xObject != null && xObject.getPdfObject().get(PdfName.Subtype) != null) {
-                    Rectangle box = fieldObject.getAsRectangle(PdfName.Rect);
-                    if (page.isFlushed()) {
-                        throw new PdfException(PdfException.PageAlreadyFlushedUseAddFieldAppearanceToPageMethodBeforePageFlushing);
-                    }
-                    PdfCanvas canvas = new PdfCanvas(page);
-
-                    // Here we avoid circular reference which might occur when page resources and the appearance xObject's
-                    // resources are the same object
-                    PdfObject xObjectResources = xObject.getPdfObject().get(PdfName.Resources);
-                    PdfObject pageResources = page.getResources().getPdfObject();
-                    if (xObjectResources != null && pageResources != null &&
-                            xObjectResources == pageResources) {
-                        xObject.getPdfObject().put(PdfName.Resources, initialPageResourceClones.get(document.getPageNumber(page)));
-                    }
-
-                    if (tagPointer != null) {
-                        tagPointer.setPageForTagging(page);
-                        TagReference tagRef = tagPointer.getTagReference();
-                        canvas.openTag(tagRef);
-                    }
-
-                    PdfArray oldMatrix = xObject.getPdfObject().getAsArray(PdfName.Matrix);
-
-                    if ( oldMatrix != null && Arrays.equals(oldMatrix.toFloatArray(), new float[] {1, 0, 0, 1, 0, 0})) {
-                        Rectangle boundingBox = xObject.getBBox().toRectangle();
-                        PdfArray newMatrixArray = new PdfArray(
-                                new float[] {
-                                        box.getWidth() / boundingBox.getWidth(), 0, 0,
-                                        box.getHeight() / boundingBox.getHeight(), 0, 0
-                                });
-                        xObject.put(PdfName.Matrix, new PdfArray(newMatrixArray));
-                    }
-
-                    canvas.addXObject(xObject, box.getX(), box.getY());
-                    if (tagPointer != null) {
-                        canvas.closeTag();
-                    }
-                }
-            }
-
-            PdfArray fFields = getFields();
-            fFields.remove(fieldObject);
-            if (annotation != null) {
-                page.removeAnnotation(annotation);
-            }
-            PdfDictionary parent = fieldObject.getAsDictionary(PdfName.Parent);
-            if (parent != null) {
-                PdfArray kids = parent.getAsArray(PdfName.Kids);
-                kids.remove(fieldObject);
-                // TODO what if parent was in it's turn the only child of it's parent (parent of parent)?
-                // shouldn't we remove them recursively? check it
-                if (kids.isEmpty()) {
-                    fFields.remove(parent);
-                }
+        boolean flushPages = flushFlattenedPages && document.getWriter() != null;
+        for (Map.Entry<PdfPage, List<PdfFormField>> pageFields : groupFieldsByPage(fields).entrySet()) {
+            PdfPage page = pageFields.getKey();
+            flattenPageFields(page, pageFields.getValue());
+            if (flushPages && !page.isFlushed()) {
+                page.flush();
             }
         }
 
@@ -868,6 +806,9 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
                 continue;
             }
             PdfFormField formField = PdfFormField.makeFormField(field, document);
+            if (appearanceCache != null) {
+                formField.setAppearanceCache(appearanceCache);
+            }
             PdfString fieldName = formField.getFieldName();
             String name;
             if (fieldName == null) {
@@ -1094,6 +1035,184 @@ public class PdfAcroForm extends PdfObjectWrapper<PdfDictionary> {
         return null;
     }
 
+    /**
+     * Groups the fields by the pages of their widget annotations, keeping the order of the fields on each page.
+     * The fields which are not placed on any page are skipped.
+     */
+    private Map<PdfPage, List<PdfFormField>> groupFieldsByPage(Set<PdfFormField> fields) {
+        Map<PdfPage, List<PdfFormField>> fieldsByPage = new LinkedHashMap<>();
+        Map<PdfDictionary, PdfPage> annotationPages = null;
+        for (PdfFormField field : fields) {
+            PdfDictionary fieldObject = field.getPdfObject();
+            PdfPage page;
+            PdfDictionary pageDic = fieldObject.getAsDictionary(PdfName.P);
+            if (pageDic != null) {
+                page = document.getPage(pageDic);
+            } else {
+                // the pages are looked through only once for all the fields without the page entry
+                if (annotationPages == null) {
+                    annotationPages = mapAnnotationsToPages();
+                }
+                page = annotationPages.get(fieldObject);
+            }
+            if (page == null) {
+                continue;
+            }
+            List<PdfFormField> pageFields = fieldsByPage.get(page);
+            if (pageFields == null) {
+                pageFields = new ArrayList<>();
+                fieldsByPage.put(page, pageFields);
+            }
+            pageFields.add(field);
+        }
+        return fieldsByPage;
+    }
+
+    private Map<PdfDictionary, PdfPage> mapAnnotationsToPages() {
+        Map<PdfDictionary, PdfPage> annotationPages = new HashMap<>();
+        for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            PdfPage page = document.getPage(i);
+            if (page.isFlushed()) {
+                continue;
+            }
+            PdfArray annots = page.getPdfObject().getAsArray(PdfName.Annots);
+            if (annots == null) {
+                continue;
+            }
+            for (int j = 0; j < annots.size(); j++) {
+                PdfDictionary annotation = annots.getAsDictionary(j);
+                if (annotation != null && !annotationPages.containsKey(annotation)) {
+                    annotationPages.put(annotation, page);
+                }
+            }
+        }
+        return annotationPages;
+    }
+
+    private void flattenPageFields(PdfPage page, List<PdfFormField> pageFields) {
+        List<PdfFormXObject> appearances = new ArrayList<>(pageFields.size());
+        for (PdfFormField field : pageFields) {
+            appearances.add(getAppearanceForFlattening(field));
+        }
+
+        // In case of appearance resources and page resources are the same object, it would not be possible to add
+        // the xObject to the page resources. So in that case we would copy page resources and use the copy for
+        // xObject, so that circular reference is avoided.
+        // The copy is made only for the pages which need it, before any of the xObjects is added to the page resources.
+        PdfDictionary pageResources = page.isFlushed() ? null : page.getResources().getPdfObject();
+        PdfObject pageResourcesClone = null;
+        if (pageResources != null) {
+            for (PdfFormXObject xObject : appearances) {
+                if (xObject != null && xObject.getPdfObject().get(PdfName.Resources) == pageResources) {
+                    if (pageResourcesClone == null) {
+                        pageResourcesClone = pageResources.clone();
+                    }
+                    xObject.getPdfObject().put(PdfName.Resources, pageResourcesClone);
+                }
+            }
+        }
+
+        PdfArray fFields = getFields();
+        for (int i = 0; i < pageFields.size(); i++) {
+            PdfDictionary fieldObject = pageFields.get(i).getPdfObject();
+            PdfAnnotation annotation = PdfAnnotation.makeAnnotation(fieldObject);
+            TagTreePointer tagPointer = null;
+            if (annotation != null && document.isTagged()) {
+                tagPointer = document.getTagStructureContext().removeAnnotationTag(annotation);
+            }
+
+            PdfFormXObject xObject = appearances.get(i);
+            if (xObject != null) {
+                Rectangle box = fieldObject.getAsRectangle(PdfName.Rect);
+                if (page.isFlushed()) {
+                    throw new PdfException(PdfException.PageAlreadyFlushedUseAddFieldAppearanceToPageMethodBeforePageFlushing);
+                }
+                PdfCanvas canvas = new PdfCanvas(page);
+
+                if (tagPointer != null) {
+                    tagPointer.setPageForTagging(page);
+                    TagReference tagRef = tagPointer.getTagReference();
+                    canvas.openTag(tagRef);
+                }
+
+                PdfArray oldMatrix = xObject.getPdfObject().getAsArray(PdfName.Matrix);
+
+                if ( oldMatrix != null && Arrays.equals(oldMatrix.toFloatArray(), new float[] {1, 0, 0, 1, 0, 0})) {
+                    Rectangle boundingBox = xObject.getBBox().toRectangle();
+                    PdfArray newMatrixArray = new PdfArray(
+                            new float[] {
+                                    box.getWidth() / boundingBox.getWidth(), 0, 0,
+                                    box.getHeight() / boundingBox.getHeight(), 0, 0
+                            });
+                    xObject.put(PdfName.Matrix, new PdfArray(newMatrixArray));
+                }
+
+                canvas.addXObject(xObject, box.getX(), box.getY());
+                if (tagPointer != null) {
+                    canvas.closeTag();
+                }
+            }
+
+            fFields.remove(fieldObject);
+            if (annotation != null) {
+                page.removeAnnotation(annotation);
+            }
+            PdfDictionary parent = fieldObject.getAsDictionary(PdfName.Parent);
+            if (parent != null) {
+                PdfArray kids = parent.getAsArray(PdfName.Kids);
+                kids.remove(fieldObject);
+                // TODO what if parent was in it's turn the only child of it's parent (parent of parent)?
+                // shouldn't we remove them recursively? check it
+                if (kids.isEmpty()) {
+                    fFields.remove(parent);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the normal appearance of the field which is drawn on the page, generating it if needed.
+     *
+     * @return the appearance xObject, or {@code null} if the field has no valid appearance
+     */
+    private PdfFormXObject getAppearanceForFlattening(PdfFormField field) {
+        PdfDictionary fieldObject = field.getPdfObject();
+        PdfDictionary appDic = fieldObject.getAsDictionary(PdfName.AP);
+        PdfObject asNormal = null;
+        if (appDic != null) {
+            asNormal = appDic.getAsStream(PdfName.N);
+            if (asNormal == null) {
+                asNormal = appDic.getAsDictionary(PdfName.N);
+            }
+        }
+        if (generateAppearance) {
+            if (appDic == null || asNormal == null) {
+                field.regenerateField();
+                appDic = fieldObject.getAsDictionary(PdfName.AP);
+            }
+        }
+        if (appDic == null) {
+            return null;
+        }
+        PdfObject normal = appDic.get(PdfName.N);
+        PdfFormXObject xObject = null;
+        if (normal.isStream()) {
+            xObject = new PdfFormXObject((PdfStream) normal);
+        } else if (normal.isDictionary()) {
+            PdfName as = fieldObject.getAsName(PdfName.AS);
+            if (((PdfDictionary) normal).getAsStream(as) != null) {
+                xObject = new PdfFormXObject(((PdfDictionary) normal).getAsStream(as));
+                xObject.makeIndirect(document);
+            }
+        }
+
+        // Subtype is required key, if there is no Subtype it is invalid XObject. DEVSIX-725
+        if (xObject != null && xObject.getPdfObject().get(PdfName.Subtype) != null) {
+            return xObject;
+        }
+        return null;
+    }
+
     private Set<PdfFormField> prepareFieldsForFlattening(PdfFormField field) {
         Set<PdfFormField> preparedFields = new LinkedHashSet<>();
         preparedFields.add(field);
@@ -0,0 +1,136 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms.fields;
+
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Caches the normal appearances of the text and choice fields of a document, so that the fields which look
+ * the same share a single appearance {@link PdfFormXObject}.
+ * <p>
+ * The appearance is looked up by the field type, the value, the size and the rotation of the widget rectangle,
+ * the font and its size, the default appearance, the field flags, the justification, the border and the colors
+ * of the field and the choice options. If all of them match, the appearance is not generated by
+ * {@link PdfFormField#regenerateField()} once again, but the cached one is referenced from the field.
+ * <p>
+ * As the cached appearances are shared, the fields which use them shall be regenerated with the cache set,
+ * see {@link PdfFormField#setAppearanceCache(FormFieldAppearanceCache)}, so that the shared appearance
+ * is never redrawn in place.
+ */
+public class FormFieldAppearanceCache {
+
+    private final PdfDocument document;
+    private final Map<List<Object>, CachedAppearance> appearances = new HashMap<>();
+    private final Set<PdfObject> sharedStreams = new HashSet<>();
+    private long hitCount;
+
+    /**
+     * Creates an empty cache of the appearances of the document fields.
+     *
+     * @param document the document whose fields use the cache
+     */
+    public FormFieldAppearanceCache(PdfDocument document) {
+        this.document = document;
+    }
+
+    /**
+     * Gets the number of cached appearances.
+     *
+     * @return the number of different appearances which were generated with the cache
+     */
+    public int getSize() {
+        return appearances.size();
+    }
+
+    /**
+     * Gets the number of times a cached appearance was reused instead of being generated.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    PdfDocument getDocument() {
+        return document;
+    }
+
+    CachedAppearance get(List<Object> key) {
+        CachedAppearance appearance = appearances.get(key);
+        if (appearance != null) {
+            ++hitCount;
+        }
+        return appearance;
+    }
+
+    void put(List<Object> key, PdfFormXObject appearance, String defaultAppearance) {
+        appearance.makeIndirect(document);
+        appearances.put(key, new CachedAppearance(appearance, defaultAppearance));
+        sharedStreams.add(appearance.getPdfObject());
+    }
+
+    /**
+     * Checks whether the appearance stream is shared by the fields, so that it shall not be modified.
+     */
+    boolean isShared(PdfObject appearanceStream) {
+        return sharedStreams.contains(appearanceStream);
+    }
+
+    static class CachedAppearance {
+        final PdfFormXObject appearance;
+        final String defaultAppearance;
+
+        CachedAppearance(PdfFormXObject appearance, String defaultAppearance) {
+            this.appearance = appearance;
+            this.defaultAppearance = defaultAppearance;
+        }
+    }
+}
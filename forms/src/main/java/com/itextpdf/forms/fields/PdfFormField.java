@@ -93,6 +93,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -181,6 +182,8 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
     protected PdfFormXObject form;
     protected PdfAConformanceLevel pdfAConformanceLevel;
 
+    private FormFieldAppearanceCache appearanceCache;
+
     protected static final String check = "0.8 0 0 0.8 0.3 0.5 cm 0 0 m\n" +
             "0.066 -0.026 l\n" +
             "0.137 -0.15 l\n" +
@@ -1200,6 +1203,7 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
                     PdfFormField field = new PdfFormField((PdfDictionary) kid);
                     field.font = font;
                     field.fontSize = fontSize;
+                    field.appearanceCache = appearanceCache;
                     field.setValue(value);
                 }
             }
@@ -1954,6 +1958,20 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
         return this;
     }
 
+    /**
+     * Sets the cache of the appearances which are shared by the fields of the document,
+     * see {@link FormFieldAppearanceCache}. The cache is used by {@link #regenerateField()} for the text
+     * and choice fields.
+     *
+     * @param appearanceCache the cache of the document appearances, or {@code null} to generate
+     *                        the appearance of each field anew
+     * @return the edited field
+     */
+    public PdfFormField setAppearanceCache(FormFieldAppearanceCache appearanceCache) {
+        this.appearanceCache = appearanceCache;
+        return this;
+    }
+
     /**
      * This method regenerates appearance stream of the field. Use it if you
      * changed any field parameters and didn't use setValue method which
@@ -2068,6 +2086,25 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
                     //Copy Bounding box
                     bBox = new PdfArray(rect);
                 }
+                List<Object> appearanceKey = null;
+                if (appearanceCache != null && appearanceCache.getDocument() == getDocument()) {
+                    appearanceKey = createAppearanceKey(type, value, bBox, matrix, localFont, fontSize);
+                }
+                if (appearanceKey != null) {
+                    FormFieldAppearanceCache.CachedAppearance cachedAppearance = appearanceCache.get(appearanceKey);
+                    if (cachedAppearance != null) {
+                        setDefaultAppearance(cachedAppearance.defaultAppearance);
+                        PdfDictionary ap = new PdfDictionary();
+                        ap.put(PdfName.N, cachedAppearance.appearance.getPdfObject());
+                        ap.setModified();
+                        put(PdfName.AP, ap);
+                        return true;
+                    }
+                    if (asNormal != null && appearanceCache.isShared(asNormal)) {
+                        // the shared appearance of other fields shall not be redrawn
+                        asNormal = null;
+                    }
+                }
                 //Create appearance
                 PdfFormXObject appearance = null;
                 if (asNormal != null) {
@@ -2102,6 +2139,9 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
 
                 appearance.getResources().addFont(getDocument(), localFont);
                 appearance.setModified();
+                if (appearanceKey != null) {
+                    appearanceCache.put(appearanceKey, appearance, getDefaultAppearance().toUnicodeString());
+                }
                 PdfDictionary ap = new PdfDictionary();
                 ap.put(PdfName.N, appearance.getPdfObject());
                 ap.setModified();
@@ -2198,6 +2238,28 @@ public class PdfFormField extends PdfObjectWrapper<PdfDictionary> {
         return true;
     }
 
+    /**
+     * Collects everything the generated text or choice field appearance depends on.
+     *
+     * @return the key, or {@code null} if the appearance shall not be cached, e.g. the field has no widgets
+     */
+    private List<Object> createAppearanceKey(PdfName type, String value, PdfArray bBox, PdfArray matrix, PdfFont localFont, float localFontSize) {
+        List<PdfWidgetAnnotation> widgets = getWidgets();
+        if (widgets.isEmpty()) {
+            return null;
+        }
+        PdfDictionary fieldObject = getPdfObject();
+        PdfString defaultAppearance = getDefaultAppearance();
+        PdfDictionary borderStyle = widgets.get(0).getBorderStyle();
+        Rectangle rect = bBox.toRectangle();
+        return Arrays.<Object>asList(type, value, rect.getWidth(), rect.getHeight(),
+                matrix == null ? null : Arrays.toString(matrix.toFloatArray()), localFont, localFontSize,
+                defaultAppearance == null ? null : defaultAppearance.toUnicodeString(), getFieldFlags(), getJustification(),
+                color, backgroundColor, borderColor, getBorderWidth(), rotation,
+                String.valueOf(borderStyle), String.valueOf(fieldObject.get(PdfName.MaxLen)),
+                String.valueOf(getOptions()), String.valueOf(fieldObject.get(PdfName.TI)), String.valueOf(fieldObject.get(PdfName.I)));
+    }
+
     /**
      * According to spec (ISO-32000-1, 12.7.3.3) zero font size should interpretaded as auto size.
      */
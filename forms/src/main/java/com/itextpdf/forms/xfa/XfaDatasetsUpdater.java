@@ -0,0 +1,463 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms.xfa;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfString;
+
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLEventFactory;
+import javax.xml.stream.XMLEventReader;
+import javax.xml.stream.XMLEventWriter;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.events.Attribute;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+/**
+ * Reads and updates the data of an XFA form without building the DOM of the XFA packets, see {@link XfaForm}.
+ * <p>
+ * The datasets packet is read once with a streaming parser and only a compact index is kept: the SOM names
+ * and the values of the data values and the inverse search structure for the partial names.
+ * The changed values are applied by {@link #write()}, which streams the original packet once again and replaces
+ * the text of the changed data values.
+ * <p>
+ * The SOM names are the same as the names used by {@link XfaForm#findDatasetsName(String)}. Only the data values
+ * are indexed, the data groups can't be read or changed.
+ */
+public class XfaDatasetsUpdater {
+
+    private static final String DATASETS = "datasets";
+    private static final String DATA = "data";
+    private static final String DATA_NODE = "dataNode";
+    private static final String DATA_GROUP = "dataGroup";
+    private static final String DATA_VALUE = "dataValue";
+
+    private Xml2Som som = new Xml2Som();
+    private Xml2Som groupSom = new Xml2Som();
+    private Set<String> groupNames = new HashSet<>();
+    private PdfStream packetStream;
+    private boolean wholeXfaStream;
+    private Map<String, String> values = new HashMap<>();
+    private Map<String, String> changedValues = new LinkedHashMap<>();
+    private Map<String, InsertedNode> insertedNodes = new LinkedHashMap<>();
+
+    /**
+     * Reads the index of the XFA data of the document.
+     *
+     * @param pdfDocument the document with the XFA form
+     */
+    public XfaDatasetsUpdater(PdfDocument pdfDocument) {
+        som.order = new ArrayList<>();
+        som.inverseSearch = new HashMap<>();
+        som.stack = new Stack<>();
+        groupSom.inverseSearch = new HashMap<>();
+        PdfDictionary acroForm = pdfDocument.getCatalog().getPdfObject().getAsDictionary(PdfName.AcroForm);
+        PdfObject xfa = acroForm == null ? null : acroForm.get(PdfName.XFA);
+        if (xfa instanceof PdfArray) {
+            PdfArray packets = (PdfArray) xfa;
+            for (int k = 0; k + 1 < packets.size(); k += 2) {
+                PdfString packetName = packets.getAsString(k);
+                if (packetName != null && DATASETS.equals(packetName.toUnicodeString())) {
+                    packetStream = packets.getAsStream(k + 1);
+                }
+            }
+        } else if (xfa instanceof PdfStream) {
+            packetStream = (PdfStream) xfa;
+            wholeXfaStream = true;
+        }
+        if (packetStream != null) {
+            try {
+                processPacket(null);
+            } catch (XMLStreamException e) {
+                throw new PdfException(e);
+            }
+        }
+    }
+
+    /**
+     * Returns <CODE>true</CODE> if the document has the XFA datasets.
+     *
+     * @return <CODE>true</CODE> if the document has the XFA datasets
+     */
+    public boolean isXfaPresent() {
+        return packetStream != null;
+    }
+
+    /**
+     * Finds the complete SOM name contained in the datasets section from a possibly partial name.
+     *
+     * @param name the complete or partial name
+     * @return the complete name or <CODE>null</CODE> if not found
+     */
+    public String findDatasetsName(String name) {
+        return values.containsKey(name) ? name : som.inverseSearchGlobal(Xml2Som.splitParts(name));
+    }
+
+    /**
+     * Gets the value of the data node.
+     *
+     * @param name the complete or partial SOM name of the data node
+     * @return the value, or <CODE>null</CODE> if there is no such data value
+     */
+    public String getValue(String name) {
+        String datasetsName = findDatasetsName(name);
+        return datasetsName == null ? null : values.get(datasetsName);
+    }
+
+    /**
+     * Gets the complete SOM names of all the data values, in the order in which their elements end.
+     *
+     * @return the complete SOM names of the data values
+     */
+    public List<String> getDatasetsNames() {
+        return Collections.unmodifiableList(som.order);
+    }
+
+    /**
+     * Changes the value of the data value node. If there is no data node with such name, it is inserted
+     * when the datasets are written, the same way as {@link XfaForm#setXfaFieldValue(String, String)} does.
+     * The data groups are not changed, so nothing is done if the name is the name of a data group.
+     *
+     * @param name  the complete or partial SOM name of the data value node
+     * @param value the new value
+     * @return this {@link XfaDatasetsUpdater} instance
+     */
+    public XfaDatasetsUpdater setValue(String name, String value) {
+        String datasetsName = findDatasetsName(name);
+        if (datasetsName != null) {
+            changedValues.put(datasetsName, value);
+            values.put(datasetsName, value);
+            return this;
+        }
+        Stack<String> parts = Xml2Som.splitParts(name);
+        if (groupSom.inverseSearchGlobal(parts) != null) {
+            return this;
+        }
+        // the new node is inserted into the deepest existing data group
+        int existingPartsCount = parts.size() - 1;
+        String parentName = joinParts(parts, existingPartsCount);
+        while (existingPartsCount > 0 && !groupNames.contains(parentName)) {
+            parentName = joinParts(parts, --existingPartsCount);
+        }
+        InsertedNode node = insertedNodes.get(parentName);
+        if (node == null) {
+            node = new InsertedNode();
+            insertedNodes.put(parentName, node);
+        }
+        for (int k = existingPartsCount; k < parts.size(); ++k) {
+            boolean groupInserted = k + 1 < parts.size() && !node.children.containsKey(parts.get(k));
+            node = node.getChild(parts.get(k));
+            if (groupInserted) {
+                Stack<String> groupParts = new Stack<>();
+                groupParts.addAll(parts.subList(0, k + 1));
+                Xml2Som.inverseSearchAdd(groupSom.inverseSearch, groupParts, joinParts(parts, k + 1));
+            }
+        }
+        node.value = value;
+        String fullName = joinParts(parts, parts.size());
+        values.put(fullName, value);
+        som.order.add(fullName);
+        Xml2Som.inverseSearchAdd(som.inverseSearch, parts, fullName);
+        return this;
+    }
+
+    /**
+     * Writes the changed values to the datasets packet of the document.
+     */
+    public void write() {
+        if (packetStream == null || changedValues.isEmpty() && insertedNodes.isEmpty()) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream();
+            XMLEventWriter writer = XMLOutputFactory.newInstance().createXMLEventWriter(output, "UTF-8");
+            processPacket(writer);
+            writer.close();
+            packetStream.setData(output.toByteArray());
+            packetStream.setModified();
+        } catch (XMLStreamException e) {
+            throw new PdfException(e);
+        }
+        changedValues.clear();
+        insertedNodes.clear();
+    }
+
+    /**
+     * Streams the datasets packet. If there is no writer, the index of the data nodes is built.
+     * Otherwise the packet is written with the changed values and the inserted nodes.
+     */
+    private void processPacket(XMLEventWriter writer) throws XMLStreamException {
+        XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        // Prevents XXE attacks
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        XMLEventReader reader = inputFactory.createXMLEventReader(new ByteArrayInputStream(packetStream.getBytes()));
+        XMLEventFactory eventFactory = XMLEventFactory.newInstance();
+
+        // the open elements of the data element subtree, the data element itself is at the bottom
+        Stack<DataElement> dataElements = new Stack<>();
+        boolean inDatasets = false;
+        boolean dataProcessed = false;
+        while (reader.hasNext()) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartDocument() || event.isEndDocument()) {
+                if (writer != null && wholeXfaStream) {
+                    writer.add(event);
+                }
+                continue;
+            }
+            if (event.isStartElement()) {
+                StartElement element = event.asStartElement();
+                if (!dataElements.isEmpty()) {
+                    DataElement parent = dataElements.peek();
+                    parent.hasElementChildren = true;
+                    if (parent.indexed && parent.hasDataChildren) {
+                        String part = Xml2Som.escapeSom(element.getName().getLocalPart());
+                        Integer count = parent.childCounts.get(part);
+                        int index = count == null ? 0 : count + 1;
+                        parent.childCounts.put(part, index);
+                        som.stack.push(part + "[" + index + "]");
+                        DataElement dataElement = new DataElement(true, getDataNodeAttribute(element));
+                        if (writer != null) {
+                            String name = som.printStack();
+                            if (changedValues.containsKey(name)) {
+                                writer.add(eventFactory.createStartElement(element.getName(), withoutDataNode(element), element.getNamespaces()));
+                                writer.add(eventFactory.createCharacters(changedValues.get(name)));
+                                skipElement(reader);
+                                writer.add(eventFactory.createEndElement(element.getName(), element.getNamespaces()));
+                                som.stack.pop();
+                                continue;
+                            }
+                        }
+                        dataElements.push(dataElement);
+                    } else {
+                        dataElements.push(new DataElement(false, DATA_VALUE));
+                    }
+                } else if (!dataProcessed && XfaForm.XFA_DATA_SCHEMA.equals(element.getName().getNamespaceURI())) {
+                    if (DATASETS.equals(element.getName().getLocalPart())) {
+                        inDatasets = true;
+                    } else if (inDatasets && DATA.equals(element.getName().getLocalPart())) {
+                        dataElements.push(new DataElement(true, DATA_GROUP));
+                    }
+                }
+            } else if (event.isEndElement()) {
+                if (!dataElements.isEmpty()) {
+                    DataElement dataElement = dataElements.pop();
+                    if (dataElement.indexed) {
+                        String name = som.printStack();
+                        if (writer != null && insertedNodes.containsKey(name)) {
+                            writeInsertedNodes(writer, eventFactory, insertedNodes.get(name), dataElement.childCounts);
+                        }
+                        if (dataElements.isEmpty()) {
+                            dataProcessed = true;
+                        } else {
+                            if (writer == null) {
+                                if (dataElement.isDataGroup()) {
+                                    groupNames.add(name);
+                                    Xml2Som.inverseSearchAdd(groupSom.inverseSearch, som.stack, name);
+                                } else {
+                                    som.order.add(name);
+                                    som.inverseSearchAdd(name);
+                                    values.put(name, dataElement.text.toString());
+                                }
+                            }
+                            som.stack.pop();
+                        }
+                    }
+                    if (!dataElements.isEmpty() && !dataElements.peek().hasDataChildren) {
+                        dataElements.peek().text.append(dataElement.text);
+                    }
+                } else if (DATASETS.equals(event.asEndElement().getName().getLocalPart())) {
+                    inDatasets = false;
+                }
+            } else if (event.isCharacters() && !dataElements.isEmpty()) {
+                dataElements.peek().text.append(event.asCharacters().getData());
+            }
+            if (writer != null) {
+                writer.add(event);
+            }
+        }
+        reader.close();
+    }
+
+    private void writeInsertedNodes(XMLEventWriter writer, XMLEventFactory eventFactory, InsertedNode parent,
+                                    Map<String, Integer> existingCounts) throws XMLStreamException {
+        Map<String, Integer> counts = new HashMap<>(existingCounts);
+        List<Map.Entry<String, InsertedNode>> children = new ArrayList<>(parent.children.entrySet());
+        Collections.sort(children, new Comparator<Map.Entry<String, InsertedNode>>() {
+            @Override
+            public int compare(Map.Entry<String, InsertedNode> o1, Map.Entry<String, InsertedNode> o2) {
+                return Integer.compare(getPartIndex(o1.getKey()), getPartIndex(o2.getKey()));
+            }
+        });
+        for (Map.Entry<String, InsertedNode> child : children) {
+            String part = child.getKey();
+            String name = part.substring(0, part.lastIndexOf('['));
+            int partIndex = getPartIndex(part);
+            Integer count = counts.get(name);
+            QName elementName = new QName(Xml2Som.unescapeSom(name));
+            for (int k = count == null ? 0 : count + 1; k < partIndex; ++k) {
+                writer.add(eventFactory.createStartElement(elementName, createDataGroupAttributes(eventFactory), null));
+                writer.add(eventFactory.createEndElement(elementName, null));
+            }
+            counts.put(name, partIndex);
+            InsertedNode node = child.getValue();
+            if (node.value != null) {
+                writer.add(eventFactory.createStartElement(elementName, null, null));
+                writer.add(eventFactory.createCharacters(node.value));
+            } else {
+                writer.add(eventFactory.createStartElement(elementName, createDataGroupAttributes(eventFactory), null));
+                writeInsertedNodes(writer, eventFactory, node, Collections.<String, Integer>emptyMap());
+            }
+            writer.add(eventFactory.createEndElement(elementName, null));
+        }
+    }
+
+    private static Iterator<Attribute> createDataGroupAttributes(XMLEventFactory eventFactory) {
+        return Collections.singletonList(eventFactory.createAttribute("xfa", XfaForm.XFA_DATA_SCHEMA, DATA_NODE, DATA_GROUP)).iterator();
+    }
+
+    private static int getPartIndex(String part) {
+        return Integer.parseInt(part.substring(part.lastIndexOf('[') + 1, part.length() - 1));
+    }
+
+    private static void skipElement(XMLEventReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                ++depth;
+            } else if (event.isEndElement()) {
+                --depth;
+            }
+        }
+    }
+
+    private static String getDataNodeAttribute(StartElement element) {
+        Attribute attribute = element.getAttributeByName(new QName(XfaForm.XFA_DATA_SCHEMA, DATA_NODE));
+        return attribute == null ? null : attribute.getValue();
+    }
+
+    private static Iterator<Attribute> withoutDataNode(StartElement element) {
+        List<Attribute> attributes = new ArrayList<>();
+        Iterator<?> iterator = element.getAttributes();
+        while (iterator.hasNext()) {
+            Attribute attribute = (Attribute) iterator.next();
+            QName name = attribute.getName();
+            if (!(DATA_NODE.equals(name.getLocalPart()) && XfaForm.XFA_DATA_SCHEMA.equals(name.getNamespaceURI()))) {
+                attributes.add(attribute);
+            }
+        }
+        return attributes.iterator();
+    }
+
+    private static String joinParts(List<String> parts, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int k = 0; k < count; ++k) {
+            if (k > 0) {
+                sb.append('.');
+            }
+            sb.append(parts.get(k));
+        }
+        return sb.toString();
+    }
+
+    private static class DataElement {
+        final boolean indexed;
+        final boolean hasDataChildren;
+        final boolean explicitDataGroup;
+        final Map<String, Integer> childCounts = new HashMap<>();
+        final StringBuilder text = new StringBuilder();
+        boolean hasElementChildren;
+
+        DataElement(boolean indexed, String dataNode) {
+            this.indexed = indexed;
+            this.hasDataChildren = !DATA_VALUE.equals(dataNode);
+            this.explicitDataGroup = DATA_GROUP.equals(dataNode);
+        }
+
+        /**
+         * The same check as the one {@link Xml2SomDatasets} does for the DOM nodes.
+         */
+        boolean isDataGroup() {
+            return explicitDataGroup || hasDataChildren && hasElementChildren;
+        }
+    }
+
+    private static class InsertedNode {
+        final Map<String, InsertedNode> children = new LinkedHashMap<>();
+        String value;
+
+        InsertedNode getChild(String part) {
+            InsertedNode child = children.get(part);
+            if (child == null) {
+                child = new InsertedNode();
+                children.put(part, child);
+            }
+            return child;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.forms.fields.PdfTextFormField;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+@Category(IntegrationTest.class)
+public class CompiledFormTemplateTest extends ExtendedITextTest {
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void fillTemplateSeveralTimesTest() throws IOException {
+        byte[] template = createTemplate();
+        CompiledFormTemplate compiledTemplate = new CompiledFormTemplate(template);
+        Assert.assertEquals(Arrays.asList("name", "city", "comment"), Arrays.asList(compiledTemplate.getFieldNames().toArray()));
+        Assert.assertEquals(PdfName.Tx, compiledTemplate.getFieldType("name"));
+        Assert.assertNull(compiledTemplate.getFieldType("unknown"));
+
+        for (int i = 0; i < 3; ++i) {
+            Map<String, String> values = new HashMap<>();
+            values.put("name", "Name " + i);
+            values.put("city", "City " + i);
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            compiledTemplate.fill(values, baos);
+            byte[] filled = baos.toByteArray();
+            // the filled document is an incremental update of the template
+            Assert.assertArrayEquals(template, Arrays.copyOf(filled, template.length));
+
+            PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(filled)));
+            Map<String, PdfFormField> fields = PdfAcroForm.getAcroForm(pdfDocument, false).getFormFields();
+            Assert.assertEquals("Name " + i, fields.get("name").getValueAsString());
+            Assert.assertEquals("City " + i, fields.get("city").getValueAsString());
+            Assert.assertEquals("", fields.get("comment").getValueAsString());
+            Assert.assertNotNull(fields.get("name").getWidgets().get(0).getNormalAppearanceObject());
+            pdfDocument.close();
+        }
+    }
+
+    @Test
+    public void fillUnknownFieldTest() throws IOException {
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage("There is no field in the document with such name: unknown.");
+
+        Map<String, String> values = new HashMap<>();
+        values.put("unknown", "value");
+        new CompiledFormTemplate(createTemplate()).fill(values, new ByteArrayOutputStream());
+    }
+
+    private static byte[] createTemplate() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        pdfDocument.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDocument, true);
+        form.addField(PdfTextFormField.createText(pdfDocument, new Rectangle(36, 700, 200, 20), "name", ""));
+        form.addField(PdfTextFormField.createText(pdfDocument, new Rectangle(36, 650, 200, 20), "city", ""));
+        form.addField(PdfTextFormField.createText(pdfDocument, new Rectangle(36, 600, 200, 20), "comment", ""));
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+}
@@ -0,0 +1,180 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms;
+
+import com.itextpdf.forms.fields.FormFieldAppearanceCache;
+import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.forms.fields.PdfTextFormField;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Map;
+
+@Category(IntegrationTest.class)
+public class FormFieldAppearanceCacheTest extends ExtendedITextTest {
+
+    @Test
+    public void sameAppearancesAreSharedTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        for (int i = 0; i < 20; i++) {
+            form.addField(PdfTextFormField.createText(pdfDoc, new Rectangle(36, 750 - 30 * i, 200, 20), "field" + i, "", font, 12));
+        }
+        FormFieldAppearanceCache cache = new FormFieldAppearanceCache(pdfDoc);
+        form.setAppearanceCache(cache);
+
+        Map<String, PdfFormField> fields = form.getFormFields();
+        for (PdfFormField field : fields.values()) {
+            field.setValue("N/A");
+        }
+        Assert.assertEquals(1, cache.getSize());
+        Assert.assertEquals(19, cache.getHitCount());
+        PdfObject sharedAppearance = getNormalAppearance(fields.get("field0"));
+        for (PdfFormField field : fields.values()) {
+            Assert.assertSame(sharedAppearance, getNormalAppearance(field));
+            Assert.assertEquals(fields.get("field0").getDefaultAppearance(), field.getDefaultAppearance());
+        }
+
+        // the changed field gets its own appearance, the shared one is not redrawn
+        byte[] sharedContent = ((PdfStream) sharedAppearance).getBytes();
+        fields.get("field5").setValue("changed");
+        Assert.assertEquals(2, cache.getSize());
+        Assert.assertNotSame(sharedAppearance, getNormalAppearance(fields.get("field5")));
+        Assert.assertArrayEquals(sharedContent, ((PdfStream) sharedAppearance).getBytes());
+        Assert.assertSame(sharedAppearance, getNormalAppearance(fields.get("field6")));
+        pdfDoc.close();
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Map<String, PdfFormField> resultFields = PdfAcroForm.getAcroForm(resultDoc, false).getFormFields();
+        Assert.assertEquals("N/A", resultFields.get("field19").getValueAsString());
+        Assert.assertEquals("changed", resultFields.get("field5").getValueAsString());
+        Assert.assertEquals(getNormalAppearance(resultFields.get("field0")).getIndirectReference(),
+                getNormalAppearance(resultFields.get("field19")).getIndirectReference());
+        resultDoc.close();
+    }
+
+    @Test
+    public void differentRectanglesAreNotSharedTest() throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        form.addField(PdfTextFormField.createText(pdfDoc, new Rectangle(36, 700, 200, 20), "narrow", "", font, 12));
+        form.addField(PdfTextFormField.createText(pdfDoc, new Rectangle(36, 650, 300, 20), "wide", "", font, 12));
+        FormFieldAppearanceCache cache = new FormFieldAppearanceCache(pdfDoc);
+        form.setAppearanceCache(cache);
+
+        form.getField("narrow").setValue("value");
+        form.getField("wide").setValue("value");
+        Assert.assertEquals(2, cache.getSize());
+        Assert.assertEquals(0, cache.getHitCount());
+        Assert.assertNotSame(getNormalAppearance(form.getField("narrow")), getNormalAppearance(form.getField("wide")));
+        pdfDoc.close();
+    }
+
+    @Test
+    public void fieldWithoutWidgetsIsNotCachedTest() throws IOException {
+        // the appearance of a field without widgets can't be drawn, the cache shall neither hide nor change that
+        String failureWithoutCache = regenerateFieldWithoutWidgets(false);
+        String failureWithCache = regenerateFieldWithoutWidgets(true);
+        Assert.assertNotNull(failureWithoutCache);
+        Assert.assertEquals(failureWithoutCache, failureWithCache);
+    }
+
+    private static PdfObject getNormalAppearance(PdfFormField field) {
+        return field.getPdfObject().getAsDictionary(PdfName.AP).get(PdfName.N);
+    }
+
+    /**
+     * @return the exception and the {@link PdfFormField} method which has thrown it
+     */
+    private static String regenerateFieldWithoutWidgets(boolean useCache) throws IOException {
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        FormFieldAppearanceCache cache = new FormFieldAppearanceCache(pdfDoc);
+        PdfTextFormField field = PdfFormField.createText(pdfDoc);
+        field.setFieldName("noWidgets");
+        if (useCache) {
+            field.setAppearanceCache(cache);
+        }
+        field.put(PdfName.Rect, new PdfArray(new Rectangle(36, 700, 200, 20)));
+        form.addField(field);
+        Assert.assertTrue(field.getWidgets().isEmpty());
+
+        String failure = null;
+        try {
+            field.setFont(PdfFontFactory.createFont(StandardFonts.HELVETICA)).setFontSize(12);
+            field.setValue("value");
+        } catch (RuntimeException e) {
+            for (StackTraceElement element : e.getStackTrace()) {
+                if (PdfFormField.class.getName().equals(element.getClassName())) {
+                    failure = e.getClass().getName() + " in " + element.getMethodName();
+                    break;
+                }
+            }
+        }
+        Assert.assertEquals(0, cache.getSize());
+        return failure;
+    }
+}
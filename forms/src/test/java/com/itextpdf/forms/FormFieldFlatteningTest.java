@@ -43,8 +43,15 @@
 package com.itextpdf.forms;
 
 import com.itextpdf.forms.fields.PdfFormField;
+import com.itextpdf.forms.fields.PdfTextFormField;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDictionary;
 import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
 import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
 import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.test.ExtendedITextTest;
@@ -54,6 +61,7 @@ import org.junit.BeforeClass;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 
 @Category(IntegrationTest.class)
@@ -197,4 +205,63 @@ public class FormFieldFlatteningTest extends ExtendedITextTest {
         }
 
     }
+
+    @Test
+    public void flattenFieldsOfFewPagesAndFlushThemTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        for (int i = 0; i < 50; i++) {
+            pdfDoc.addNewPage();
+        }
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        form.addField(PdfTextFormField.createText(pdfDoc, new Rectangle(36, 700, 200, 20), "first", "first value"), pdfDoc.getPage(10));
+        form.addField(PdfTextFormField.createText(pdfDoc, new Rectangle(36, 650, 200, 20), "second", "second value"), pdfDoc.getPage(40));
+        form.addField(PdfTextFormField.createText(pdfDoc, new Rectangle(36, 600, 200, 20), "third", "third value"), pdfDoc.getPage(10));
+        // the pages of the fields without the page entry are found by the widget annotations
+        form.getField("second").getPdfObject().remove(PdfName.P);
+
+        form.setFlushFlattenedPages(true);
+        form.flattenFields();
+
+        Assert.assertTrue(pdfDoc.getPage(10).isFlushed());
+        Assert.assertTrue(pdfDoc.getPage(40).isFlushed());
+        Assert.assertFalse(pdfDoc.getPage(1).isFlushed());
+        Assert.assertNull(pdfDoc.getCatalog().getPdfObject().get(PdfName.AcroForm));
+        pdfDoc.close();
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        for (int i = 1; i <= resultDoc.getNumberOfPages(); i++) {
+            PdfPage page = resultDoc.getPage(i);
+            Assert.assertTrue(page.getAnnotations().isEmpty());
+            PdfDictionary xObjects = page.getResources().getResource(PdfName.XObject);
+            int expectedXObjects = i == 10 ? 2 : (i == 40 ? 1 : 0);
+            Assert.assertEquals(expectedXObjects, xObjects == null ? 0 : xObjects.size());
+        }
+        resultDoc.close();
+    }
+
+    @Test
+    public void flattenFieldWithAppearanceSharingPageResourcesTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        pdfDoc.addNewPage();
+        PdfPage page = pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        form.addField(PdfTextFormField.createText(pdfDoc, new Rectangle(36, 700, 200, 20), "shared", "value"), page);
+        PdfDictionary pageResources = page.getResources().getPdfObject();
+        pageResources.makeIndirect(pdfDoc);
+        PdfStream appearance = (PdfStream) form.getField("shared").getWidgets().get(0).getNormalAppearanceObject();
+        appearance.put(PdfName.Resources, pageResources);
+
+        form.flattenFields();
+
+        PdfDictionary xObjectResources = appearance.getAsDictionary(PdfName.Resources);
+        Assert.assertNotSame(pageResources, xObjectResources);
+        PdfDictionary pageXObjects = page.getResources().getResource(PdfName.XObject);
+        Assert.assertEquals(1, pageXObjects.size());
+        Assert.assertNull(xObjectResources.getAsDictionary(PdfName.XObject));
+        // the resources of the page without fields are not touched
+        Assert.assertNull(pdfDoc.getPage(1).getResources().getResource(PdfName.XObject));
+        pdfDoc.close();
+    }
 }
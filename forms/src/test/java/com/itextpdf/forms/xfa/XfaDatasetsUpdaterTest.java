@@ -0,0 +1,200 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.forms.xfa;
+
+import com.itextpdf.forms.PdfAcroForm;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+@Category(IntegrationTest.class)
+public class XfaDatasetsUpdaterTest extends ExtendedITextTest {
+
+    public static final String sourceFolder = "./src/test/resources/com/itextpdf/forms/xfa/XFAFormTest/";
+
+    @Test
+    public void updateWholeXfaStreamTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        writeXfaForm(pdfDoc);
+        pdfDoc.addNewPage();
+        pdfDoc.close();
+
+        baos = updateDatasets(baos.toByteArray());
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        XfaForm xfaForm = new XfaForm(resultDoc);
+        Assert.assertEquals("5", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Number1[0]")));
+        Assert.assertEquals("2.00000000", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Number2[0]")));
+        Assert.assertEquals("3", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Number3[0]")));
+        Assert.assertEquals("4", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Address[0].City[1]")));
+        Assert.assertNotNull(xfaForm.findDatasetsNode("form1[0].Address[0].City[0]"));
+        // the template packet is kept
+        Assert.assertTrue(XfaForm.extractXFANodes(xfaForm.getDomDocument()).containsKey("template"));
+        resultDoc.close();
+    }
+
+    @Test
+    public void updateDatasetsPacketTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        pdfDoc.addNewPage();
+        PdfAcroForm form = PdfAcroForm.getAcroForm(pdfDoc, true);
+        PdfArray packets = new PdfArray();
+        addPacket(packets, "preamble", "<xdp:xdp xmlns:xdp=\"http://ns.adobe.com/xdp/\">");
+        addPacket(packets, "template", "<template xmlns=\"http://www.xfa.org/schema/xfa-template/3.3/\"></template>");
+        addPacket(packets, "datasets", "<xfa:datasets xmlns:xfa=\"http://www.xfa.org/schema/xfa-data/1.0/\"><xfa:data>"
+                + "<form1><Number1>1.00000000</Number1><Number2>2.00000000</Number2></form1></xfa:data></xfa:datasets>");
+        addPacket(packets, "postamble", "</xdp:xdp>");
+        form.put(PdfName.XFA, packets);
+        pdfDoc.close();
+
+        baos = updateDatasets(baos.toByteArray());
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        PdfArray resultPackets = PdfAcroForm.getAcroForm(resultDoc, false).getPdfObject().getAsArray(PdfName.XFA);
+        String datasets = new String(resultPackets.getAsStream(5).getBytes(), StandardCharsets.UTF_8);
+        Assert.assertFalse(datasets.startsWith("<?xml"));
+        XfaForm xfaForm = new XfaForm(resultDoc);
+        Assert.assertEquals("5", XfaForm.getNodeText(xfaForm.findDatasetsNode("Number1")));
+        Assert.assertEquals("3", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Number3[0]")));
+        resultDoc.close();
+    }
+
+    @Test
+    public void readDatasetsIndexTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        writeXfaForm(pdfDoc);
+        pdfDoc.addNewPage();
+        pdfDoc.close();
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        XfaDatasetsUpdater updater = new XfaDatasetsUpdater(resultDoc);
+        Assert.assertTrue(updater.isXfaPresent());
+        Assert.assertEquals(Arrays.asList("form1[0].Number1[0]", "form1[0].Number2[0]"), updater.getDatasetsNames());
+        Assert.assertEquals("form1[0].Number2[0]", updater.findDatasetsName("Number2"));
+        Assert.assertEquals("1.00000000", updater.getValue("Number1"));
+        Assert.assertNull(updater.findDatasetsName("form1"));
+        Assert.assertNull(updater.getValue("form1"));
+        Assert.assertNull(updater.getValue("unknown"));
+        resultDoc.close();
+    }
+
+    @Test
+    public void setDataGroupValueTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfWriter(baos));
+        writeXfaForm(pdfDoc);
+        pdfDoc.addNewPage();
+        pdfDoc.close();
+
+        ByteArrayOutputStream resultBaos = new ByteArrayOutputStream();
+        pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())), new PdfWriter(resultBaos));
+        XfaDatasetsUpdater updater = new XfaDatasetsUpdater(pdfDoc);
+        updater.setValue("form1[0].Address[0].City[0]", "City");
+        // neither the existing nor the inserted data groups are replaced with the values
+        updater.setValue("form1", "value");
+        updater.setValue("Address", "value");
+        updater.setValue("Number2", "2");
+        Assert.assertNull(updater.getValue("form1"));
+        Assert.assertEquals(Arrays.asList("form1[0].Number1[0]", "form1[0].Number2[0]", "form1[0].Address[0].City[0]"),
+                updater.getDatasetsNames());
+        updater.write();
+        pdfDoc.close();
+
+        PdfDocument resultDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(resultBaos.toByteArray())));
+        XfaForm xfaForm = new XfaForm(resultDoc);
+        Assert.assertEquals("1.00000000", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Number1[0]")));
+        Assert.assertEquals("2", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Number2[0]")));
+        Assert.assertEquals("City", XfaForm.getNodeText(xfaForm.findDatasetsNode("form1[0].Address[0].City[0]")));
+        Assert.assertNull(xfaForm.findDatasetsNode("form1[1]"));
+        Assert.assertNull(xfaForm.findDatasetsNode("form1[0].Address[1]"));
+        resultDoc.close();
+    }
+
+    private static ByteArrayOutputStream updateDatasets(byte[] pdf) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDoc = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)), new PdfWriter(baos));
+        XfaDatasetsUpdater updater = new XfaDatasetsUpdater(pdfDoc);
+        Assert.assertEquals("1.00000000", updater.getValue("form1[0].Number1[0]"));
+        updater.setValue("Number1", "5");
+        updater.setValue("form1[0].Number3[0]", "3");
+        updater.setValue("form1[0].Address[0].City[1]", "4");
+        Assert.assertEquals("5", updater.getValue("Number1"));
+        updater.write();
+        pdfDoc.close();
+        return baos;
+    }
+
+    private static void writeXfaForm(PdfDocument pdfDoc) throws IOException {
+        InputStream xfaStream = new FileInputStream(sourceFolder + "xfa.xml");
+        try {
+            new XfaForm(xfaStream).write(pdfDoc);
+        } finally {
+            xfaStream.close();
+        }
+    }
+
+    private static void addPacket(PdfArray packets, String name, String content) {
+        packets.add(new PdfString(name));
+        packets.add(new PdfStream(content.getBytes(StandardCharsets.UTF_8)));
+    }
+}
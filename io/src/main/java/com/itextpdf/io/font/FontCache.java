@@ -63,6 +63,7 @@ import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 public class FontCache {
 
@@ -77,6 +78,12 @@ public class FontCache {
 
     private static Map<FontCacheKey, FontProgram> fontCache = new ConcurrentHashMap<>();
 
+    // Parsed predefined CMaps are never modified after parsing, so a single instance is shared by all fonts
+    private static final ConcurrentMap<String, CMapCidUni> cid2UniCmaps = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CMapUniCid> uni2CidCmaps = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CMapByteCid> byte2CidCmaps = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<String, CMapCidByte> cid2ByteCmaps = new ConcurrentHashMap<>();
+
     static {
         try {
             loadRegistry();
@@ -128,24 +135,100 @@ public class FontCache {
         return registryNames;
     }
 
+    /**
+     * Gets the CID to Unicode mapping of the predefined CMap. The CMap is parsed only once,
+     * the same instance is returned on the subsequent calls.
+     *
+     * @param uniMap the name of the predefined Unicode CMap, e.g. UniJIS-UCS2-H
+     * @return the parsed CMap
+     */
     public static CMapCidUni getCid2UniCmap(String uniMap) {
-        CMapCidUni cidUni = new CMapCidUni();
-        return parseCmap(uniMap, cidUni);
+        CMapCidUni cidUni = cid2UniCmaps.get(uniMap);
+        if (cidUni == null) {
+            CMapCidUni parsedCidUni = parseCmap(uniMap, new CMapCidUni());
+            // another thread may have parsed the same CMap concurrently, the first stored instance wins
+            cidUni = cid2UniCmaps.putIfAbsent(uniMap, parsedCidUni);
+            if (cidUni == null) {
+                cidUni = parsedCidUni;
+            }
+        }
+        return cidUni;
     }
 
+    /**
+     * Gets the Unicode to CID mapping of the predefined CMap. The CMap is parsed only once,
+     * the same instance is returned on the subsequent calls.
+     *
+     * @param uniMap the name of the predefined Unicode CMap, e.g. UniJIS-UCS2-H
+     * @return the parsed CMap
+     */
     public static CMapUniCid getUni2CidCmap(String uniMap) {
-        CMapUniCid uniCid = new CMapUniCid();
-        return parseCmap(uniMap, uniCid);
+        CMapUniCid uniCid = uni2CidCmaps.get(uniMap);
+        if (uniCid == null) {
+            CMapUniCid parsedUniCid = parseCmap(uniMap, new CMapUniCid());
+            uniCid = uni2CidCmaps.putIfAbsent(uniMap, parsedUniCid);
+            if (uniCid == null) {
+                uniCid = parsedUniCid;
+            }
+        }
+        return uniCid;
     }
 
+    /**
+     * Gets the byte sequence to CID mapping of the predefined CMap. The CMap is parsed only once,
+     * the same instance is returned on the subsequent calls.
+     *
+     * @param cmap the name of the predefined CMap
+     * @return the parsed CMap
+     */
     public static CMapByteCid getByte2CidCmap(String cmap) {
-        CMapByteCid uniCid = new CMapByteCid();
-        return parseCmap(cmap, uniCid);
+        CMapByteCid byteCid = byte2CidCmaps.get(cmap);
+        if (byteCid == null) {
+            CMapByteCid parsedByteCid = parseCmap(cmap, new CMapByteCid());
+            byteCid = byte2CidCmaps.putIfAbsent(cmap, parsedByteCid);
+            if (byteCid == null) {
+                byteCid = parsedByteCid;
+            }
+        }
+        return byteCid;
     }
 
+    /**
+     * Gets the CID to byte sequence mapping of the predefined CMap. The CMap is parsed only once,
+     * the same instance is returned on the subsequent calls.
+     *
+     * @param cmap the name of the predefined CMap
+     * @return the parsed CMap
+     */
     public static CMapCidByte getCid2Byte(String cmap) {
-        CMapCidByte cidByte = new CMapCidByte();
-        return parseCmap(cmap, cidByte);
+        CMapCidByte cidByte = cid2ByteCmaps.get(cmap);
+        if (cidByte == null) {
+            CMapCidByte parsedCidByte = parseCmap(cmap, new CMapCidByte());
+            cidByte = cid2ByteCmaps.putIfAbsent(cmap, parsedCidByte);
+            if (cidByte == null) {
+                cidByte = parsedCidByte;
+            }
+        }
+        return cidByte;
+    }
+
+    /**
+     * Parses the predefined CMaps in advance, e.g. at the application startup, so that
+     * the first documents which use CJK fonts don't have to wait for it.
+     * Unicode CMaps (the ones which names start with "Uni") are loaded both as CID to Unicode and
+     * Unicode to CID mappings, other CMaps are loaded as CID to byte sequence mappings.
+     *
+     * @param cmaps the names of the predefined CMaps to be loaded
+     */
+    public static void preloadCmaps(String... cmaps) {
+        for (String cmap : cmaps) {
+            if (cmap.startsWith("Uni")) {
+                getCid2UniCmap(cmap);
+                getUni2CidCmap(cmap);
+            } else {
+                getCid2Byte(cmap);
+            }
+        }
     }
 
     public static FontProgram getFont(String fontName) {
@@ -46,6 +46,7 @@ package com.itextpdf.io.font.cmap;
 import com.itextpdf.io.util.IntHashtable;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -94,9 +95,10 @@ public class CMapCidByte extends AbstractCMap {
     /**
      * Returns a list containing sequential pairs of code space beginning and endings:
      * (begincodespacerange1, endcodespacerange1, begincodespacerange2, endcodespacerange1, ...)
+     * The returned list can't be modified, since the instances of predefined CMaps are shared via {@link com.itextpdf.io.font.FontCache}.
      */
     public List<byte[]> getCodeSpaceRanges() {
-        return codeSpaceRanges;
+        return Collections.unmodifiableList(codeSpaceRanges);
     }
 
     @Override
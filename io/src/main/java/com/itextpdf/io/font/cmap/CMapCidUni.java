@@ -43,7 +43,6 @@
  */
 package com.itextpdf.io.font.cmap;
 
-import com.itextpdf.io.util.IntHashtable;
 import com.itextpdf.io.util.TextUtil;
 
 /**
@@ -51,8 +50,8 @@ import com.itextpdf.io.util.TextUtil;
  */
 public class CMapCidUni extends AbstractCMap {
 
-    private static final long serialVersionUID = 6879167385978230141L;
-    private IntHashtable map = new IntHashtable(65537);
+    private static final long serialVersionUID = -2518923760117854412L;
+    private CompactIntMap map = new CompactIntMap();
 
     @Override
     void addChar(String mark, CMapObject code) {
@@ -43,7 +43,6 @@
  */
 package com.itextpdf.io.font.cmap;
 
-import com.itextpdf.io.util.IntHashtable;
 import com.itextpdf.io.util.TextUtil;
 
 /**
@@ -51,8 +50,8 @@ import com.itextpdf.io.util.TextUtil;
  */
 public class CMapUniCid extends AbstractCMap {
 
-    private static final long serialVersionUID = -6111821751136011584L;
-    private IntHashtable map = new IntHashtable(65537);
+    private static final long serialVersionUID = 3720154968125576231L;
+    private CompactIntMap map = new CompactIntMap();
 
     @Override
     void addChar(String mark, CMapObject code) {
@@ -74,7 +73,7 @@ public class CMapUniCid extends AbstractCMap {
 
     public CMapToUnicode exportToUnicode() {
         CMapToUnicode uni = new CMapToUnicode();
-        int[] keys = map.toOrderedKeys();
+        int[] keys = map.getKeys();
         for (int key : keys) {
             uni.addChar(map.get(key), TextUtil.convertFromUtf32(key));
         }
@@ -0,0 +1,123 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font.cmap;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Maps non-negative integer keys, e.g. CIDs or Unicode code points, to non-negative integer values.
+ * The values are stored in pages of 256 ints, which are allocated only for the key ranges which are actually used.
+ * The keys of the bundled CMaps are dense, so this takes a fraction of the memory of an {@link com.itextpdf.io.util.IntHashtable}
+ * and doesn't create an object per entry.
+ */
+class CompactIntMap implements Serializable {
+
+    private static final long serialVersionUID = -3398418263914093407L;
+
+    private static final int PAGE_BITS = 8;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // values are stored incremented by one, so that 0 marks an absent key
+    private int[][] pages = new int[0][];
+    private int size;
+
+    void put(int key, int value) {
+        if (key < 0 || value < 0) {
+            return;
+        }
+        int pageIndex = key >>> PAGE_BITS;
+        if (pageIndex >= pages.length) {
+            pages = Arrays.copyOf(pages, Math.max(pageIndex + 1, pages.length * 2));
+        }
+        int[] page = pages[pageIndex];
+        if (page == null) {
+            page = new int[PAGE_SIZE];
+            pages[pageIndex] = page;
+        }
+        if (page[key & PAGE_MASK] == 0) {
+            ++size;
+        }
+        page[key & PAGE_MASK] = value + 1;
+    }
+
+    int get(int key) {
+        int pageIndex = key >>> PAGE_BITS;
+        if (key < 0 || pageIndex >= pages.length || pages[pageIndex] == null) {
+            return 0;
+        }
+        int value = pages[pageIndex][key & PAGE_MASK];
+        return value == 0 ? 0 : value - 1;
+    }
+
+    boolean containsKey(int key) {
+        int pageIndex = key >>> PAGE_BITS;
+        return key >= 0 && pageIndex < pages.length && pages[pageIndex] != null && pages[pageIndex][key & PAGE_MASK] != 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Gets the keys of the map in ascending order.
+     *
+     * @return the keys of the map
+     */
+    int[] getKeys() {
+        int[] keys = new int[size];
+        int k = 0;
+        for (int pageIndex = 0; pageIndex < pages.length; ++pageIndex) {
+            int[] page = pages[pageIndex];
+            if (page != null) {
+                for (int i = 0; i < PAGE_SIZE; ++i) {
+                    if (page[i] != 0) {
+                        keys[k++] = (pageIndex << PAGE_BITS) | i;
+                    }
+                }
+            }
+        }
+        return keys;
+    }
+}
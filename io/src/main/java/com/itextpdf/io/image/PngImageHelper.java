@@ -628,7 +628,11 @@ class PngImageHelper {
                     throw new IOException(IOException.UnknownPngFilter);
             }
 
-            processPixels(curr, xOffset, xStep, dstY, passWidth, png);
+            if (xStep == 1 && png.bitDepth >= 8 && png.colorType != 3 && !png.genBWMask) {
+                copyRowSamples(curr, dstY, png);
+            } else {
+                processPixels(curr, xOffset, xStep, dstY, passWidth, png);
+            }
 
             // Swap curr and prior
             byte[] tmp = prior;
@@ -637,6 +641,30 @@ class PngImageHelper {
         }
     }
 
+    /**
+     * Fast variant of {@link #processPixels} for the full-width rows of the images with 8 or 16 bits
+     * per component which don't need a color key mask. The color samples and the alpha samples
+     * are copied byte by byte, for 16 bit images only the most significant byte is kept.
+     */
+    private static void copyRowSamples(byte[] curr, int y, PngParameters png) {
+        boolean hasAlpha = (png.colorType & 4) != 0;
+        int colorBands = hasAlpha ? png.inputBands - 1 : png.inputBands;
+        int sampleSize = png.bitDepth / 8;
+        int srcPos = 0;
+        int colorPos = y * png.width * colorBands;
+        int alphaPos = y * png.width;
+        for (int x = 0; x < png.width; ++x) {
+            for (int k = 0; k < colorBands; ++k) {
+                png.imageData[colorPos++] = curr[srcPos];
+                srcPos += sampleSize;
+            }
+            if (hasAlpha) {
+                png.smask[alphaPos++] = curr[srcPos];
+                srcPos += sampleSize;
+            }
+        }
+    }
+
     private static void processPixels(byte[] curr, int xOffset, int step, int y, int width, PngParameters png) {
         int srcX, dstX;
 
@@ -100,14 +100,38 @@ class TiffImageHelper {
         }
     }
 
+    /**
+     * Processes the page of a TIFF image described by the already read image file directory.
+     * The page data is read from the given source, {@link ImageData#getData()} of the image is not used.
+     * @param image image to process.
+     * @param s the source containing the whole TIFF file.
+     * @param dir the image file directory of the page.
+     */
+    static void processImage(TiffImageData image, RandomAccessFileOrArray s, TIFFDirectory dir) {
+        TiffParameters tiff = new TiffParameters(image);
+        processTiffImage(s, dir, tiff);
+        if (!tiff.jpegProcessing) {
+            RawImageHelper.updateImageAttributes(tiff.image, tiff.additional);
+        }
+    }
+
     private static void processTiffImage(RandomAccessFileOrArray s, TiffParameters tiff) {
-        boolean recoverFromImageError = tiff.image.isRecoverFromImageError();
         int page = tiff.image.getPage();
-        boolean direct = tiff.image.isDirect();
         if (page < 1)
             throw new IOException(IOException.PageNumberMustBeGtEq1);
+        TIFFDirectory dir;
+        try {
+            dir = new TIFFDirectory(s, page - 1);
+        } catch (Exception e) {
+            throw new IOException(IOException.CannotReadTiffImage);
+        }
+        processTiffImage(s, dir, tiff);
+    }
+
+    private static void processTiffImage(RandomAccessFileOrArray s, TIFFDirectory dir, TiffParameters tiff) {
+        boolean recoverFromImageError = tiff.image.isRecoverFromImageError();
+        boolean direct = tiff.image.isDirect();
         try {
-            TIFFDirectory dir = new TIFFDirectory(s, page - 1);
             if (dir.isTagPresent(TIFFConstants.TIFFTAG_TILEWIDTH))
                 throw new IOException(IOException.TilesAreNotSupported);
             int compression = TIFFConstants.COMPRESSION_NONE;
@@ -203,7 +227,7 @@ class TiffImageHelper {
                 byte[] im = new byte[(int) size[0]];
                 s.seek(offset[0]);
                 s.readFully(im);
-                RawImageHelper.updateRawImageParameters(tiff.image, w, h, false, imagecomp, parameters, im, null);
+                RawImageHelper.updateRawImageParameters(tiff.image, w, h, reverse, imagecomp, parameters, im, null);
                 tiff.image.setInverted(true);
             } else {
                 int rowsLeft = h;
@@ -240,7 +264,7 @@ class TiffImageHelper {
                                     im = new byte[(int) size[0]];
                                     s.seek(offset[0]);
                                     s.readFully(im);
-                                    RawImageHelper.updateRawImageParameters(tiff.image, w, h, false, imagecomp, parameters, im, null);
+                                    RawImageHelper.updateRawImageParameters(tiff.image, w, h, reverse, imagecomp, parameters, im, null);
                                     tiff.image.setInverted(true);
                                     tiff.image.setDpi(dpiX, dpiY);
                                     tiff.image.setXYRatio(XYRatio);
@@ -0,0 +1,191 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.image;
+
+import com.itextpdf.io.IOException;
+import com.itextpdf.io.codec.TIFFDirectory;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Reads the pages of a multi-page TIFF image one by one.
+ * <p>
+ * Unlike {@link ImageDataFactory#createTiff(byte[], boolean, int, boolean)}, which reads the whole file into
+ * a byte array and walks the chain of image file directories from the beginning for every page,
+ * this class walks the chain only once and reads the data of each page directly from the source
+ * at the moment the page is requested.
+ * <p>
+ * {@link #getPage(int)} may be called from several threads at the same time, so the pages can be converted
+ * in parallel. Each call reads the source through its own view, see {@link RandomAccessFileOrArray#createView()}.
+ */
+public class TiffImageReader implements Iterable<ImageData>, Closeable {
+
+    private final RandomAccessFileOrArray source;
+    private final boolean recoverFromImageError;
+    private final boolean direct;
+    private long[] directoryOffsets;
+
+    /**
+     * Creates a reader of a TIFF image.
+     *
+     * @param source                the source containing the TIFF image
+     * @param recoverFromImageError whether to recover from a image error (for TIFF-CCITT)
+     * @param direct                whether to pass the single strip CCITT compressed pages through
+     *                              to the PDF without decoding them
+     */
+    public TiffImageReader(RandomAccessFileOrArray source, boolean recoverFromImageError, boolean direct) {
+        this.source = source;
+        this.recoverFromImageError = recoverFromImageError;
+        this.direct = direct;
+    }
+
+    /**
+     * Gets the number of pages of the TIFF image. The chain of image file directories is walked on the first
+     * call, the offsets of the directories are remembered for the subsequent {@link #getPage(int)} calls.
+     *
+     * @return the number of pages
+     */
+    public int getNumberOfPages() {
+        return getDirectoryOffsets().length;
+    }
+
+    /**
+     * Reads and processes the page of the TIFF image.
+     *
+     * @param page the number of the page, starting from 1
+     * @return the image data of the page
+     */
+    public ImageData getPage(int page) {
+        if (page < 1) {
+            throw new IOException(IOException.PageNumberMustBeGtEq1);
+        }
+        long[] offsets = getDirectoryOffsets();
+        if (page > offsets.length) {
+            throw new IOException(IOException.CannotReadTiffImage);
+        }
+        TiffImageData image = new TiffImageData((byte[]) null, recoverFromImageError, page, direct);
+        RandomAccessFileOrArray view = source.createView();
+        TIFFDirectory dir;
+        try {
+            dir = new TIFFDirectory(view, offsets[page - 1], 0);
+        } catch (java.io.IOException e) {
+            throw new IOException(IOException.TiffImageException, e);
+        }
+        TiffImageHelper.processImage(image, view, dir);
+        return image;
+    }
+
+    /**
+     * Returns an iterator over the pages of the TIFF image.
+     * Each page is read only when {@link Iterator#next()} is called for it.
+     *
+     * @return the iterator over the pages
+     */
+    @Override
+    public Iterator<ImageData> iterator() {
+        return new Iterator<ImageData>() {
+            private int nextPage = 1;
+
+            @Override
+            public boolean hasNext() {
+                return nextPage <= getNumberOfPages();
+            }
+
+            @Override
+            public ImageData next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return getPage(nextPage++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Closes the source of the TIFF image.
+     *
+     * @throws java.io.IOException if the source can't be closed
+     */
+    @Override
+    public void close() throws java.io.IOException {
+        source.close();
+    }
+
+    private synchronized long[] getDirectoryOffsets() {
+        if (directoryOffsets == null) {
+            List<Long> offsets = new ArrayList<>();
+            Set<Long> visitedOffsets = new HashSet<>();
+            RandomAccessFileOrArray view = source.createView();
+            try {
+                TIFFDirectory dir = new TIFFDirectory(view, 0);
+                offsets.add(dir.getIFDOffset());
+                visitedOffsets.add(dir.getIFDOffset());
+                long nextOffset = dir.getNextIFDOffset();
+                // a broken file may link the directories into a loop
+                while (nextOffset != 0 && visitedOffsets.add(nextOffset)) {
+                    offsets.add(nextOffset);
+                    nextOffset = new TIFFDirectory(view, nextOffset, 0).getNextIFDOffset();
+                }
+            } catch (java.io.IOException e) {
+                throw new IOException(IOException.TiffImageException, e);
+            }
+            directoryOffsets = new long[offsets.size()];
+            for (int i = 0; i < directoryOffsets.length; ++i) {
+                directoryOffsets[i] = (long) offsets.get(i);
+            }
+        }
+        return directoryOffsets;
+    }
+}
@@ -78,6 +78,15 @@ class ArrayRandomAccessSource implements IRandomAccessSource, Serializable {
         return len;
     }
 
+    /**
+     * Gets the backing array itself, not a copy of it.
+     *
+     * @return the backing array, or {@code null} if the source is closed
+     */
+    byte[] getArray() {
+        return array;
+    }
+
     public long length() {
         return array.length;
     }
@@ -110,6 +110,12 @@ public class PdfTokenizer implements Closeable, Serializable {
     public static final byte[] True = ByteUtils.getIsoBytes("true");
     public static final byte[] False = ByteUtils.getIsoBytes("false");
 
+    /**
+     * The maximal length of an integer token which is parsed directly from the bytes of the token.
+     * 18 digits never overflow a long.
+     */
+    private static final int MAX_FAST_PARSED_LENGTH = 18;
+
     protected TokenType type;
     protected int reference;
     protected int generation;
@@ -201,6 +207,40 @@ public class PdfTokenizer implements Closeable, Serializable {
         return true;
     }
 
+    /**
+     * Checks whether the current token consists of the characters of the given value, each character
+     * being written by a single byte. Unlike comparing {@link #getStringValue()} with the value,
+     * this method doesn't create a String.
+     *
+     * @param value the value to compare the token with
+     * @return true if the token equals to the value, otherwise false
+     */
+    public boolean tokenValueEqualsTo(String value) {
+        if (value == null || outBuf.size() != value.length())
+            return false;
+
+        byte[] buffer = outBuf.getInternalBuffer();
+        for (int i = 0; i < value.length(); i++)
+            if (value.charAt(i) != (char) (buffer[i] & 0xff))
+                return false;
+        return true;
+    }
+
+    /**
+     * Calculates the hash code of the current token without creating a String. For the tokens which consist
+     * of ASCII characters only it is equal to the hash code of {@link #getStringValue()}.
+     *
+     * @return the hash code of the current token
+     */
+    public int getTokenValueHashCode() {
+        byte[] buffer = outBuf.getInternalBuffer();
+        int size = outBuf.size();
+        int hash = 0;
+        for (int i = 0; i < size; i++)
+            hash = 31 * hash + (buffer[i] & 0xff);
+        return hash;
+    }
+
     public int getObjNr() {
         return reference;
     }
@@ -291,14 +331,14 @@ public class PdfTokenizer implements Closeable, Serializable {
                         if (tokenValueEqualsTo(R)) {
                             assert n2 != null;
                             type = TokenType.Ref;
-                            reference = Integer.parseInt(new String(n1));
-                            generation = Integer.parseInt(new String(n2));
+                            reference = toInt(n1, n1.length);
+                            generation = toInt(n2, n2.length);
                             return;
                         } else if (tokenValueEqualsTo(Obj)) {
                             assert n2 != null;
                             type = TokenType.Obj;
-                            reference = Integer.parseInt(new String(n1));
-                            generation = Integer.parseInt(new String(n2));
+                            reference = toInt(n1, n1.length);
+                            generation = toInt(n2, n2.length);
                             return;
                         }
                     }
@@ -469,11 +509,18 @@ public class PdfTokenizer implements Closeable, Serializable {
     }
 
     public long getLongValue() {
+        // longer numbers may overflow, they are left to Long#parseLong
+        if (outBuf.size() <= MAX_FAST_PARSED_LENGTH) {
+            long value = parseInteger(outBuf.getInternalBuffer(), outBuf.size());
+            if (value != Long.MIN_VALUE) {
+                return value;
+            }
+        }
         return Long.parseLong(getStringValue());
     }
 
     public int getIntValue() {
-        return Integer.parseInt(getStringValue());
+        return toInt(outBuf.getInternalBuffer(), outBuf.size());
     }
 
     public boolean isHexString() {
@@ -629,6 +676,55 @@ public class PdfTokenizer implements Closeable, Serializable {
         return delims[ch + 1];
     }
 
+    /**
+     * Parses the integer number written by the bytes without creating a String, the same way as
+     * {@link Integer#parseInt(String)} does.
+     *
+     * @param content the bytes of the number
+     * @param length  the number of the bytes which belong to the number
+     * @return the parsed number
+     */
+    private static int toInt(byte[] content, int length) {
+        // the longest int with a sign takes 11 bytes, so shorter numbers fit into long for sure
+        if (length <= 11) {
+            long value = parseInteger(content, length);
+            if (value != Long.MIN_VALUE && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                return (int) value;
+            }
+        }
+        // let Integer#parseInt throw the proper exception
+        return Integer.parseInt(new String(content, 0, length));
+    }
+
+    /**
+     * Parses a decimal integer with an optional sign, which is not longer than
+     * {@link #MAX_FAST_PARSED_LENGTH} bytes.
+     *
+     * @param content the bytes of the number
+     * @param length  the number of the bytes which belong to the number
+     * @return the parsed number, or {@link Long#MIN_VALUE} if the bytes don't represent an integer
+     */
+    private static long parseInteger(byte[] content, int length) {
+        int i = 0;
+        boolean negative = false;
+        if (length > 0 && (content[0] == '-' || content[0] == '+')) {
+            negative = content[0] == '-';
+            i = 1;
+        }
+        if (i == length) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = content[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
     /**
      * Helper method to handle content errors. Add file position to {@code PdfRuntimeException}.
      * @param error message.
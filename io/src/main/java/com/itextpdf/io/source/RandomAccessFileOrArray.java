@@ -67,6 +67,13 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      */
     private IRandomAccessSource byteSource;
 
+    /**
+     * The array backing the byte source if the source is an in-memory array, {@code null} otherwise.
+     * Single bytes are read from it directly, which is considerably faster for the byte by byte
+     * reading done by {@link PdfTokenizer}.
+     */
+    private byte[] byteArray;
+
     /**
      * The physical location in the underlying byte source.
      */
@@ -89,6 +96,9 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      */
     public RandomAccessFileOrArray(IRandomAccessSource byteSource) {
         this.byteSource = byteSource;
+        if (byteSource instanceof ArrayRandomAccessSource) {
+            this.byteArray = ((ArrayRandomAccessSource) byteSource).getArray();
+        }
     }
 
     /**
@@ -135,6 +145,10 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
             return back & 0xff;
         }
 
+        if (byteArray != null) {
+            long position = byteSourcePosition++;
+            return position < byteArray.length ? byteArray[(int) position] & 0xff : -1;
+        }
         return byteSource.get(byteSourcePosition++);
     }
 
@@ -251,6 +265,7 @@ public class RandomAccessFileOrArray implements DataInput, Serializable {
      */
     public void close() throws java.io.IOException {
         isBack = false;
+        byteArray = null;
 
         byteSource.close();
     }
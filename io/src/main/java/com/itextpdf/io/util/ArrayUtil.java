@@ -106,4 +106,18 @@ public final class ArrayUtil {
     public static int[] cloneArray(int[] src) {
         return (int[]) src.clone();
     }
+
+    /**
+     * Converts the bytes to a string of lowercase hexadecimal digits, two digits per byte.
+     *
+     * @param bytes the bytes to convert
+     * @return the hexadecimal representation of the bytes
+     */
+    public static String toHexString(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
 }
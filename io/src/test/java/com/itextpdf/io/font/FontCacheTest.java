@@ -0,0 +1,84 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.font;
+
+import com.itextpdf.io.font.cmap.CMapCidByte;
+import com.itextpdf.io.font.cmap.CMapCidUni;
+import com.itextpdf.io.font.cmap.CMapUniCid;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class FontCacheTest extends ExtendedITextTest {
+
+    @Test
+    public void predefinedCmapsAreParsedOnceTest() {
+        FontCache.preloadCmaps("UniJIS-UCS2-H", "90ms-RKSJ-H");
+
+        CMapCidUni cidUni = FontCache.getCid2UniCmap("UniJIS-UCS2-H");
+        Assert.assertSame(cidUni, FontCache.getCid2UniCmap("UniJIS-UCS2-H"));
+        CMapUniCid uniCid = FontCache.getUni2CidCmap("UniJIS-UCS2-H");
+        Assert.assertSame(uniCid, FontCache.getUni2CidCmap("UniJIS-UCS2-H"));
+        CMapCidByte cidByte = FontCache.getCid2Byte("90ms-RKSJ-H");
+        Assert.assertSame(cidByte, FontCache.getCid2Byte("90ms-RKSJ-H"));
+    }
+
+    @Test
+    public void cachedCmapLookupTest() {
+        CMapUniCid uniCid = FontCache.getUni2CidCmap("UniJIS-UCS2-H");
+        CMapCidUni cidUni = FontCache.getCid2UniCmap("UniJIS-UCS2-H");
+        int cid = uniCid.lookup('A');
+        Assert.assertEquals(34, cid);
+        Assert.assertEquals('A', cidUni.lookup(cid));
+        Assert.assertEquals(0, cidUni.lookup(-1));
+
+        int[] cids = cidUni.getCids();
+        Assert.assertTrue(cids.length > 7000);
+        for (int i = 1; i < cids.length; ++i) {
+            Assert.assertTrue(cids[i - 1] < cids[i]);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.image;
+
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+@Category(UnitTest.class)
+public class PngTest {
+
+    @Test
+    public void pngWithAlphaIsSplitIntoColorAndMaskTest() throws IOException {
+        int width = 37;
+        int height = 11;
+        BufferedImage awtImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                awtImage.setRGB(x, y, ((x * 7) & 0xff) << 24 | ((x * 5) & 0xff) << 16 | ((y * 13) & 0xff) << 8 | ((x + y) & 0xff));
+            }
+        }
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(awtImage, "png", baos);
+
+        ImageData img = ImageDataFactory.createPng(baos.toByteArray());
+        Assert.assertEquals(3, img.getColorSpace());
+        Assert.assertEquals(8, img.getBpc());
+        Assert.assertFalse(img.isDeflated());
+        byte[] color = img.getData();
+        byte[] alpha = img.getImageMask().getData();
+        Assert.assertEquals(width * height * 3, color.length);
+        Assert.assertEquals(width * height, alpha.length);
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                int argb = awtImage.getRGB(x, y);
+                int pos = y * width + x;
+                Assert.assertEquals((argb >>> 24) & 0xff, alpha[pos] & 0xff);
+                Assert.assertEquals((argb >> 16) & 0xff, color[pos * 3] & 0xff);
+                Assert.assertEquals((argb >> 8) & 0xff, color[pos * 3 + 1] & 0xff);
+                Assert.assertEquals(argb & 0xff, color[pos * 3 + 2] & 0xff);
+            }
+        }
+    }
+
+    @Test
+    public void pngWithoutAlphaIsEmbeddedAsIsTest() throws IOException {
+        BufferedImage awtImage = new BufferedImage(20, 20, BufferedImage.TYPE_INT_RGB);
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(awtImage, "png", baos);
+
+        ImageData img = ImageDataFactory.createPng(baos.toByteArray());
+        Assert.assertTrue(img.isDeflated());
+        Assert.assertEquals(15, img.getDecodeParms().get("Predictor"));
+        Assert.assertNull(img.getImageMask());
+    }
+}
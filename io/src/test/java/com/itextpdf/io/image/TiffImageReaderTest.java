@@ -0,0 +1,160 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.io.image;
+
+import com.itextpdf.io.codec.TIFFFaxDecoder;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@Category(UnitTest.class)
+public class TiffImageReaderTest {
+
+    public static final String sourceFolder = "./src/test/resources/com/itextpdf/io/image/";
+
+    @Test
+    public void pagesAreReadOneByOneTest() throws IOException {
+        byte[] bytes = readFile(sourceFolder + "multipage.tiff");
+        TiffImageReader reader = createReader(false);
+        Assert.assertEquals(TiffImageData.getNumberOfPages(bytes), reader.getNumberOfPages());
+        int page = 0;
+        for (ImageData img : reader) {
+            ++page;
+            ImageData expected = ImageDataFactory.createTiff(bytes, false, page, false);
+            Assert.assertEquals(expected.getWidth(), img.getWidth(), 0);
+            Assert.assertEquals(expected.getHeight(), img.getHeight(), 0);
+            Assert.assertArrayEquals(expected.getData(), img.getData());
+        }
+        Assert.assertEquals(3, page);
+        reader.close();
+    }
+
+    @Test
+    public void ccittPageIsPassedThroughTest() throws IOException {
+        TiffImageReader reader = createReader(true);
+        ImageData img = reader.getPage(1);
+        Assert.assertEquals(RawImageData.CCITTG4, ((RawImageData) img).getTypeCcitt());
+        Assert.assertEquals("CCITTFaxDecode", img.getFilter());
+        reader.close();
+    }
+
+    @Test
+    public void pagesAreReadInParallelTest() throws Exception {
+        final TiffImageReader reader = createReader(false);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        List<Future<ImageData>> pages = new ArrayList<>();
+        for (int i = 1; i <= reader.getNumberOfPages(); ++i) {
+            final int page = i;
+            pages.add(executor.submit(new Callable<ImageData>() {
+                @Override
+                public ImageData call() {
+                    return reader.getPage(page);
+                }
+            }));
+        }
+        for (int i = 0; i < pages.size(); ++i) {
+            Assert.assertArrayEquals(reader.getPage(i + 1).getData(), pages.get(i).get().getData());
+        }
+        executor.shutdown();
+        reader.close();
+    }
+
+    @Test
+    public void ccittPageWithReversedFillOrderTest() throws IOException {
+        // a single strip G4 image of 32x16 pixels stored with FillOrder 2, i.e. the least significant bit first
+        byte[] bytes = readFile(sourceFolder + "fillorder2.tiff");
+        int width = 32;
+        int height = 16;
+        byte[] expected = new byte[width / 8 * height];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                if ((x / 4 + y / 2) % 2 == 0) {
+                    expected[y * (width / 8) + x / 8] |= (byte) (0x80 >> (x % 8));
+                }
+            }
+        }
+
+        RandomAccessFileOrArray raf = new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(bytes));
+        TiffImageReader reader = new TiffImageReader(raf, false, true);
+        ImageData passedThrough = reader.getPage(1);
+        reader.close();
+        Assert.assertEquals(RawImageData.CCITTG4, ((RawImageData) passedThrough).getTypeCcitt());
+        Assert.assertArrayEquals(expected, decodeG4(passedThrough.getData(), width, height));
+
+        ImageData reencoded = ImageDataFactory.createTiff(bytes, false, 1, false);
+        Assert.assertArrayEquals(expected, decodeG4(reencoded.getData(), width, height));
+    }
+
+    private static byte[] decodeG4(byte[] data, int width, int height) {
+        byte[] decoded = new byte[width / 8 * height];
+        new TIFFFaxDecoder(1, width, height).decodeT6(decoded, data, 0, height, 0);
+        return decoded;
+    }
+
+    private static byte[] readFile(String path) throws IOException {
+        FileInputStream is = new FileInputStream(path);
+        try {
+            return StreamUtil.inputStreamToArray(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    private static TiffImageReader createReader(boolean direct) throws IOException {
+        RandomAccessFileOrArray raf = new RandomAccessFileOrArray(new RandomAccessSourceFactory().createBestSource(sourceFolder + "multipage.tiff"));
+        return new TiffImageReader(raf, false, direct);
+    }
+}
@@ -164,6 +164,7 @@ public class PdfException extends RuntimeException {
     public static final String FontAndSizeMustBeSetBeforeWritingAnyText = "Font and size must be set before writing any text.";
     public static final String FontEmbeddingIssue = "Font embedding issue.";
     public static final String FontSizeIsTooSmall = "Font size is too small.";
+    public static final String FontUsedInDetachedContentIsNotAddedToDocument = "Font used in the content which was produced without a document is not added to the document. Set the font on the canvas of the page or add it to the document before the content is produced.";
     public static final String FormXObjectMustHaveBbox = "Form XObject must have BBox.";
     public static final String FunctionIsNotCompatibleWitColorSpace = "Function is not compatible with ColorSpace.";
     public static final String GivenAccessibleElementIsNotConnectedToAnyTag = "Given accessible element is not connected to any tag.";
@@ -206,6 +207,7 @@ public class PdfException extends RuntimeException {
     public static final String NotAValidPkcs7ObjectNotSignedData = "Not a valid PKCS#7 object - not signed data.";
     public static final String NotAWmfImage = "Not a WMF image.";
     public static final String NoValidEncryptionMode = "No valid encryption mode.";
+    public static final String NumberOfSignatureContainersDoesntCorrespondWithTheNumberOfDocuments = "The number of signature containers doesn't correspond with the number of documents in the batch.";
     public static final String NumberOfBooleansInTheArrayDoesntCorrespondWithTheNumberOfFields = "The number of booleans in the array doesn't correspond with the number of fields.";
     public static final String ObjectMustBeIndirectToWorkWithThisWrapper = "Object must be indirect to work with this wrapper.";
     public static final String ObjectNumberOfTheFirstObjectInThisXrefSubsectionNotFound = "Object number of the first object in this xref subsection not found.";
@@ -216,6 +218,7 @@ public class PdfException extends RuntimeException {
     public static final String PageIsNotSetForThePdfTagStructure = "Page is not set for the pdf tag structure.";
     public static final String PageAlreadyFlushed = "The page has been already flushed.";
     public static final String PageAlreadyFlushedUseAddFieldAppearanceToPageMethodBeforePageFlushing = "The page has been already flushed. Use PdfAcroForm#addFieldAppearanceToPage() method before page flushing.";
+    public static final String PagesOfDocumentCheckingConformanceCanNotBeGeneratedInParallel = "The pages of a document which checks the conformance to a standard, e.g. PDF/A, can not be generated in parallel, since the content produced without a document is not checked.";
     public static final String PdfEncodings = "PdfEncodings exception.";
     public static final String PdfEncryption = "PdfEncryption exception.";
     public static final String PdfDecryption = "Exception occurred with PDF document decryption. One of the possible reasons is wrong password or wrong public key certificate and private key.";
@@ -0,0 +1,131 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.util.LruCache;
+
+/**
+ * A cache of encoded image XObject streams which can be shared between several documents,
+ * e.g. in a batch run which produces many documents with the same logo. See
+ * {@link WriterProperties#setImageXObjectCache(ImageXObjectCache)}.
+ * <p>
+ * The first document which adds an image compresses the image data and stores the encoded stream
+ * in the cache, the following documents which add an image with the same content get a copy of
+ * the encoded stream, so the image data is compressed only once.
+ * Note that the compression level of the document which adds an image first is used for all documents.
+ * <p>
+ * The cache is thread-safe. It holds at most {@link #getMaxSize()} entries, the least recently
+ * used entries are evicted first.
+ */
+public class ImageXObjectCache {
+
+    /**
+     * The default maximal number of entries in the cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 64;
+
+    private final LruCache<SerializedObjectContent, PdfStream> encodedImages;
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAX_SIZE default} maximal number of entries.
+     */
+    public ImageXObjectCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache with the given maximal number of entries.
+     *
+     * @param maxSize the maximal number of entries
+     */
+    public ImageXObjectCache(int maxSize) {
+        this.encodedImages = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Gets the maximal number of entries in the cache.
+     *
+     * @return the maximal number of entries
+     */
+    public int getMaxSize() {
+        return encodedImages.getMaxSize();
+    }
+
+    /**
+     * Gets the number of entries currently stored in the cache.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return encodedImages.size();
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        encodedImages.clear();
+    }
+
+    /**
+     * Gets a copy of the encoded image stream which was stored for the given image content.
+     *
+     * @param content the serialized content of the image stream before encoding
+     * @return a new stream not bound to any document, or {@code null} if there is no such image in the cache
+     */
+    PdfStream get(SerializedObjectContent content) {
+        PdfStream encodedImage = encodedImages.get(content);
+        // the stored streams are never modified, so they can be copied by several threads at once
+        return encodedImage != null ? (PdfStream) encodedImage.clone() : null;
+    }
+
+    /**
+     * Stores a copy of the encoded image stream.
+     *
+     * @param content      the serialized content of the image stream before encoding
+     * @param encodedImage the encoded image stream
+     */
+    void put(SerializedObjectContent content, PdfStream encodedImage) {
+        encodedImages.put(content, (PdfStream) encodedImage.clone());
+    }
+}
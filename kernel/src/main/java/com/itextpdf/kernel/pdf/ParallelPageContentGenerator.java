@@ -0,0 +1,261 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.canvas.IPageContentProducer;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.kernel.utils.OrderedTaskRunner;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Generates the content of independent pages in several threads.
+ * <p>
+ * {@link PdfDocument} is not thread-safe, so each page content is drawn by a worker thread on a canvas which is
+ * not bound to the document, see {@link IPageContentProducer}. The produced content streams and resources are
+ * committed in the calling thread in the order the pages were added: the pages are added to the document,
+ * the fonts are registered in it, and the images, form XObjects and other streams get their indirect references.
+ * <p>
+ * Only a limited number of pages are produced ahead of the committed ones, so the generator can be combined
+ * with {@link WriterProperties#setPageFlushWindow(int)} to generate long documents.
+ * <p>
+ * The content produced without a document is not checked for the conformance to a standard, so the generator
+ * can't be used for the documents which check it, e.g. PDF/A documents.
+ */
+public class ParallelPageContentGenerator {
+
+    private final PdfDocument document;
+    private final OrderedTaskRunner taskRunner;
+    private final List<PageTask> tasks = new ArrayList<>();
+
+    /**
+     * Creates a generator of the pages of the given document.
+     *
+     * @param document    the document to which the pages are added
+     * @param threadCount the number of threads which produce the page content, 1 means that the content is produced
+     *                    in the calling thread
+     * @throws PdfException if the document checks the conformance to a standard
+     */
+    public ParallelPageContentGenerator(PdfDocument document, int threadCount) {
+        this.taskRunner = new OrderedTaskRunner(threadCount);
+        if (document.isIsoConformanceChecked()) {
+            throw new PdfException(PdfException.PagesOfDocumentCheckingConformanceCanNotBeGeneratedInParallel);
+        }
+        this.document = document;
+    }
+
+    /**
+     * Adds a page to be generated. The page is added to the document by {@link #generate()}.
+     *
+     * @param pageSize the size of the page
+     * @param producer the producer which draws the page content
+     * @return this {@link ParallelPageContentGenerator} instance
+     */
+    public ParallelPageContentGenerator addPage(PageSize pageSize, IPageContentProducer producer) {
+        tasks.add(new PageTask(pageSize, producer));
+        return this;
+    }
+
+    /**
+     * Produces the content of all added pages and adds the pages to the end of the document.
+     * If a producer throws an exception, the pages before the failed one are added and the exception is rethrown.
+     */
+    public void generate() {
+        List<PageTask> pageTasks = new ArrayList<>(tasks);
+        tasks.clear();
+        try {
+            taskRunner.run(pageTasks.iterator(), new OrderedTaskRunner.IResultHandler<PageContent>() {
+                @Override
+                public void handle(PageContent result) {
+                    commit(result);
+                }
+            });
+        } catch (IOException e) {
+            // neither the producers nor the commit throw it
+            throw new PdfException(PdfException.UnknownPdfException, e);
+        }
+    }
+
+    private void commit(PageContent content) {
+        for (PdfFont font : content.resources.getDetachedFonts()) {
+            document.addFont(font);
+        }
+        attachResources(content.resources.getPdfObject());
+
+        PdfPage page = document.addNewPage(content.pageSize);
+        PdfResources pageResources = page.getResources();
+        byte[] bytes = content.contentStream.getBytes();
+        if (hasCommonNames(pageResources.getPdfObject(), content.resources.getPdfObject())) {
+            // the page got some resources from an event handler, so the content is isolated in a form XObject
+            PdfFormXObject form = new PdfFormXObject(content.pageSize);
+            form.getPdfObject().setData(bytes);
+            form.getPdfObject().put(PdfName.Resources, content.resources.getPdfObject());
+            new PdfCanvas(page).addXObject(form, 0, 0).release();
+        } else {
+            PdfDictionary resources = content.resources.getPdfObject();
+            for (PdfName type : resources.keySet()) {
+                PdfDictionary category = resources.getAsDictionary(type);
+                if (category != null) {
+                    for (PdfName name : category.keySet()) {
+                        pageResources.addResource(category.get(name, false), type, name);
+                    }
+                }
+            }
+            page.getLastContentStream().getOutputStream().writeBytes(bytes);
+        }
+    }
+
+    /**
+     * Makes the streams produced by a worker indirect objects of the document and replaces the images
+     * with the same content, if the document deduplicates images.
+     */
+    private void attachResources(PdfDictionary resources) {
+        for (PdfName type : resources.keySet()) {
+            PdfObject category = resources.get(type, false);
+            if (!(category instanceof PdfDictionary) || isAttached(category)) {
+                attachObject(category);
+                continue;
+            }
+            PdfDictionary categoryDictionary = (PdfDictionary) category;
+            for (PdfName name : new ArrayList<>(categoryDictionary.keySet())) {
+                PdfObject resource = categoryDictionary.get(name, false);
+                if (isAttached(resource)) {
+                    continue;
+                }
+                if (PdfName.Font.equals(type)) {
+                    throw new PdfException(PdfException.FontUsedInDetachedContentIsNotAddedToDocument);
+                }
+                if (PdfName.XObject.equals(type) && resource.isStream()
+                        && PdfName.Image.equals(((PdfStream) resource).getAsName(PdfName.Subtype))) {
+                    resource = document.getDeduplicatedImage(new PdfImageXObject((PdfStream) resource)).getPdfObject();
+                    categoryDictionary.put(name, resource);
+                }
+                attachObject(resource);
+            }
+        }
+    }
+
+    private void attachObject(PdfObject object) {
+        if (object == null || isAttached(object)) {
+            return;
+        }
+        if (object instanceof PdfDictionary) {
+            PdfDictionary dictionary = (PdfDictionary) object;
+            for (PdfName key : dictionary.keySet()) {
+                PdfObject value = dictionary.get(key, false);
+                if (PdfName.Resources.equals(key) && value instanceof PdfDictionary && !isAttached(value)) {
+                    attachResources((PdfDictionary) value);
+                } else {
+                    attachObject(value);
+                }
+            }
+            if (object.isStream()) {
+                object.makeIndirect(document);
+            }
+        } else if (object.isArray()) {
+            PdfArray array = (PdfArray) object;
+            for (int i = 0; i < array.size(); ++i) {
+                attachObject(array.get(i, false));
+            }
+        }
+    }
+
+    private static boolean isAttached(PdfObject object) {
+        return object.isIndirectReference() || object.getIndirectReference() != null;
+    }
+
+    private static boolean hasCommonNames(PdfDictionary pageResources, PdfDictionary producedResources) {
+        for (PdfName type : producedResources.keySet()) {
+            PdfDictionary pageCategory = pageResources.getAsDictionary(type);
+            PdfDictionary producedCategory = producedResources.getAsDictionary(type);
+            if (pageCategory != null && producedCategory != null) {
+                for (PdfName name : producedCategory.keySet()) {
+                    if (pageCategory.containsKey(name)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static class PageTask implements Callable<PageContent> {
+        private final PageSize pageSize;
+        private final IPageContentProducer producer;
+
+        PageTask(PageSize pageSize, IPageContentProducer producer) {
+            this.pageSize = pageSize;
+            this.producer = producer;
+        }
+
+        @Override
+        public PageContent call() {
+            PdfStream contentStream = new PdfStream();
+            PdfResources resources = new PdfResources();
+            PdfCanvas canvas = new PdfCanvas(contentStream, resources, null);
+            producer.produceContent(canvas, pageSize);
+            canvas.release();
+            return new PageContent(pageSize, contentStream, resources);
+        }
+    }
+
+    private static class PageContent {
+        final PageSize pageSize;
+        final PdfStream contentStream;
+        final PdfResources resources;
+
+        PageContent(PageSize pageSize, PdfStream contentStream, PdfResources resources) {
+            this.pageSize = pageSize;
+            this.contentStream = contentStream;
+            this.resources = resources;
+        }
+    }
+}
@@ -46,6 +46,7 @@ package com.itextpdf.kernel.pdf;
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
 import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.DeflaterOutputStream;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.kernel.PdfException;
@@ -73,6 +74,7 @@ import com.itextpdf.kernel.pdf.filespec.PdfFileSpec;
 import com.itextpdf.kernel.pdf.navigation.PdfDestination;
 import com.itextpdf.kernel.pdf.tagging.PdfStructTreeRoot;
 import com.itextpdf.kernel.pdf.tagutils.TagStructureContext;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.kernel.xmp.PdfConst;
 import com.itextpdf.kernel.xmp.XMPConst;
 import com.itextpdf.kernel.xmp.XMPException;
@@ -88,16 +90,19 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -208,6 +213,23 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
      */
     Map<PdfIndirectReference, byte[]> serializedObjectsCache = new HashMap<>();
 
+    /**
+     * Image XObjects added to the document by their content, used if image deduplication is enabled.
+     */
+    private transient Map<SerializedObjectContent, PdfImageXObject> imageXObjectsByContent;
+    /**
+     * The image XObjects to be used instead of the image streams which were already passed to
+     * {@link #getDeduplicatedImage(PdfImageXObject)} or returned by it, so that an image drawn several times
+     * is hashed only once. The streams are weak keys, so that the data of the duplicates can be garbage collected.
+     */
+    private transient Map<PdfStream, PdfImageXObject> deduplicatedImagesByStream;
+    private transient SmartModePdfObjectsSerializer imageSerializer;
+
+    /**
+     * The last added pages which are not flushed yet in the order of adding, see {@link WriterProperties#setPageFlushWindow(int)}.
+     */
+    private transient Deque<PdfPage> pagesInFlushWindow;
+
     /**
      * Open PDF document in reading mode.
      *
@@ -355,6 +377,34 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         return xref.size();
     }
 
+    /**
+     * Gets the number of indirect objects which were written to the output and released from memory.
+     *
+     * @return the number of flushed indirect objects, 0 if the document is opened for reading only
+     */
+    public long getFlushedObjectsCount() {
+        checkClosingStatus();
+        return writer != null ? writer.flushedObjectsCount : 0;
+    }
+
+    /**
+     * Gets the number of indirect objects which are kept in memory, i.e. the objects which are neither flushed
+     * nor released. See {@link WriterProperties#setPageFlushWindow(int)}.
+     *
+     * @return the number of indirect objects kept in memory
+     */
+    public int getRetainedObjectsCount() {
+        checkClosingStatus();
+        int count = 0;
+        for (int i = 1; i < xref.size(); ++i) {
+            PdfIndirectReference reference = xref.get(i);
+            if (reference != null && reference.refersTo != null && !reference.checkState(PdfObject.FLUSHED)) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
     /**
      * Gets the page by page number.
      *
@@ -417,6 +467,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         checkAndAddPage(page);
         dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.START_PAGE, page));
         dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.INSERT_PAGE, page));
+        flushPagesOutOfWindow(page);
         return page;
     }
 
@@ -446,6 +497,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         currentPage = page;
         dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.START_PAGE, page));
         dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.INSERT_PAGE, page));
+        flushPagesOutOfWindow(page);
         return currentPage;
     }
 
@@ -460,6 +512,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         checkClosingStatus();
         checkAndAddPage(page);
         dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.INSERT_PAGE, page));
+        flushPagesOutOfWindow(page);
         return page;
     }
 
@@ -476,6 +529,7 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         checkAndAddPage(index, page);
         currentPage = page;
         dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.INSERT_PAGE, page));
+        flushPagesOutOfWindow(page);
         return currentPage;
     }
 
@@ -581,6 +635,9 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         if (removedPage != null) {
             catalog.removeOutlines(removedPage);
             removeUnusedWidgetsFromFields(removedPage);
+            if (pagesInFlushWindow != null) {
+                pagesInFlushWindow.remove(removedPage);
+            }
             if (isTagged()) {
                 getTagStructureContext().removePageTags(removedPage);
             }
@@ -1664,6 +1721,50 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         return font;
     }
 
+    /**
+     * Gets the image XObject which shall be added to the resources of this document instead of the given one.
+     * <p>
+     * If image deduplication is enabled, see {@link WriterProperties#useImageDeduplication()}, and an image
+     * with the same content was already added to the document, the previously added image is returned,
+     * so that the image data is written to the document only once. If an {@link ImageXObjectCache} is set,
+     * the returned image is an encoded copy of the given image, which may be taken from the cache;
+     * the given image itself is not modified. Otherwise the given image is returned. The content of an image is hashed
+     * only when the image is passed to this method for the first time, and the given duplicates are not retained by
+     * the document.
+     *
+     * @param image the image XObject to be added to the document
+     * @return the image XObject to be added to the resources
+     */
+    public PdfImageXObject getDeduplicatedImage(PdfImageXObject image) {
+        if (writer == null || !writer.properties.imageDeduplication) {
+            return image;
+        }
+        PdfStream stream = image.getPdfObject();
+        PdfIndirectReference indirectReference = stream.getIndirectReference();
+        if (stream.isFlushed() || indirectReference != null && indirectReference.getDocument() != this) {
+            return image;
+        }
+        if (deduplicatedImagesByStream == null) {
+            // PdfStream doesn't override equals, so the streams are compared by identity
+            deduplicatedImagesByStream = new WeakHashMap<>();
+            imageXObjectsByContent = new HashMap<>();
+            imageSerializer = new SmartModePdfObjectsSerializer();
+        }
+        PdfImageXObject deduplicatedImage = deduplicatedImagesByStream.get(stream);
+        if (deduplicatedImage != null) {
+            return deduplicatedImage;
+        }
+        SerializedObjectContent content = imageSerializer.serializeObject(stream);
+        deduplicatedImage = imageXObjectsByContent.get(content);
+        if (deduplicatedImage == null) {
+            deduplicatedImage = getEncodedImage(image, content);
+            imageXObjectsByContent.put(content, deduplicatedImage);
+            deduplicatedImagesByStream.put(deduplicatedImage.getPdfObject(), deduplicatedImage);
+        }
+        deduplicatedImagesByStream.put(stream, deduplicatedImage);
+        return deduplicatedImage;
+    }
+
     /**
      * Registers a product for debugging purposes.
      *
@@ -1721,6 +1822,16 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
     protected void checkIsoConformance() {
     }
 
+    /**
+     * Checks whether the document verifies the conformance to a specific standard, i.e. whether the
+     * {@code checkIsoConformance} methods are overridden. Shall be overridden together with them.
+     *
+     * @return true if the document checks the conformance of the added content
+     */
+    protected boolean isIsoConformanceChecked() {
+        return false;
+    }
+
     /**
      * Mark an object with {@link PdfObject#MUST_BE_FLUSHED}.
      *
@@ -2035,6 +2146,74 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         }
     }
 
+    private PdfImageXObject getEncodedImage(PdfImageXObject image, SerializedObjectContent content) {
+        ImageXObjectCache cache = writer.properties.imageXObjectCache;
+        // images referring to indirect objects can't be copied to other documents
+        if (cache == null || !isDirectImageStream(image.getPdfObject())) {
+            return image;
+        }
+        PdfStream encodedStream = cache.get(content);
+        if (encodedStream != null) {
+            return new PdfImageXObject(encodedStream);
+        }
+        int compressionLevel = image.getPdfObject().getCompressionLevel();
+        if (compressionLevel == CompressionConstants.UNDEFINED_COMPRESSION) {
+            compressionLevel = writer.getCompressionLevel();
+        }
+        if (compressionLevel == CompressionConstants.NO_COMPRESSION) {
+            cache.put(content, image.getPdfObject());
+            return image;
+        }
+        // the image of the caller is not modified, the encoded copy is used instead of it
+        encodedStream = (PdfStream) image.getPdfObject().clone();
+        encodeImageStream(encodedStream, compressionLevel);
+        cache.put(content, encodedStream);
+        return new PdfImageXObject(encodedStream);
+    }
+
+    private static boolean isDirectImageStream(PdfObject obj) {
+        if (obj.isIndirectReference() || obj.getIndirectReference() != null) {
+            return false;
+        }
+        if (obj.isDictionary() || obj.isStream()) {
+            for (PdfObject value : ((PdfDictionary) obj).values(false)) {
+                if (!isDirectImageStream(value)) {
+                    return false;
+                }
+            }
+        } else if (obj.isArray()) {
+            for (int i = 0; i < ((PdfArray) obj).size(); ++i) {
+                if (!isDirectImageStream(((PdfArray) obj).get(i, false))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static void encodeImageStream(PdfStream stream, int compressionLevel) {
+        if (!stream.containsKey(PdfName.Filter)) {
+            java.io.ByteArrayOutputStream encoded = new java.io.ByteArrayOutputStream();
+            DeflaterOutputStream zip = new DeflaterOutputStream(encoded, compressionLevel);
+            try {
+                zip.write(stream.getBytes(false));
+                zip.close();
+            } catch (IOException e) {
+                throw new PdfException(PdfException.IoException, e);
+            }
+            stream.setData(encoded.toByteArray());
+            stream.put(PdfName.Filter, PdfName.FlateDecode);
+        }
+        PdfStream softMask = stream.getAsStream(PdfName.SMask);
+        if (softMask != null) {
+            encodeImageStream(softMask, compressionLevel);
+        }
+        PdfStream mask = stream.getAsStream(PdfName.Mask);
+        if (mask != null) {
+            encodeImageStream(mask, compressionLevel);
+        }
+    }
+
     private void updateValueInMarkInfoDict(PdfName key, PdfObject value) {
         PdfDictionary markInfo = catalog.getPdfObject().getAsDictionary(PdfName.MarkInfo);
         if (markInfo == null) {
@@ -2044,6 +2223,59 @@ public class PdfDocument implements IEventDispatcher, Closeable, Serializable {
         markInfo.put(key, value);
     }
 
+    /**
+     * Flushes the pages which left the window of the last added pages, see {@link WriterProperties#setPageFlushWindow(int)}.
+     *
+     * @param addedPage the page which was just added or inserted
+     */
+    private void flushPagesOutOfWindow(PdfPage addedPage) {
+        if (writer == null || writer.properties.pageFlushWindow <= 0) {
+            return;
+        }
+        if (pagesInFlushWindow == null) {
+            pagesInFlushWindow = new ArrayDeque<>();
+        }
+        pagesInFlushWindow.addLast(addedPage);
+        if (pagesInFlushWindow.size() <= writer.properties.pageFlushWindow) {
+            return;
+        }
+        List<PdfPage> pagesToFlush = new ArrayList<>();
+        while (pagesInFlushWindow.size() > writer.properties.pageFlushWindow) {
+            pagesToFlush.add(pagesInFlushWindow.removeFirst());
+        }
+        // the resources which are used by the pages in the window can be still modified or drawn
+        Set<PdfIndirectReference> retainedResources = new HashSet<>();
+        for (PdfPage page : pagesInFlushWindow) {
+            if (!page.isFlushed()) {
+                collectResourceReferences(page.getResources().getPdfObject(), retainedResources);
+            }
+        }
+        for (PdfPage page : pagesToFlush) {
+            if (!page.isFlushed()) {
+                page.flushWithResourcesExcept(retainedResources);
+            }
+        }
+    }
+
+    private static void collectResourceReferences(PdfDictionary resources, Set<PdfIndirectReference> references) {
+        if (resources == null) {
+            return;
+        }
+        PdfName[] resourceTypes = {PdfName.XObject, PdfName.Pattern, PdfName.Shading};
+        for (PdfName resourceType : resourceTypes) {
+            PdfDictionary resourcesOfType = resources.getAsDictionary(resourceType);
+            if (resourcesOfType == null) {
+                continue;
+            }
+            for (PdfObject resource : resourcesOfType.values()) {
+                PdfIndirectReference reference = resource.getIndirectReference();
+                if (reference != null && !resource.isFlushed() && references.add(reference) && resource instanceof PdfDictionary) {
+                    collectResourceReferences(((PdfDictionary) resource).getAsDictionary(PdfName.Resources), references);
+                }
+            }
+        }
+    }
+
     /**
      * This method removes all annotation entries from form fields associated with a given page.
      *
@@ -124,7 +124,14 @@ public class PdfIndirectReference extends PdfObject implements Comparable<PdfInd
     public PdfObject getRefersTo(boolean recursively) {
         if (!recursively) {
             if (refersTo == null && !checkState(FLUSHED) && !checkState(MODIFIED) && !checkState(FREE) && getReader() != null) {
-                refersTo = getReader().readObject(this);
+                PdfReader reader = getReader();
+                refersTo = reader.readObject(this);
+                if (refersTo != null && reader.readObjectCache != null) {
+                    reader.readObjectCache.onObjectRead(this);
+                }
+            } else if (refersTo != null && pdfDocument != null && pdfDocument.reader != null
+                    && pdfDocument.reader.readObjectCache != null) {
+                pdfDocument.reader.readObjectCache.onObjectAccess(this);
             }
             return refersTo;
         } else {
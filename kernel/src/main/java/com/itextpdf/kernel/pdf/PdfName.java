@@ -45,6 +45,7 @@ package com.itextpdf.kernel.pdf;
 
 import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.PdfTokenizer;
 
 import java.util.Map;
 
@@ -913,6 +914,12 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
      */
     public static Map<String, PdfName> staticNames;
 
+    /**
+     * The static names in an open addressing hash table, so that they can be looked up
+     * by the bytes of a token, see {@link #getStaticName(PdfTokenizer)}.
+     */
+    private static final PdfName[] staticNamesTable;
+
     /**
      * Use reflection to cache all the public static final names so
      * future <code>PdfName</code> additions don't have to be "added twice".
@@ -921,6 +928,28 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
      */
     static {
         staticNames = PdfNameLoader.loadNames();
+        staticNamesTable = PdfNameLoader.createLookupTable(staticNames);
+    }
+
+    /**
+     * Finds the static name which is written by the current token of the tokenizer. Unlike
+     * looking up {@link #staticNames} by {@link PdfTokenizer#getStringValue()},
+     * this method creates neither a String nor a copy of the token bytes.
+     *
+     * @param tokens the tokenizer, which current token is a name
+     * @return the static name, or {@code null} if the token doesn't write any of the static names
+     */
+    public static PdfName getStaticName(PdfTokenizer tokens) {
+        if (staticNamesTable == null) {
+            return null;
+        }
+        int mask = staticNamesTable.length - 1;
+        for (int i = tokens.getTokenValueHashCode() & mask; staticNamesTable[i] != null; i = (i + 1) & mask) {
+            if (tokens.tokenValueEqualsTo(staticNamesTable[i].value)) {
+                return staticNamesTable[i];
+            }
+        }
+        return null;
     }
 
     private static PdfName createDirectName(String name) {
@@ -989,12 +1018,56 @@ public class PdfName extends PdfPrimitiveObject implements Comparable<PdfName> {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         PdfName pdfName = (PdfName) o;
+        // a name read from a document is compared with the value of the other name without generating its own value
+        if (value == null && content != null && pdfName.value != null) {
+            return contentEqualsTo(pdfName.value);
+        } else if (pdfName.value == null && pdfName.content != null && value != null) {
+            return pdfName.contentEqualsTo(value);
+        }
         return this.compareTo(pdfName) == 0;
     }
 
     @Override
     public int hashCode() {
-        return getValue().hashCode();
+        if (value != null || content == null) {
+            return getValue().hashCode();
+        }
+        // the same as the hash code of the value, which is not generated for the names read from a document
+        int hash = 0;
+        for (int k = 0; k < content.length; ++k) {
+            char c = (char) content[k];
+            if (c == '#') {
+                if (k + 2 >= content.length) {
+                    break;
+                }
+                c = (char) ((ByteBuffer.getHex(content[k + 1]) << 4) + ByteBuffer.getHex(content[k + 2]));
+                k += 2;
+            }
+            hash = 31 * hash + c;
+        }
+        return hash;
+    }
+
+    /**
+     * Checks whether the content decodes to the given value the same way as {@link #generateValue()} does,
+     * but without creating the value.
+     */
+    private boolean contentEqualsTo(String otherValue) {
+        int length = 0;
+        for (int k = 0; k < content.length; ++k) {
+            char c = (char) content[k];
+            if (c == '#') {
+                if (k + 2 >= content.length) {
+                    break;
+                }
+                c = (char) ((ByteBuffer.getHex(content[k + 1]) << 4) + ByteBuffer.getHex(content[k + 2]));
+                k += 2;
+            }
+            if (length == otherValue.length() || otherValue.charAt(length++) != c) {
+                return false;
+            }
+        }
+        return length == otherValue.length();
     }
 
     protected void generateValue() {
@@ -66,4 +66,25 @@ final class PdfNameLoader {
         }
         return staticNames;
     }
+
+    static PdfName[] createLookupTable(Map<String, PdfName> staticNames) {
+        if (staticNames == null) {
+            return null;
+        }
+        int size = 1;
+        // keep the table at most half full, so that the probe sequences stay short
+        while (size < staticNames.size() * 2) {
+            size <<= 1;
+        }
+        PdfName[] table = new PdfName[size];
+        int mask = size - 1;
+        for (PdfName name : staticNames.values()) {
+            int i = name.getValue().hashCode() & mask;
+            while (table[i] != null) {
+                i = (i + 1) & mask;
+            }
+            table[i] = name;
+        }
+        return table;
+    }
 }
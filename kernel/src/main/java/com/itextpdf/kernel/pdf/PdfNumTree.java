@@ -56,6 +56,13 @@ public class PdfNumTree implements Serializable {
     private Map<Integer, PdfObject> items = new HashMap<>();
     private PdfName treeType;
 
+    /**
+     * Leaf nodes which were already written by {@link #flushLeaves(int)}, in the order of their keys,
+     * and the first and the last keys of each of them.
+     */
+    private List<PdfIndirectReference> flushedLeaves = new ArrayList<>();
+    private List<int[]> flushedLeavesLimits = new ArrayList<>();
+
     /**
      * Creates the NumberTree of current Document
      *
@@ -93,7 +100,55 @@ public class PdfNumTree implements Serializable {
 
     public void addEntry(int key, PdfObject value) { items.put(new Integer(key), value); }
 
+    /**
+     * Writes the entries with the keys less than the given bound into the leaf nodes of the tree and flushes
+     * these nodes, so that the entries are not kept in memory till the tree is built. Only full leaf nodes
+     * are written, the rest of the entries is kept till the next call of this method or till {@link #buildTree()}.
+     * <p>
+     * After this call, entries with keys less than or equal to {@link #getLastFlushedKey()} shall not be added
+     * to the tree.
+     *
+     * @param upperBound the bound of the keys of the entries to be written; all the entries with lower keys
+     *                   shall be already added to the tree
+     * @return the number of the written entries
+     */
+    public int flushLeaves(int upperBound) {
+        List<Integer> numbers = new ArrayList<>();
+        for (Integer number : items.keySet()) {
+            if ((int) number < upperBound) {
+                numbers.add(number);
+            }
+        }
+        if (numbers.size() < NODE_SIZE) {
+            return 0;
+        }
+        Collections.sort(numbers);
+        int count = numbers.size() / NODE_SIZE * NODE_SIZE;
+        for (int offset = 0; offset < count; offset += NODE_SIZE) {
+            PdfDictionary leaf = createLeaf(numbers, offset, offset + NODE_SIZE);
+            for (int k = offset; k < offset + NODE_SIZE; ++k) {
+                items.remove(numbers.get(k));
+            }
+            leaf.flush();
+            flushedLeaves.add(leaf.getIndirectReference());
+            flushedLeavesLimits.add(new int[] {(int) numbers.get(offset), (int) numbers.get(offset + NODE_SIZE - 1)});
+        }
+        return count;
+    }
+
+    /**
+     * Gets the greatest key of the entries written by {@link #flushLeaves(int)}.
+     *
+     * @return the greatest written key, or -1 if nothing was written yet
+     */
+    public int getLastFlushedKey() {
+        return flushedLeavesLimits.isEmpty() ? -1 : flushedLeavesLimits.get(flushedLeavesLimits.size() - 1)[1];
+    }
+
     public PdfDictionary buildTree() {
+        if (!flushedLeaves.isEmpty()) {
+            return buildTreeWithFlushedLeaves();
+        }
         Integer[] numbers = new Integer[items.size()];
         numbers = items.keySet().toArray(numbers);
         Arrays.sort(numbers);
@@ -157,6 +212,52 @@ public class PdfNumTree implements Serializable {
         }
     }
 
+    private PdfDictionary buildTreeWithFlushedLeaves() {
+        List<PdfObject> kids = new ArrayList<PdfObject>(flushedLeaves);
+        List<int[]> kidsLimits = new ArrayList<>(flushedLeavesLimits);
+        List<Integer> numbers = new ArrayList<>(items.keySet());
+        Collections.sort(numbers);
+        for (int offset = 0; offset < numbers.size(); offset += NODE_SIZE) {
+            int end = Math.min(offset + NODE_SIZE, numbers.size());
+            kids.add(createLeaf(numbers, offset, end));
+            kidsLimits.add(new int[] {(int) numbers.get(offset), (int) numbers.get(end - 1)});
+        }
+        while (kids.size() > NODE_SIZE) {
+            List<PdfObject> parents = new ArrayList<>();
+            List<int[]> parentsLimits = new ArrayList<>();
+            for (int offset = 0; offset < kids.size(); offset += NODE_SIZE) {
+                int end = Math.min(offset + NODE_SIZE, kids.size());
+                int[] limits = new int[] {kidsLimits.get(offset)[0], kidsLimits.get(end - 1)[1]};
+                PdfDictionary dic = (PdfDictionary) new PdfDictionary().makeIndirect(catalog.getDocument());
+                dic.put(PdfName.Limits, new PdfArray(limits));
+                dic.put(PdfName.Kids, new PdfArray(kids.subList(offset, end)));
+                parents.add(dic);
+                parentsLimits.add(limits);
+            }
+            kids = parents;
+            kidsLimits = parentsLimits;
+        }
+        PdfDictionary dic = new PdfDictionary();
+        dic.put(PdfName.Kids, new PdfArray(kids));
+        return dic;
+    }
+
+    private PdfDictionary createLeaf(List<Integer> numbers, int offset, int end) {
+        PdfDictionary dic = new PdfDictionary();
+        PdfArray arr = new PdfArray();
+        arr.add(new PdfNumber((int) numbers.get(offset)));
+        arr.add(new PdfNumber((int) numbers.get(end - 1)));
+        dic.put(PdfName.Limits, arr);
+        arr = new PdfArray();
+        for (int k = offset; k < end; ++k) {
+            arr.add(new PdfNumber((int) numbers.get(k)));
+            arr.add(items.get(numbers.get(k)));
+        }
+        dic.put(PdfName.Nums, arr);
+        dic.makeIndirect(catalog.getDocument());
+        return dic;
+    }
+
     private void readTree(PdfDictionary dictionary) {
         if (dictionary != null) {
             iterateItems(dictionary, null);
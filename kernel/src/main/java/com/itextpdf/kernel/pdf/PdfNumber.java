@@ -52,6 +52,8 @@ public class PdfNumber extends PdfPrimitiveObject {
 
     private static final long serialVersionUID = -250799718574024246L;
 
+    private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
     private double value;
     private boolean isDouble;
     private boolean changed = false;
@@ -172,10 +174,13 @@ public class PdfNumber extends PdfPrimitiveObject {
     }
 
     protected void generateValue() {
-        try {
-            value = java.lang.Double.parseDouble(new String(content));
-        } catch (NumberFormatException e) {
-            value = java.lang.Double.NaN;
+        value = parseDecimal(content);
+        if (java.lang.Double.isNaN(value)) {
+            try {
+                value = java.lang.Double.parseDouble(new String(content));
+            } catch (NumberFormatException e) {
+                value = java.lang.Double.NaN;
+            }
         }
         isDouble = true;
     }
@@ -187,4 +192,45 @@ public class PdfNumber extends PdfPrimitiveObject {
         value = number.value;
         isDouble = number.isDouble;
     }
+
+    /**
+     * Parses the numbers written in the usual form, e.g. {@code -12.5}, directly from the bytes.
+     * The mantissa and the power of ten are exactly representable as doubles for at most 15 significant digits,
+     * so the single division gives the same correctly rounded result as {@link java.lang.Double#parseDouble(String)}.
+     *
+     * @param content the bytes of the number
+     * @return the parsed number, or {@link java.lang.Double#NaN} if the number is not written in the usual form
+     */
+    private static double parseDecimal(byte[] content) {
+        int i = 0;
+        boolean negative = false;
+        if (content.length > 0 && (content[0] == '-' || content[0] == '+')) {
+            negative = content[0] == '-';
+            i = 1;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < content.length; i++) {
+            int ch = content[i];
+            if (ch >= '0' && ch <= '9') {
+                if (++digits > 15) {
+                    return java.lang.Double.NaN;
+                }
+                mantissa = mantissa * 10 + ch - '0';
+                if (fractionDigits >= 0) {
+                    ++fractionDigits;
+                }
+            } else if (ch == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return java.lang.Double.NaN;
+            }
+        }
+        if (digits == 0) {
+            return java.lang.Double.NaN;
+        }
+        double result = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : (double) mantissa;
+        return negative ? -result : result;
+    }
 }
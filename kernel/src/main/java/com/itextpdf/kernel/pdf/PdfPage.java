@@ -69,7 +69,9 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
 
@@ -477,32 +479,17 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
      *                                     will be flushed.
      */
     public void flush(boolean flushResourcesContentStreams) {
-        // TODO log warning in case of failed flush in pdfa document case
-        if (isFlushed()) {
-            return;
-        }
-        getDocument().dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.END_PAGE, this));
-
-        if (getDocument().isTagged() && !getDocument().getStructTreeRoot().isFlushed()) {
-            tryFlushPageTags();
-        }
-
-        getResources();
-        if (resources != null && resources.isModified() && !resources.isReadOnly()) {
-            getPdfObject().put(PdfName.Resources, resources.getPdfObject());
-        }
-        if (flushResourcesContentStreams) {
-            getDocument().checkIsoConformance(this, IsoKey.PAGE);
-            flushResourcesContentStreams();
-        }
-        int contentStreamCount = getContentStreamCount();
-        for (int i = 0; i < contentStreamCount; i++) {
-            getContentStream(i).flush(false);
-        }
-
-        resources = null;
+        flush(flushResourcesContentStreams, Collections.<PdfIndirectReference>emptySet());
+    }
 
-        super.flush();
+    /**
+     * Flushes page, its content stream and all the content streams rendered on this page
+     * except the ones which are still used by other pages.
+     *
+     * @param retainedResources the references to the resources which shall not be flushed
+     */
+    void flushWithResourcesExcept(Set<PdfIndirectReference> retainedResources) {
+        flush(true, retainedResources);
     }
 
     /**
@@ -1212,8 +1199,37 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
         }
     }
 
-    private void flushResourcesContentStreams() {
-        flushResourcesContentStreams(getResources().getPdfObject());
+    private void flush(boolean flushResourcesContentStreams, Set<PdfIndirectReference> retainedResources) {
+        // TODO log warning in case of failed flush in pdfa document case
+        if (isFlushed()) {
+            return;
+        }
+        getDocument().dispatchEvent(new PdfDocumentEvent(PdfDocumentEvent.END_PAGE, this));
+
+        if (getDocument().isTagged() && !getDocument().getStructTreeRoot().isFlushed()) {
+            tryFlushPageTags();
+        }
+
+        getResources();
+        if (resources != null && resources.isModified() && !resources.isReadOnly()) {
+            getPdfObject().put(PdfName.Resources, resources.getPdfObject());
+        }
+        if (flushResourcesContentStreams) {
+            getDocument().checkIsoConformance(this, IsoKey.PAGE);
+            flushResourcesContentStreams(retainedResources);
+        }
+        int contentStreamCount = getContentStreamCount();
+        for (int i = 0; i < contentStreamCount; i++) {
+            getContentStream(i).flush(false);
+        }
+
+        resources = null;
+
+        super.flush();
+    }
+
+    private void flushResourcesContentStreams(Set<PdfIndirectReference> retainedResources) {
+        flushResourcesContentStreams(getResources().getPdfObject(), retainedResources);
 
         PdfArray annots = getAnnots(false);
         if (annots != null) {
@@ -1226,23 +1242,23 @@ public class PdfPage extends PdfObjectWrapper<PdfDictionary> {
         }
     }
 
-    private void flushResourcesContentStreams(PdfDictionary resources) {
+    private void flushResourcesContentStreams(PdfDictionary resources, Set<PdfIndirectReference> retainedResources) {
         if (resources != null) {
-            flushWithResources(resources.getAsDictionary(PdfName.XObject));
-            flushWithResources(resources.getAsDictionary(PdfName.Pattern));
-            flushWithResources(resources.getAsDictionary(PdfName.Shading));
+            flushWithResources(resources.getAsDictionary(PdfName.XObject), retainedResources);
+            flushWithResources(resources.getAsDictionary(PdfName.Pattern), retainedResources);
+            flushWithResources(resources.getAsDictionary(PdfName.Shading), retainedResources);
         }
     }
 
-    private void flushWithResources(PdfDictionary objsCollection) {
+    private void flushWithResources(PdfDictionary objsCollection, Set<PdfIndirectReference> retainedResources) {
         if (objsCollection == null) {
             return;
         }
 
         for (PdfObject obj : objsCollection.values()) {
-            if (obj.isFlushed())
+            if (obj.isFlushed() || retainedResources.contains(obj.getIndirectReference()))
                 continue;
-            flushResourcesContentStreams(((PdfDictionary) obj).getAsDictionary(PdfName.Resources));
+            flushResourcesContentStreams(((PdfDictionary) obj).getAsDictionary(PdfName.Resources), retainedResources);
             flushMustBeIndirectObject(obj);
         }
     }
@@ -64,6 +64,7 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -110,6 +111,10 @@ public class PdfReader implements Closeable, Serializable {
     protected boolean fixedXref = false;
     protected boolean xrefStm = false;
 
+    private XrefReconstructionReport xrefReconstructionReport;
+
+    transient ReadObjectCache readObjectCache;
+
     /**
      * Constructs a new PdfReader.
      *
@@ -230,6 +235,15 @@ public class PdfReader implements Closeable, Serializable {
         return rebuiltXref;
     }
 
+    /**
+     * Gets the report of the Cross-Reference section reconstruction, which describes the found objects and trailers.
+     *
+     * @return the report, or {@code null} if PdfReader didn't rebuild Cross-Reference section
+     */
+    public XrefReconstructionReport getXrefReconstructionReport() {
+        return xrefReconstructionReport;
+    }
+
     /**
      * Some documents contain hybrid XRef, for more information see "7.5.8.4 Compatibility with Applications
      * That Do Not Support Compressed Reference Streams" in PDF 32000-1:2008 spec.
@@ -541,6 +555,9 @@ public class PdfReader implements Closeable, Serializable {
             rebuildXref();
         }
         readDecryptObj();
+        if (properties.readOnlyObjectCacheSize > 0 && pdfDocument.getWriter() == null) {
+            readObjectCache = new ReadObjectCache(properties.readOnlyObjectCacheSize);
+        }
     }
 
     protected void readObjectStream(PdfStream objectStream) throws IOException {
@@ -587,6 +604,14 @@ public class PdfReader implements Closeable, Serializable {
                 PdfIndirectReference reference = pdfDocument.getXref().get(objNumber[k]);
                 // Check if this object has no incremental updates (e.g. no append mode)
                 if (reference.getObjStreamNumber() == objectStreamNumber) {
+                    if (readObjectCache != null) {
+                        // the stream may be read once again because one of its objects was unlinked,
+                        // the objects which are still linked shall not be replaced with new instances
+                        if (reference.refersTo != null) {
+                            continue;
+                        }
+                        readObjectCache.add(reference);
+                    }
                     reference.setRefersTo(obj);
                     obj.setIndirectReference(reference);
                 }
@@ -696,7 +721,7 @@ public class PdfReader implements Closeable, Serializable {
 
     protected PdfName readPdfName(boolean readAsDirect) {
         if (readAsDirect) {
-            PdfName cachedName = PdfName.staticNames.get(tokens.getStringValue());
+            PdfName cachedName = PdfName.getStaticName(tokens);
             if (cachedName != null)
                 return cachedName;
         }
@@ -988,24 +1013,12 @@ public class PdfReader implements Closeable, Serializable {
     protected void fixXref() throws IOException {
         fixedXref = true;
         PdfXrefTable xref = pdfDocument.getXref();
-        tokens.seek(0);
-        ByteBuffer buffer = new ByteBuffer(24);
-        PdfTokenizer lineTokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new ReusableRandomAccessSource(buffer)));
-        for (; ; ) {
-            long pos = tokens.getPosition();
-            buffer.reset();
-            if (!tokens.readLineSegment(buffer, true)) // added boolean because of mailing list issue (17 Feb. 2014)
-                break;
-            if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
-                int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
-                if (obj == null)
-                    continue;
-                int num = obj[0];
-                int gen = obj[1];
-                PdfIndirectReference reference = xref.get(num);
-                if (reference != null && reference.getGenNumber() == gen) {
-                    reference.fixOffset(pos);
-                }
+        for (XrefScanner.Candidate candidate : new XrefScanner(tokens, properties.xrefReconstructionThreadCount).scan(new XrefReconstructionReport())) {
+            if (candidate.isTrailer())
+                continue;
+            PdfIndirectReference reference = xref.get(candidate.objNr);
+            if (reference != null && reference.getGenNumber() == candidate.genNr) {
+                reference.fixOffset(candidate.offset);
             }
         }
     }
@@ -1016,41 +1029,39 @@ public class PdfReader implements Closeable, Serializable {
         rebuiltXref = true;
         PdfXrefTable xref = pdfDocument.getXref();
         xref.clear();
-        tokens.seek(0);
         trailer = null;
-        ByteBuffer buffer = new ByteBuffer(24);
-        PdfTokenizer lineTokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new ReusableRandomAccessSource(buffer)));
-        for (; ; ) {
-            long pos = tokens.getPosition();
-            buffer.reset();
-            if (!tokens.readLineSegment(buffer, true)) // added boolean because of mailing list issue (17 Feb. 2014)
-                break;
-            if (buffer.get(0) == 't') {
-                if (!PdfTokenizer.checkTrailer(buffer))
-                    continue;
-                tokens.seek(pos);
+        XrefReconstructionReport report = new XrefReconstructionReport();
+        List<XrefScanner.Candidate> candidates = new XrefScanner(tokens, properties.xrefReconstructionThreadCount).scan(report);
+        int objectHeadersCount = 0;
+        int objectsCount = 0;
+        // the candidates are in the order of their offsets, so the later definitions override the earlier ones
+        for (XrefScanner.Candidate candidate : candidates) {
+            if (candidate.isTrailer()) {
+                report.addTrailerOffset(candidate.offset);
+                tokens.seek(candidate.offset);
                 tokens.nextToken();
-                pos = tokens.getPosition();
                 try {
                     PdfDictionary dic = (PdfDictionary) readObject(false);
-                    if (dic.get(PdfName.Root, false) != null)
+                    if (dic.get(PdfName.Root, false) != null) {
                         trailer = dic;
-                    else
-                        tokens.seek(pos);
+                        report.setTrailerOffset(candidate.offset);
+                    }
                 } catch (Exception e) {
-                    tokens.seek(pos);
+                    // not a trailer dictionary, go on with the next candidate
                 }
-            } else if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
-                int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
-                if (obj == null)
-                    continue;
-                int num = obj[0];
-                int gen = obj[1];
-                if (xref.get(num) == null || xref.get(num).getGenNumber() <= gen) {
-                    xref.add(new PdfIndirectReference(pdfDocument, num, gen, pos));
+            } else {
+                ++objectHeadersCount;
+                PdfIndirectReference reference = xref.get(candidate.objNr);
+                if (reference == null || reference.getGenNumber() <= candidate.genNr) {
+                    if (reference == null)
+                        ++objectsCount;
+                    xref.add(new PdfIndirectReference(pdfDocument, candidate.objNr, candidate.genNr, candidate.offset));
                 }
             }
         }
+        report.setObjectHeadersCount(objectHeadersCount);
+        report.setObjectsCount(objectsCount);
+        xrefReconstructionReport = report;
         if (trailer == null)
             throw new PdfException(PdfException.TrailerNotFound);
     }
@@ -52,8 +52,11 @@ import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
 import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
@@ -89,6 +92,17 @@ public class PdfResources extends PdfObjectWrapper<PdfDictionary> {
     private boolean readOnly = false;
     private boolean isModified = false;
 
+    /**
+     * The fonts which were added without a document, see {@link #addFont(PdfDocument, PdfFont)}.
+     */
+    private transient List<PdfFont> detachedFonts;
+
+    /**
+     * The form XObjects which were added before they became indirect objects. Their resources may keep
+     * fonts added without a document, see {@link #getDetachedFonts()}.
+     */
+    private transient List<PdfFormXObject> detachedForms;
+
     /**
      * Creates new instance from given dictionary.
      * @param pdfObject the {@link PdfDictionary} object from which the resource object will be created.
@@ -107,14 +121,71 @@ public class PdfResources extends PdfObjectWrapper<PdfDictionary> {
 
     /**
      * Adds font to resources and register PdfFont in the document for further flushing.
+     * If the document is {@code null}, e.g. the resources are used by a canvas which is not bound to a document yet,
+     * the font is kept in these resources until it is added to the document, see {@link #getDetachedFonts()}.
      *
      * @return added font resource name.
      */
     public PdfName addFont(PdfDocument pdfDocument, PdfFont font) {
-        pdfDocument.addFont(font);
+        if (pdfDocument != null) {
+            pdfDocument.addFont(font);
+        } else if (font.getPdfObject().getIndirectReference() == null) {
+            if (detachedFonts == null) {
+                detachedFonts = new ArrayList<>();
+            }
+            if (!detachedFonts.contains(font)) {
+                detachedFonts.add(font);
+            }
+        }
         return addResource(font, fontNamesGen);
     }
 
+    /**
+     * Gets the fonts which were added without a document to these resources or to the resources of the form XObjects
+     * used by them, including the nested ones, and are not added to any document yet.
+     *
+     * @return the list of the fonts, which is empty if all the fonts were added with a document
+     */
+    List<PdfFont> getDetachedFonts() {
+        if (detachedForms == null) {
+            return detachedFonts != null ? detachedFonts : Collections.<PdfFont>emptyList();
+        }
+        List<PdfFont> fonts = new ArrayList<>();
+        collectDetachedFonts(fonts, new HashSet<PdfResources>());
+        return fonts;
+    }
+
+    private void collectDetachedFonts(List<PdfFont> fonts, Set<PdfResources> visitedResources) {
+        if (!visitedResources.add(this)) {
+            return;
+        }
+        if (detachedFonts != null) {
+            for (PdfFont font : detachedFonts) {
+                if (!fonts.contains(font)) {
+                    fonts.add(font);
+                }
+            }
+        }
+        if (detachedForms != null) {
+            for (PdfFormXObject form : detachedForms) {
+                if (form.getPdfObject().getIndirectReference() == null) {
+                    form.getResources().collectDetachedFonts(fonts, visitedResources);
+                }
+            }
+        }
+    }
+
+    private void addDetachedForm(PdfFormXObject form) {
+        if (form.getPdfObject().getIndirectReference() == null) {
+            if (detachedForms == null) {
+                detachedForms = new ArrayList<>();
+            }
+            if (!detachedForms.contains(form)) {
+                detachedForms.add(form);
+            }
+        }
+    }
+
     /**
      * Adds {@link PdfImageXObject} object to the resources.
      *
@@ -147,6 +218,7 @@ public class PdfResources extends PdfObjectWrapper<PdfDictionary> {
      * @return added form resource name.
      */
     public PdfName addForm(PdfFormXObject form) {
+        addDetachedForm(form);
         return addResource(form, formNamesGen);
     }
 
@@ -168,6 +240,7 @@ public class PdfResources extends PdfObjectWrapper<PdfDictionary> {
      * @return the {@link PdfName} of the newly added resource
      */
     public PdfName addForm(PdfFormXObject form, PdfName name) {
+        addDetachedForm(form);
         if (getResourceNames(PdfName.XObject).contains(name)) {
             name = addResource(form, formNamesGen);
         } else {
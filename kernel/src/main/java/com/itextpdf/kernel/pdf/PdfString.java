@@ -48,6 +48,8 @@ import com.itextpdf.io.source.ByteBuffer;
 import com.itextpdf.io.source.PdfTokenizer;
 import com.itextpdf.io.util.StreamUtil;
 
+import java.util.Arrays;
+
 /**
  * A {@code PdfString}-class is the PDF-equivalent of a
  * JAVA-{@code String}-object.
@@ -76,6 +78,8 @@ public class PdfString extends PdfPrimitiveObject {
     private int decryptInfoNum;
     private int decryptInfoGen;
     private PdfEncryption decryption; // if it's not null: content shall contain encrypted data; value shall be null
+    // the bytes the string was created from, the value is generated from them only when it's requested
+    private byte[] decodedContent;
 
     public PdfString(String value, String encoding) {
         super();
@@ -87,14 +91,16 @@ public class PdfString extends PdfPrimitiveObject {
         this(value, null);
     }
 
+    /**
+     * Creates a string from the bytes of its value. The bytes are copied, and the {@link String} value
+     * is not created until it is requested, e.g. by {@link #getValue()}.
+     *
+     * @param content the bytes of the value, each byte is a single character
+     */
     public PdfString(byte[] content) {
         super();
         if (content != null && content.length > 0) {
-            StringBuilder str = new StringBuilder(content.length);
-            for (byte b : content) {
-                str.append((char) (b & 0xff));
-            }
-            this.value = str.toString();
+            this.decodedContent = Arrays.copyOf(content, content.length);
         } else {
             this.value = "";
         }
@@ -151,10 +157,15 @@ public class PdfString extends PdfPrimitiveObject {
         if (encoding != null && encoding.length() != 0) {
             return getValue();
         }
-        if (content == null) {
-            generateContent();
+        byte[] b;
+        if (value == null && content == null) {
+            b = decodedContent;
+        } else {
+            if (content == null) {
+                generateContent();
+            }
+            b = decodeContent();
         }
-        byte[] b = decodeContent();
         if (b.length >= 2 && b[0] == (byte) 0xFE && b[1] == (byte) 0xFF) {
             return PdfEncodings.convertToString(b, PdfEncodings.UNICODE_BIG);
         } else if (b.length >= 3 && b[0] == (byte)0xEF && b[1] == (byte)0xBB && b[2] == (byte)0xBF) {
@@ -171,6 +182,8 @@ public class PdfString extends PdfPrimitiveObject {
      */
     // Analog of com.itextpdf.text.pdf.PdfString.getBytes() method in iText5.
     public byte[] getValueBytes() {
+        if (value == null && decodedContent != null)
+            return Arrays.copyOf(decodedContent, decodedContent.length);
         if (value == null)
             generateValue();
         if (encoding != null && encoding.equals(PdfEncodings.UNICODE_BIG) && PdfEncodings.isPdfDocEncoding(value))
@@ -201,7 +214,7 @@ public class PdfString extends PdfPrimitiveObject {
 
     @Override
     public String toString() {
-        if (value == null) {
+        if (value == null && content != null) {
             return new String(decodeContent());
         } else {
             return getValue();
@@ -238,6 +251,11 @@ public class PdfString extends PdfPrimitiveObject {
     }
 
     protected void generateValue() {
+        if (decodedContent != null) {
+            value = PdfEncodings.convertToString(decodedContent, null);
+            decodedContent = null;
+            return;
+        }
         assert content != null : "No byte[] content to generate value";
         value = PdfEncodings.convertToString(decodeContent(), null);
         if (decryption != null) {
@@ -313,6 +331,7 @@ public class PdfString extends PdfPrimitiveObject {
         super.copyContent(from, document);
         PdfString string = (PdfString) from;
         value = string.value;
+        decodedContent = string.decodedContent;
         hexWriting = string.hexWriting;
         decryption = string.decryption;
         decryptInfoNum = string.decryptInfoNum;
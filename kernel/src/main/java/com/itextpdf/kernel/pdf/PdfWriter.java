@@ -81,6 +81,11 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
      */
     PdfObjectStream objectStream = null;
 
+    /**
+     * The number of objects flushed by this writer.
+     */
+    long flushedObjectsCount;
+
     /**
      * Is used to avoid duplications on object copying.
      * It stores hashes of the indirect reference from the source document and the corresponding
@@ -301,6 +306,7 @@ public class PdfWriter extends PdfOutputStream implements Serializable {
             writeToBody(pdfObject);
         }
         indirectReference.setState(PdfObject.FLUSHED).clearState(PdfObject.MUST_BE_FLUSHED);
+        ++flushedObjectsCount;
         switch (pdfObject.getType()) {
             case PdfObject.BOOLEAN:
             case PdfObject.NAME:
@@ -0,0 +1,121 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps a bounded number of the objects read from a document which is opened for reading only,
+ * see {@link ReaderProperties#setReadOnlyObjectCacheSize(int)}.
+ * <p>
+ * The least recently used objects are unlinked from their indirect references, so that they can be garbage collected.
+ * If such an object is requested once again, it is read from the source anew. The objects which are forbidden to be
+ * released, e.g. the pages and the catalog, are never unlinked.
+ */
+class ReadObjectCache {
+
+    private final int maxSize;
+    private final Map<PdfIndirectReference, PdfIndirectReference> references;
+    private long unlinkedCount;
+
+    ReadObjectCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.references = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Registers the object which was read as a part of an object stream together with the requested object.
+     *
+     * @param reference the reference the read object is linked to
+     */
+    void add(PdfIndirectReference reference) {
+        references.put(reference, reference);
+    }
+
+    /**
+     * Registers the requested object which was just read and unlinks the least recently used objects
+     * if there are too many of them.
+     *
+     * @param reference the reference the read object is linked to
+     */
+    void onObjectRead(PdfIndirectReference reference) {
+        references.put(reference, reference);
+        Iterator<PdfIndirectReference> iterator = references.keySet().iterator();
+        while (references.size() > maxSize && iterator.hasNext()) {
+            PdfIndirectReference eldest = iterator.next();
+            if (eldest == reference) {
+                break;
+            }
+            iterator.remove();
+            unlink(eldest);
+        }
+    }
+
+    /**
+     * Marks the object as recently used.
+     *
+     * @param reference the reference the object is linked to
+     */
+    void onObjectAccess(PdfIndirectReference reference) {
+        references.get(reference);
+    }
+
+    /**
+     * Gets the number of objects which were unlinked from their references since the document was opened.
+     *
+     * @return the number of unlinked objects
+     */
+    long getUnlinkedCount() {
+        return unlinkedCount;
+    }
+
+    private void unlink(PdfIndirectReference reference) {
+        PdfObject object = reference.refersTo;
+        if (object != null && !object.isReleaseForbidden() && !reference.checkState(PdfObject.MODIFIED)) {
+            reference.refersTo = null;
+            ++unlinkedCount;
+        }
+    }
+}
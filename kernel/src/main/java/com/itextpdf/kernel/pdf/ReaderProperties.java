@@ -59,6 +59,10 @@ public class ReaderProperties implements Serializable {
     protected String certificateKeyProvider; //added by Aiken Sam for certificate decryption
     protected IExternalDecryptionProcess externalDecryptionProcess;
 
+    protected int xrefReconstructionThreadCount = Runtime.getRuntime().availableProcessors();
+
+    protected int readOnlyObjectCacheSize = 0;
+
     /**
      * Defines the password which will be used if the document is encrypted with standard encryption.
      * This could be either user or owner password.
@@ -94,6 +98,45 @@ public class ReaderProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Defines the number of threads which scan a damaged document when its Cross-Reference section is reconstructed.
+     * Only the documents larger than a single chunk of several megabytes are scanned in parallel.
+     * By default the number of available processors is used.
+     *
+     * @param threadCount the number of threads, 1 means that the document is scanned in the calling thread
+     * @return this {@link ReaderProperties} instance
+     */
+    public ReaderProperties setXrefReconstructionThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count shall be positive.");
+        }
+        this.xrefReconstructionThreadCount = threadCount;
+        return this;
+    }
+
+    /**
+     * Limits the number of the read objects which are kept in memory when the document is opened for reading only,
+     * i.e. without {@link PdfWriter}. When the limit is exceeded, the least recently used objects are unlinked
+     * from their indirect references and are read from the source once again if they are requested.
+     * The catalog, the page tree, the pages and the other objects which are forbidden to be released
+     * are always kept in memory.
+     * <p>
+     * This allows to process very large documents, e.g. to extract text page by page, with bounded memory.
+     * Note that the objects obtained before they were unlinked stay valid, but they are no longer linked to
+     * the document, so the objects obtained for the same indirect reference later are different instances.
+     * By default all the read objects are kept in memory.
+     *
+     * @param maxObjects the maximal number of the kept objects, 0 means that all the read objects are kept
+     * @return this {@link ReaderProperties} instance
+     */
+    public ReaderProperties setReadOnlyObjectCacheSize(int maxObjects) {
+        if (maxObjects < 0) {
+            throw new IllegalArgumentException("Cache size shall not be negative.");
+        }
+        this.readOnlyObjectCacheSize = maxObjects;
+        return this;
+    }
+
     private void clearEncryptionParams() {
         this.password = null;
         this.certificate = null;
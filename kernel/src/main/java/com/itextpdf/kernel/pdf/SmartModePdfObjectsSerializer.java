@@ -81,10 +81,11 @@ class SmartModePdfObjectsSerializer implements Serializable {
             return null;
         }
         PdfIndirectReference indRef = obj.getIndirectReference();
-        assert indRef != null;
-        Map<PdfIndirectReference, byte[]> serializedCache = indRef.getDocument().serializedObjectsCache;
+        // objects which are not yet added to a document, e.g. just created images, are serialized without caching
+        Map<PdfIndirectReference, byte[]> serializedCache = indRef != null
+                ? indRef.getDocument().serializedObjectsCache : new HashMap<PdfIndirectReference, byte[]>();
 
-        byte[] content = serializedCache.get(indRef);
+        byte[] content = indRef != null ? serializedCache.get(indRef) : null;
         if (content == null) {
             ByteBuffer bb = new ByteBuffer();
             int level = 100;
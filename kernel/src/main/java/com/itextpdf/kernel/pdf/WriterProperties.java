@@ -62,6 +62,18 @@ public class WriterProperties implements Serializable {
      * and reused if there's an object with the same content later.
      */
     protected boolean smartMode;
+    /**
+     * Indicates if image XObjects with the same content added to the document shall be written only once.
+     */
+    protected boolean imageDeduplication;
+    /**
+     * The cache of encoded images shared between documents, see {@link #setImageXObjectCache(ImageXObjectCache)}.
+     */
+    protected transient ImageXObjectCache imageXObjectCache;
+    /**
+     * The number of the last pages which are kept in memory, see {@link #setPageFlushWindow(int)}.
+     */
+    protected int pageFlushWindow;
     protected boolean debugMode;
     protected boolean addXmpMetadata;
     protected boolean addUAXmpMetadata;
@@ -113,6 +125,60 @@ public class WriterProperties implements Serializable {
         return this;
     }
 
+    /**
+     * Enables image deduplication.
+     * <br>
+     * When an image XObject is drawn on a canvas, its content is hashed, and if an image
+     * with the same content was already added to the document, the existing image XObject is
+     * used instead. Unlike smart mode, the duplicates are found before the image data is
+     * compressed and written.
+     *
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties useImageDeduplication() {
+        this.imageDeduplication = true;
+        return this;
+    }
+
+    /**
+     * Sets the cache of encoded images which is shared between several documents and enables image
+     * deduplication, see {@link #useImageDeduplication()}. The images with the same content
+     * are compressed only once for all documents which use the same cache.
+     *
+     * @param imageXObjectCache the cache of encoded images
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties setImageXObjectCache(ImageXObjectCache imageXObjectCache) {
+        this.imageXObjectCache = imageXObjectCache;
+        this.imageDeduplication = true;
+        return this;
+    }
+
+    /**
+     * Enables flushing the pages which leave the window of the last added pages.
+     * <br>
+     * The window is defined by the order of adding, not by the page numbers: when a page is added or inserted,
+     * the pages added before the last {@code pageCount} added pages are flushed together with their content streams,
+     * the form XObjects, images, patterns and shadings they use and the appearance streams of their annotations,
+     * see {@link PdfPage#flush(boolean)}. So a page inserted before the already flushed pages can still be drawn on.
+     * The resources which are still used by the pages in the window are not flushed. So the memory
+     * consumed by the document doesn't depend on the number of pages, which allows to generate documents
+     * of unlimited length, see {@link PdfDocument#getRetainedObjectsCount()} and {@link PdfDocument#getFlushedObjectsCount()}.
+     * <br>
+     * Note that the pages which left the window can't be modified anymore, e.g. page numbers can't be added
+     * to them when the document is closed.
+     *
+     * @param pageCount the number of the last pages which are kept in memory, 0 disables automatic flushing
+     * @return this {@code WriterProperties} instance
+     */
+    public WriterProperties setPageFlushWindow(int pageCount) {
+        if (pageCount < 0) {
+            throw new IllegalArgumentException("Page count shall not be negative.");
+        }
+        this.pageFlushWindow = pageCount;
+        return this;
+    }
+
     /**
      * If true, default XMPMetadata based on {@link PdfDocumentInfo} will be added.
      * For PDF 2.0 documents, metadata will be added in any case.
@@ -0,0 +1,169 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Describes what was found in a damaged document when its cross-reference table was reconstructed,
+ * see {@link PdfReader#getXrefReconstructionReport()}.
+ */
+public class XrefReconstructionReport implements Serializable {
+
+    private static final long serialVersionUID = -4377420186463434575L;
+
+    private long scannedLength;
+    private int chunkCount;
+    private int threadCount;
+    private int objectHeadersCount;
+    private int objectsCount;
+    private final List<Long> trailerOffsets = new ArrayList<>();
+    private long trailerOffset = -1;
+
+    XrefReconstructionReport() {
+    }
+
+    /**
+     * Gets the number of scanned bytes, i.e. the length of the document.
+     *
+     * @return the number of scanned bytes
+     */
+    public long getScannedLength() {
+        return scannedLength;
+    }
+
+    /**
+     * Gets the number of chunks the document was split into for scanning.
+     *
+     * @return the number of chunks
+     */
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * Gets the number of threads which scanned the chunks.
+     *
+     * @return the number of threads, 1 if the document was scanned in the calling thread
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Gets the number of found object headers ({@code n g obj}). It is greater than {@link #getObjectsCount()}
+     * if some objects are defined several times, e.g. by incremental updates.
+     *
+     * @return the number of found object headers
+     */
+    public int getObjectHeadersCount() {
+        return objectHeadersCount;
+    }
+
+    /**
+     * Gets the number of objects in the reconstructed cross-reference table.
+     *
+     * @return the number of objects
+     */
+    public int getObjectsCount() {
+        return objectsCount;
+    }
+
+    /**
+     * Gets the offsets of all found {@code trailer} keywords, including the ones which were not followed
+     * by a valid trailer dictionary.
+     *
+     * @return the offsets of the found trailers, in ascending order
+     */
+    public List<Long> getTrailerOffsets() {
+        return Collections.unmodifiableList(trailerOffsets);
+    }
+
+    /**
+     * Gets the offset of the trailer which was used for the document, i.e. the last trailer
+     * which has the {@code /Root} entry.
+     *
+     * @return the offset of the used trailer, or -1 if there is no valid trailer in the document
+     */
+    public long getTrailerOffset() {
+        return trailerOffset;
+    }
+
+    @Override
+    public String toString() {
+        return "Scanned " + scannedLength + " bytes in " + chunkCount + " chunk(s) by " + threadCount + " thread(s): "
+                + objectHeadersCount + " object header(s), " + objectsCount + " object(s), "
+                + trailerOffsets.size() + " trailer(s), used trailer at " + trailerOffset;
+    }
+
+    void setScannedLength(long scannedLength) {
+        this.scannedLength = scannedLength;
+    }
+
+    void setChunkCount(int chunkCount) {
+        this.chunkCount = chunkCount;
+    }
+
+    void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    void setObjectHeadersCount(int objectHeadersCount) {
+        this.objectHeadersCount = objectHeadersCount;
+    }
+
+    void setObjectsCount(int objectsCount) {
+        this.objectsCount = objectsCount;
+    }
+
+    void addTrailerOffset(long offset) {
+        trailerOffsets.add(offset);
+    }
+
+    void setTrailerOffset(long trailerOffset) {
+        this.trailerOffset = trailerOffset;
+    }
+}
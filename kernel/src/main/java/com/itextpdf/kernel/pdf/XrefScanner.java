@@ -0,0 +1,276 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.kernel.PdfException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Finds the object headers ({@code n g obj}) and the {@code trailer} keywords which start a line of a damaged file.
+ * <p>
+ * The result is the same as reading the file line by line with
+ * {@link PdfTokenizer#readLineSegment(ByteBuffer, boolean)}, but the file is split into chunks which are read
+ * in bulk and scanned in parallel. Only the lines which start with a digit or with 't' are tokenized.
+ */
+class XrefScanner {
+
+    static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+    /**
+     * The number of bytes read after the end of a chunk, so that the beginning of a line which starts
+     * close to the end of the chunk can be checked without reading the source once again.
+     */
+    private static final int CHUNK_OVERLAP = 1024;
+
+    /**
+     * The number of bytes of a line which are enough to check whether the line starts with an object header.
+     */
+    private static final int LINE_LENGTH = 24;
+
+    private final PdfTokenizer tokens;
+    private final int threadCount;
+    private final int chunkSize;
+
+    XrefScanner(PdfTokenizer tokens, int threadCount) {
+        this(tokens, threadCount, DEFAULT_CHUNK_SIZE);
+    }
+
+    XrefScanner(PdfTokenizer tokens, int threadCount, int chunkSize) {
+        this.tokens = tokens;
+        this.threadCount = threadCount;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Scans the whole file.
+     *
+     * @param report the report to which the scanned length, the number of chunks and threads are written
+     * @return the found candidates in the order of their offsets
+     * @throws IOException if the file can't be read
+     */
+    List<Candidate> scan(XrefReconstructionReport report) throws IOException {
+        final long length = tokens.length();
+        int chunkCount = (int) Math.max(1, (length + chunkSize - 1) / chunkSize);
+        int threads = Math.min(threadCount, chunkCount);
+        List<List<Candidate>> chunks = new ArrayList<>(chunkCount);
+        if (threads <= 1) {
+            for (int i = 0; i < chunkCount; ++i) {
+                chunks.add(scanChunk(tokens, length, (long) i * chunkSize, Math.min(length, (long) (i + 1) * chunkSize)));
+            }
+        } else {
+            List<Callable<List<Candidate>>> tasks = new ArrayList<>(chunkCount);
+            for (int i = 0; i < chunkCount; ++i) {
+                final long start = (long) i * chunkSize;
+                final long end = Math.min(length, start + chunkSize);
+                tasks.add(new Callable<List<Candidate>>() {
+                    @Override
+                    public List<Candidate> call() throws Exception {
+                        return scanChunk(new PdfTokenizer(tokens.getSafeFile()), length, start, end);
+                    }
+                });
+            }
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                for (Future<List<Candidate>> future : executor.invokeAll(tasks)) {
+                    chunks.add(getResult(future));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PdfException(PdfException.UnknownPdfException, e);
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (List<Candidate> chunk : chunks) {
+            candidates.addAll(chunk);
+        }
+        report.setScannedLength(length);
+        report.setChunkCount(chunkCount);
+        report.setThreadCount(Math.max(threads, 1));
+        return candidates;
+    }
+
+    private static List<Candidate> getResult(Future<List<Candidate>> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new PdfException(PdfException.UnknownPdfException, cause);
+        }
+    }
+
+    private static List<Candidate> scanChunk(PdfTokenizer source, long length, long start, long end) throws IOException {
+        List<Candidate> candidates = new ArrayList<>();
+        int chunkLength = (int) (end - start);
+        byte[] bytes = new byte[(int) Math.min(chunkLength + CHUNK_OVERLAP, length - start)];
+        boolean endsAtEof = start + bytes.length == length;
+        source.seek(start);
+        source.readFully(bytes);
+
+        ByteBuffer line = new ByteBuffer(LINE_LENGTH);
+        PdfTokenizer lineTokenizer = new PdfTokenizer(new RandomAccessFileOrArray(new PdfReader.ReusableRandomAccessSource(line)));
+        // the offset of the current line, or -1 if the first non-whitespace byte of the line is already passed
+        long lineStart = findLineStart(source, start);
+        for (int i = 0; i < chunkLength; ++i) {
+            int ch = bytes[i] & 0xff;
+            if (lineStart >= 0) {
+                if (PdfTokenizer.isWhitespace(ch)) {
+                    continue;
+                }
+                if (ch == 't' || ch >= '0' && ch <= '9') {
+                    if (!readLine(bytes, i, endsAtEof, line)) {
+                        line.reset();
+                        source.seek(start + i);
+                        source.readLineSegment(line, true);
+                    }
+                    if (ch == 't') {
+                        if (PdfTokenizer.checkTrailer(line)) {
+                            candidates.add(new Candidate(lineStart, -1, -1));
+                        }
+                    } else {
+                        int[] obj = PdfTokenizer.checkObjectStart(lineTokenizer);
+                        if (obj != null) {
+                            candidates.add(new Candidate(lineStart, obj[0], obj[1]));
+                        }
+                    }
+                }
+                lineStart = -1;
+            } else if (ch == '\n') {
+                lineStart = start + i + 1;
+            } else if (ch == '\r') {
+                lineStart = start + i + (i + 1 < bytes.length && bytes[i + 1] == '\n' ? 2 : 1);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Finds the offset of the line which the chunk starts in. The line is the text which follows the end
+     * of the previous non-empty line, so all the whitespaces before the chunk are walked backwards.
+     *
+     * @return the offset of the line, or -1 if the chunk starts after the first non-whitespace byte of the line
+     */
+    private static long findLineStart(PdfTokenizer source, long start) throws IOException {
+        long lineStart = 0;
+        int next = -1;
+        for (long pos = start - 1; pos >= 0; --pos) {
+            source.seek(pos);
+            int ch = source.read();
+            if (ch == '\n') {
+                lineStart = pos + 1;
+            } else if (ch == '\r') {
+                lineStart = pos + (next == '\n' ? 2 : 1);
+            } else if (!PdfTokenizer.isWhitespace(ch)) {
+                return lineStart > pos ? lineStart : -1;
+            }
+            next = ch;
+        }
+        return 0;
+    }
+
+    /**
+     * Reads the beginning of the line the same way as {@link PdfTokenizer#readLineSegment(ByteBuffer, boolean)} does.
+     *
+     * @return false if the bytes end before the line does, so the line shall be read from the source
+     */
+    private static boolean readLine(byte[] bytes, int from, boolean endsAtEof, ByteBuffer line) {
+        line.reset();
+        boolean prevWasWhitespace = false;
+        for (int i = from; line.size() < LINE_LENGTH; ++i) {
+            if (i == bytes.length) {
+                return endsAtEof;
+            }
+            int ch = bytes[i] & 0xff;
+            if (ch == '\n' || ch == '\r') {
+                break;
+            }
+            if (ch == 9 || ch == 12 || ch == 32) {
+                if (prevWasWhitespace) {
+                    continue;
+                }
+                prevWasWhitespace = true;
+            } else {
+                prevWasWhitespace = false;
+            }
+            line.append((byte) ch);
+        }
+        return true;
+    }
+
+    /**
+     * An object header or a trailer found by the scanner.
+     */
+    static class Candidate {
+        final long offset;
+        final int objNr;
+        final int genNr;
+
+        Candidate(long offset, int objNr, int genNr) {
+            this.offset = offset;
+            this.objNr = objNr;
+            this.genNr = genNr;
+        }
+
+        boolean isTrailer() {
+            return objNr < 0;
+        }
+    }
+}
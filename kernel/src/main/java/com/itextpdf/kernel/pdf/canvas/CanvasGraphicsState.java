@@ -495,7 +495,15 @@ public class CanvasGraphicsState implements Serializable {
             textKnockout = (boolean) tk;
     }
 
-    private void copyFrom(CanvasGraphicsState source) {
+    /**
+     * Copies all the values of the given graphics state to this one. Subclasses may use it to reuse an existing
+     * instance instead of creating a copy with {@link #CanvasGraphicsState(CanvasGraphicsState)}, e.g. the
+     * {@link com.itextpdf.kernel.pdf.canvas.parser.ParserGraphicsState} instances pooled by the parser.
+     * The values are copied the same way as by the copy constructor.
+     *
+     * @param source the graphics state to copy from
+     */
+    protected final void copyFrom(CanvasGraphicsState source) {
         this.ctm = source.ctm;
         this.strokeColor = source.strokeColor;
         this.fillColor = source.fillColor;
@@ -207,7 +207,10 @@ public class PdfCanvas implements Serializable {
      *
      * @param contentStream The content stream
      * @param resources     The resources, a specialized dictionary that can be used by PDF instructions in the content stream
-     * @param document      The document that the resulting content stream will be written to
+     * @param document      The document that the resulting content stream will be written to. It may be {@code null}
+     *                      if the content is produced before it is added to a document, e.g. in another thread.
+     *                      In this case the fonts are kept in the resources until they are added to a document
+     *                      and the conformance checks are skipped
      */
     public PdfCanvas(PdfStream contentStream, PdfResources resources, PdfDocument document) {
         this.contentStream = ensureStreamDataIsReadyToBeProcessed(contentStream);
@@ -312,7 +315,9 @@ public class PdfCanvas implements Serializable {
      * @return current canvas.
      */
     public PdfCanvas saveState() {
-        document.checkIsoConformance('q', IsoKey.CANVAS_STACK);
+        if (document != null) {
+            document.checkIsoConformance('q', IsoKey.CANVAS_STACK);
+        }
         gsStack.push(currentGs);
         currentGs = new CanvasGraphicsState(currentGs);
         contentStream.getOutputStream().writeBytes(q);
@@ -325,7 +330,9 @@ public class PdfCanvas implements Serializable {
      * @return current canvas.
      */
     public PdfCanvas restoreState() {
-        document.checkIsoConformance('Q', IsoKey.CANVAS_STACK);
+        if (document != null) {
+            document.checkIsoConformance('Q', IsoKey.CANVAS_STACK);
+        }
         if (gsStack.isEmpty()) {
             throw new PdfException(PdfException.UnbalancedSaveRestoreStateOperators);
         }
@@ -1483,7 +1490,9 @@ public class PdfCanvas implements Serializable {
      * @return current canvas.
      */
     public PdfCanvas setRenderingIntent(PdfName renderingIntent) {
-        document.checkIsoConformance(renderingIntent, IsoKey.RENDERING_INTENT);
+        if (document != null) {
+            document.checkIsoConformance(renderingIntent, IsoKey.RENDERING_INTENT);
+        }
         if (renderingIntent.equals(currentGs.getRenderingIntent()))
             return this;
         currentGs.setRenderingIntent(renderingIntent);
@@ -1606,7 +1615,9 @@ public class PdfCanvas implements Serializable {
             }
             contentStream.getOutputStream().writeFloats(colorValue).writeSpace().writeBytes(fill ? scn : SCN);
         }
-        document.checkIsoConformance(currentGs, fill ? IsoKey.FILL_COLOR : IsoKey.STROKE_COLOR, resources);
+        if (document != null) {
+            document.checkIsoConformance(currentGs, fill ? IsoKey.FILL_COLOR : IsoKey.STROKE_COLOR, resources);
+        }
         return this;
     }
 
@@ -2043,7 +2054,9 @@ public class PdfCanvas implements Serializable {
             currentGs.updateFromExtGState(extGState, document);
         PdfName name = resources.addExtGState(extGState);
         contentStream.getOutputStream().write(name).writeSpace().writeBytes(gs);
-        document.checkIsoConformance(currentGs, IsoKey.EXTENDED_GRAPHICS_STATE);
+        if (document != null) {
+            document.checkIsoConformance(currentGs, IsoKey.EXTENDED_GRAPHICS_STATE);
+        }
         return this;
     }
 
@@ -2196,7 +2209,9 @@ public class PdfCanvas implements Serializable {
      * @param f            an element of the transformation matrix
      */
     protected void addInlineImage(PdfImageXObject imageXObject, float a, float b, float c, float d, float e, float f) {
-        document.checkIsoConformance(imageXObject.getPdfObject(), IsoKey.INLINE_IMAGE, resources);
+        if (document != null) {
+            document.checkIsoConformance(imageXObject.getPdfObject(), IsoKey.INLINE_IMAGE, resources);
+        }
         saveState();
         concatMatrix(a, b, c, d, e, f);
         PdfOutputStream os = contentStream.getOutputStream();
@@ -2209,7 +2224,7 @@ public class PdfCanvas implements Serializable {
                 os.write(entry.getValue()).writeNewLine();
             }
         }
-        if (document.getPdfVersion().compareTo(PdfVersion.PDF_2_0) >= 0) {
+        if (document != null && document.getPdfVersion().compareTo(PdfVersion.PDF_2_0) >= 0) {
             os.write(PdfName.Length).writeSpace();
             os.write(new PdfNumber(imageBytes.length)).writeNewLine();;
         }
@@ -2314,7 +2329,7 @@ public class PdfCanvas implements Serializable {
     private PdfCanvas addImage(PdfImageXObject image, float a, float b, float c, float d, float e, float f) {
         saveState();
         concatMatrix(a, b, c, d, e, f);
-        PdfName name = resources.addImage(image);
+        PdfName name = resources.addImage(document != null ? document.getDeduplicatedImage(image) : image);
         contentStream.getOutputStream().write(name).writeSpace().writeBytes(Do);
         restoreState();
         return this;
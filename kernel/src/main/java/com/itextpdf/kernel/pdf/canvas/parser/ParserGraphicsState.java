@@ -51,6 +51,7 @@ import com.itextpdf.kernel.geom.Matrix;
 import com.itextpdf.kernel.geom.NoninvertibleTransformException;
 import com.itextpdf.kernel.geom.Path;
 import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.geom.Subpath;
 import com.itextpdf.kernel.pdf.canvas.CanvasGraphicsState;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants.FillingRule;
@@ -59,6 +60,7 @@ import com.itextpdf.kernel.pdf.canvas.parser.clipper.DefaultClipper;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.IClipper;
 import com.itextpdf.kernel.pdf.canvas.parser.clipper.PolyTree;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -90,6 +92,15 @@ public class ParserGraphicsState extends CanvasGraphicsState {
         }
     }
 
+    /**
+     * Makes this graphics state a copy of the source one, so that the instance can be reused.
+     * @param source the Graphics State to copy from
+     */
+    void copyState(ParserGraphicsState source) {
+        copyFrom(source);
+        clippingPath = source.clippingPath != null ? new Path(source.clippingPath) : null;
+    }
+
     /**
      * Sets the current clipping path to the specified path.
      *
@@ -130,6 +141,10 @@ public class ParserGraphicsState extends CanvasGraphicsState {
         Path pathCopy = new Path(path);
         pathCopy.closeAllSubpaths();
 
+        if (clipByRectangles(pathCopy)) {
+            return;
+        }
+
         IClipper clipper = new DefaultClipper();
         ClipperBridge.addPath(clipper, clippingPath, IClipper.PolyType.SUBJECT);
         ClipperBridge.addPath(clipper, pathCopy, IClipper.PolyType.CLIP);
@@ -151,6 +166,120 @@ public class ParserGraphicsState extends CanvasGraphicsState {
         return clippingPath;
     }
 
+    /**
+     * Intersects the clipping path with the path without the clipper if one of them is an axis-aligned rectangle
+     * and the result is obvious: the intersection of two rectangles, the unchanged clipping path if the rectangle
+     * contains it, or an empty path if the rectangle doesn't overlap the other path.
+     *
+     * @return true if the clipping path is updated, false if the general clipping is needed
+     */
+    private boolean clipByRectangles(Path path) {
+        Rectangle clipRect = getAxisAlignedRectangle(clippingPath);
+        Rectangle pathRect = getAxisAlignedRectangle(path);
+        if (clipRect == null && pathRect == null) {
+            return false;
+        }
+        Rectangle clipBox = clipRect != null ? clipRect : getBoundingBox(clippingPath);
+        Rectangle pathBox = pathRect != null ? pathRect : getBoundingBox(path);
+        if (clipBox == null || pathBox == null) {
+            return false;
+        }
+
+        float llx = Math.max(clipBox.getLeft(), pathBox.getLeft());
+        float lly = Math.max(clipBox.getBottom(), pathBox.getBottom());
+        float urx = Math.min(clipBox.getRight(), pathBox.getRight());
+        float ury = Math.min(clipBox.getTop(), pathBox.getTop());
+        if (urx <= llx || ury <= lly) {
+            clippingPath = new Path();
+            return true;
+        }
+        if (clipRect != null && pathRect != null) {
+            Path intersection = new Path();
+            intersection.rectangle(llx, lly, urx - llx, ury - lly);
+            intersection.closeAllSubpaths();
+            clippingPath = intersection;
+            return true;
+        }
+        // the path which isn't a rectangle is kept as is only if it's the current clipping path,
+        // because a new path may have a filling rule other than the one of the clipping path
+        return pathRect != null && pathRect.contains(clipBox);
+    }
+
+    /**
+     * Gets the rectangle if the path consists of a single subpath which is an axis-aligned rectangle.
+     */
+    private static Rectangle getAxisAlignedRectangle(Path path) {
+        Subpath rectSubpath = null;
+        for (Subpath subpath : path.getSubpaths()) {
+            if (subpath.isSinglePointClosed() || subpath.isSinglePointOpen()) {
+                continue;
+            }
+            if (rectSubpath != null) {
+                return null;
+            }
+            rectSubpath = subpath;
+        }
+        if (rectSubpath == null) {
+            return null;
+        }
+
+        List<Point> points = new ArrayList<>(5);
+        points.add(rectSubpath.getStartPoint());
+        for (IShape segment : rectSubpath.getSegments()) {
+            if (!(segment instanceof Line)) {
+                return null;
+            }
+            points.add(segment.getBasePoints().get(1));
+        }
+        if (points.size() == 5 && isSamePoint(points.get(0), points.get(4))) {
+            points.remove(4);
+        }
+        if (points.size() != 4) {
+            return null;
+        }
+
+        boolean firstEdgeHorizontal = points.get(0).getY() == points.get(1).getY();
+        for (int i = 0; i < 4; ++i) {
+            Point from = points.get(i);
+            Point to = points.get((i + 1) % 4);
+            boolean horizontal = (i % 2 == 0) == firstEdgeHorizontal;
+            if (horizontal ? from.getY() != to.getY() : from.getX() != to.getX()) {
+                return null;
+            }
+        }
+        float llx = (float) Math.min(points.get(0).getX(), points.get(2).getX());
+        float lly = (float) Math.min(points.get(0).getY(), points.get(2).getY());
+        float urx = (float) Math.max(points.get(0).getX(), points.get(2).getX());
+        float ury = (float) Math.max(points.get(0).getY(), points.get(2).getY());
+        return new Rectangle(llx, lly, urx - llx, ury - lly);
+    }
+
+    private static Rectangle getBoundingBox(Path path) {
+        double llx = Double.MAX_VALUE;
+        double lly = Double.MAX_VALUE;
+        double urx = -Double.MAX_VALUE;
+        double ury = -Double.MAX_VALUE;
+        for (Subpath subpath : path.getSubpaths()) {
+            if (subpath.isSinglePointClosed() || subpath.isSinglePointOpen()) {
+                continue;
+            }
+            for (Point point : subpath.getPiecewiseLinearApproximation()) {
+                llx = Math.min(llx, point.getX());
+                lly = Math.min(lly, point.getY());
+                urx = Math.max(urx, point.getX());
+                ury = Math.max(ury, point.getY());
+            }
+        }
+        if (llx > urx) {
+            return null;
+        }
+        return new Rectangle((float) llx, (float) lly, (float) (urx - llx), (float) (ury - lly));
+    }
+
+    private static boolean isSamePoint(Point first, Point second) {
+        return first.getX() == second.getX() && first.getY() == second.getY();
+    }
+
     private void transformClippingPath(Matrix newCtm) {
         Path path = new Path();
 
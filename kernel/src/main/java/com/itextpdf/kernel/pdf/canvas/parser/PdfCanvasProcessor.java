@@ -109,6 +109,12 @@ public class PdfCanvasProcessor {
 
     public static final String DEFAULT_OPERATOR = "DefaultOperator";
 
+    /**
+     * The limit of the resolved operators cache, so that broken content streams with a lot of
+     * garbage operators don't make the cache grow.
+     */
+    private static final int MAX_RESOLVED_OPERATORS = 256;
+
     /**
      * Listener that will be notified of render events
      */
@@ -151,6 +157,19 @@ public class PdfCanvasProcessor {
      */
     private final Stack<ParserGraphicsState> gsStack = new Stack<>();
 
+    /**
+     * Graphics states popped from the stack which can be reused, if the pooling is enabled.
+     */
+    private final Stack<ParserGraphicsState> gsPool = new Stack<>();
+
+    private boolean graphicsStatePoolingEnabled = false;
+
+    /**
+     * The operators resolved by the operator literals, so that the operator name string isn't
+     * created for each operator of the content.
+     */
+    private final Map<PdfLiteral, IContentOperator> resolvedOperators = new HashMap<>();
+
     private Matrix textMatrix;
     private Matrix textLineMatrix;
 
@@ -226,6 +245,7 @@ public class PdfCanvasProcessor {
      * @return the existing registered operator, if any
      */
     public IContentOperator registerContentOperator(String operatorString, IContentOperator operator) {
+        resolvedOperators.clear();
         return operators.put(operatorString, operator);
     }
 
@@ -238,11 +258,38 @@ public class PdfCanvasProcessor {
         return new ArrayList<String>(operators.keySet());
     }
 
+    /**
+     * Checks whether the graphics states saved by the q operator are reused after they are restored by the Q operator.
+     *
+     * @return true if the graphics states are pooled, false otherwise
+     */
+    public boolean isGraphicsStatePoolingEnabled() {
+        return graphicsStatePoolingEnabled;
+    }
+
+    /**
+     * Sets whether the graphics states saved by the q operator are reused after they are restored by the Q operator.
+     * The pooling avoids creating a graphics state for each q operator of the content, but the graphics state
+     * returned by {@link #getGraphicsState()} may be modified after the Q operator. Enable it only if the listener
+     * and the custom operators don't keep references to the graphics states and the render infos with not preserved
+     * graphics states, see {@link com.itextpdf.kernel.pdf.canvas.parser.data.AbstractRenderInfo#preserveGraphicsState()}.
+     *
+     * @param graphicsStatePoolingEnabled true to reuse the graphics states, false to create new ones
+     */
+    public void setGraphicsStatePoolingEnabled(boolean graphicsStatePoolingEnabled) {
+        this.graphicsStatePoolingEnabled = graphicsStatePoolingEnabled;
+        if (!graphicsStatePoolingEnabled) {
+            gsPool.clear();
+        }
+    }
+
     /**
      * Resets the graphics state stack, matrices and resources.
      */
     public void reset() {
-        gsStack.removeAllElements();
+        while (!gsStack.isEmpty()) {
+            releaseGraphicsState(gsStack.pop());
+        }
         gsStack.push(new ParserGraphicsState());
         textMatrix = null;
         textLineMatrix = null;
@@ -427,13 +474,17 @@ public class PdfCanvasProcessor {
      */
     protected void paintPath(int operation, int rule) {
         ParserGraphicsState gs = getGraphicsState();
-        PathRenderInfo renderInfo = new PathRenderInfo(this.markedContentStack, gs, currentPath, operation, rule, isClip, clippingRule);
-        eventOccurred(renderInfo, EventType.RENDER_PATH);
+        if (isEventSupported(EventType.RENDER_PATH)) {
+            PathRenderInfo renderInfo = new PathRenderInfo(this.markedContentStack, gs, currentPath, operation, rule, isClip, clippingRule);
+            eventOccurred(renderInfo, EventType.RENDER_PATH);
+        }
 
         if (isClip) {
             isClip = false;
             gs.clip(currentPath, clippingRule);
-            eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            if (isEventSupported(EventType.CLIP_PATH_CHANGED)) {
+                eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            }
         }
 
         currentPath = new Path();
@@ -446,9 +497,15 @@ public class PdfCanvasProcessor {
      * @param operands a list with operands
      */
     protected void invokeOperator(PdfLiteral operator, List<PdfObject> operands) {
-        IContentOperator op = operators.get(operator.toString());
-        if (op == null)
-            op = operators.get(DEFAULT_OPERATOR);
+        IContentOperator op = resolvedOperators.get(operator);
+        if (op == null) {
+            op = operators.get(operator.toString());
+            if (op == null)
+                op = operators.get(DEFAULT_OPERATOR);
+            if (resolvedOperators.size() < MAX_RESOLVED_OPERATORS) {
+                resolvedOperators.put(operator, op);
+            }
+        }
         op.invoke(this, operator, operands);
     }
 
@@ -538,6 +595,16 @@ public class PdfCanvasProcessor {
         }
     }
 
+    private boolean isEventSupported(EventType type) {
+        return supportedEvents == null || supportedEvents.contains(type);
+    }
+
+    private void releaseGraphicsState(ParserGraphicsState gs) {
+        if (graphicsStatePoolingEnabled) {
+            gsPool.push(gs);
+        }
+    }
+
     /**
      * Displays text.
      *
@@ -931,7 +998,13 @@ public class PdfCanvasProcessor {
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
             ParserGraphicsState gs = processor.gsStack.peek();
-            ParserGraphicsState copy = new ParserGraphicsState(gs);
+            ParserGraphicsState copy;
+            if (processor.gsPool.isEmpty()) {
+                copy = new ParserGraphicsState(gs);
+            } else {
+                copy = processor.gsPool.pop();
+                copy.copyState(gs);
+            }
             processor.gsStack.push(copy);
         }
     }
@@ -1052,9 +1125,11 @@ public class PdfCanvasProcessor {
          * {@inheritDoc}
          */
         public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
-            processor.gsStack.pop();
+            processor.releaseGraphicsState(processor.gsStack.pop());
             ParserGraphicsState gs = processor.getGraphicsState();
-            processor.eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            if (processor.isEventSupported(EventType.CLIP_PATH_CHANGED)) {
+                processor.eventOccurred(new ClippingPathInfo(gs, gs.getClippingPath(), gs.getCtm()), EventType.CLIP_PATH_CHANGED);
+            }
         }
     }
 
@@ -43,6 +43,9 @@
  */
 package com.itextpdf.kernel.pdf.canvas.parser;
 
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.FilteredTextEventListener;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.ITextExtractionStrategy;
 import com.itextpdf.kernel.pdf.PdfPage;
@@ -82,6 +85,23 @@ public final class PdfTextExtractor {
         return getTextFromPage(page, strategy, new HashMap<String, IContentOperator>());
     }
 
+    /**
+     * Extract text located in the region of a specified page using an extraction strategy.
+     * The content which is surely outside the region is skipped during the parsing,
+     * see {@link RegionRestrictedPdfCanvasProcessor}.
+     *
+     * @param page     the page for the text to be extracted from
+     * @param strategy the strategy to use for extracting text
+     * @param region   the region of the page in the default user space
+     * @return the extracted text
+     */
+    public static String getTextFromPage(PdfPage page, ITextExtractionStrategy strategy, Rectangle region) {
+        FilteredTextEventListener listener = new FilteredTextEventListener(strategy, new TextRegionEventFilter(region));
+        PdfCanvasProcessor parser = new RegionRestrictedPdfCanvasProcessor(listener, region);
+        parser.processPageContent(page);
+        return listener.getResultantText();
+    }
+
     /**
      * Extract text from a specified page using the default strategy.
      * Node: the default strategy is subject to change. If using a specific strategy
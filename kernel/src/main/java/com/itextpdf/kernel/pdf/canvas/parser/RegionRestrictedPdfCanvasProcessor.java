@@ -0,0 +1,237 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.kernel.geom.LineSegment;
+import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.geom.Vector;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.canvas.CanvasTag;
+import com.itextpdf.kernel.pdf.canvas.parser.data.AbstractRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Stack;
+
+/**
+ * A {@link PdfCanvasProcessor} which only processes the content that may be visible in the given region.
+ * <p>
+ * The processor tracks the current transformation matrix and skips the content which provably lies outside
+ * the region before the events for it are created:
+ * <ul>
+ * <li>form XObjects whose bounding box doesn't overlap the region are not processed at all;</li>
+ * <li>image XObjects and inline images which don't overlap the region don't produce render events;</li>
+ * <li>text strings whose box between the ascent and descent lines doesn't overlap the region
+ * don't produce render events, so the listener doesn't split them into characters.</li>
+ * </ul>
+ * The skipping is conservative: everything which may intersect the region is passed on to the listener,
+ * so the listener still has to filter the events precisely, e.g. with
+ * {@link com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter}.
+ * The region is defined in the default user space of the page.
+ */
+public class RegionRestrictedPdfCanvasProcessor extends PdfCanvasProcessor {
+
+    private final Rectangle region;
+
+    /**
+     * Creates a new processor restricted to the region that will send its output to the designated listener.
+     *
+     * @param eventListener the {@link IEventListener} that will receive rendering notifications
+     * @param region        the region of the page in the default user space
+     */
+    public RegionRestrictedPdfCanvasProcessor(IEventListener eventListener, Rectangle region) {
+        super(eventListener);
+        this.region = region;
+        registerRegionHandlers();
+    }
+
+    /**
+     * Creates a new processor restricted to the region that will send its output to the designated listener.
+     * Also allows registration of custom IContentOperators that can influence
+     * how (and whether or not) the PDF instructions will be parsed.
+     *
+     * @param eventListener              the {@link IEventListener} that will receive rendering notifications
+     * @param additionalContentOperators an optional map of custom {@link IContentOperator}s for rendering instructions
+     * @param region                     the region of the page in the default user space
+     */
+    public RegionRestrictedPdfCanvasProcessor(IEventListener eventListener, Map<String, IContentOperator> additionalContentOperators,
+                                              Rectangle region) {
+        super(eventListener, additionalContentOperators);
+        this.region = region;
+        registerRegionHandlers();
+    }
+
+    /**
+     * Gets the region to which the processing is restricted.
+     *
+     * @return the region in the default user space
+     */
+    public Rectangle getRegion() {
+        return region;
+    }
+
+    /**
+     * Checks whether the rectangle in the current user space may overlap the region.
+     *
+     * @param rect the rectangle in the current user space
+     * @return false if the transformed rectangle is surely outside the region, true otherwise
+     */
+    public boolean isInRegion(Rectangle rect) {
+        return isInRegion(rect, getGraphicsState().getCtm());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    protected void eventOccurred(IEventData data, EventType type) {
+        if (type == EventType.RENDER_TEXT && data instanceof TextRenderInfo && !isTextInRegion((TextRenderInfo) data)) {
+            ((AbstractRenderInfo) data).releaseGraphicsState();
+            return;
+        }
+        super.eventOccurred(data, type);
+    }
+
+    private void registerRegionHandlers() {
+        RegionFormXObjectDoHandler formHandler = new RegionFormXObjectDoHandler();
+        formHandler.formHandler = registerXObjectDoHandler(PdfName.Form, formHandler);
+
+        Set<EventType> supportedEvents = getEventListener().getSupportedEvents();
+        if (supportedEvents == null || supportedEvents.contains(EventType.RENDER_IMAGE)) {
+            RegionImageXObjectDoHandler imageHandler = new RegionImageXObjectDoHandler();
+            imageHandler.imageHandler = registerXObjectDoHandler(PdfName.Image, imageHandler);
+            RegionInlineImageOperator inlineImageOperator = new RegionInlineImageOperator();
+            inlineImageOperator.inlineImageOperator = registerContentOperator("EI", inlineImageOperator);
+        }
+    }
+
+    private boolean isTextInRegion(TextRenderInfo renderInfo) {
+        LineSegment ascent = renderInfo.getAscentLine();
+        LineSegment descent = renderInfo.getDescentLine();
+        return overlapsRegion(ascent.getStartPoint(), ascent.getEndPoint(), descent.getStartPoint(), descent.getEndPoint());
+    }
+
+    private boolean isInRegion(Rectangle rect, Matrix matrix) {
+        return overlapsRegion(
+                new Vector(rect.getLeft(), rect.getBottom(), 1).cross(matrix),
+                new Vector(rect.getRight(), rect.getBottom(), 1).cross(matrix),
+                new Vector(rect.getLeft(), rect.getTop(), 1).cross(matrix),
+                new Vector(rect.getRight(), rect.getTop(), 1).cross(matrix));
+    }
+
+    private boolean overlapsRegion(Vector... points) {
+        float llx = Float.MAX_VALUE;
+        float lly = Float.MAX_VALUE;
+        float urx = -Float.MAX_VALUE;
+        float ury = -Float.MAX_VALUE;
+        for (Vector point : points) {
+            llx = Math.min(llx, point.get(Vector.I1));
+            lly = Math.min(lly, point.get(Vector.I2));
+            urx = Math.max(urx, point.get(Vector.I1));
+            ury = Math.max(ury, point.get(Vector.I2));
+        }
+        return region.overlaps(new Rectangle(llx, lly, urx - llx, ury - lly));
+    }
+
+    /**
+     * Skips the form XObjects whose bounding box transformed to the default user space doesn't overlap the region.
+     */
+    private static class RegionFormXObjectDoHandler implements IXObjectDoHandler {
+        private IXObjectDoHandler formHandler;
+
+        public void handleXObject(PdfCanvasProcessor processor, Stack<CanvasTag> canvasTagHierarchy, PdfStream xObjectStream, PdfName xObjectName) {
+            RegionRestrictedPdfCanvasProcessor regionProcessor = (RegionRestrictedPdfCanvasProcessor) processor;
+            PdfArray bBox = xObjectStream.getAsArray(PdfName.BBox);
+            if (bBox != null && bBox.size() == 4) {
+                Matrix ctm = regionProcessor.getGraphicsState().getCtm();
+                PdfArray matrix = xObjectStream.getAsArray(PdfName.Matrix);
+                if (matrix != null && matrix.size() == 6) {
+                    float[] values = matrix.toFloatArray();
+                    ctm = new Matrix(values[0], values[1], values[2], values[3], values[4], values[5]).multiply(ctm);
+                }
+                if (!regionProcessor.isInRegion(bBox.toRectangle(), ctm)) {
+                    return;
+                }
+            }
+            formHandler.handleXObject(processor, canvasTagHierarchy, xObjectStream, xObjectName);
+        }
+    }
+
+    /**
+     * Skips the image XObjects whose unit square transformed to the default user space doesn't overlap the region.
+     */
+    private static class RegionImageXObjectDoHandler implements IXObjectDoHandler {
+        private IXObjectDoHandler imageHandler;
+
+        public void handleXObject(PdfCanvasProcessor processor, Stack<CanvasTag> canvasTagHierarchy, PdfStream xObjectStream, PdfName xObjectName) {
+            if (((RegionRestrictedPdfCanvasProcessor) processor).isInRegion(new Rectangle(1, 1))) {
+                imageHandler.handleXObject(processor, canvasTagHierarchy, xObjectStream, xObjectName);
+            }
+        }
+    }
+
+    /**
+     * Skips the inline images whose unit square transformed to the default user space doesn't overlap the region.
+     */
+    private static class RegionInlineImageOperator implements IContentOperator {
+        private IContentOperator inlineImageOperator;
+
+        /**
+         * {@inheritDoc}
+         */
+        public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+            if (((RegionRestrictedPdfCanvasProcessor) processor).isInRegion(new Rectangle(1, 1))) {
+                inlineImageOperator.invoke(processor, operator, operands);
+            }
+        }
+    }
+}
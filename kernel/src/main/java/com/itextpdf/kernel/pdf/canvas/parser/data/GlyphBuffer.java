@@ -0,0 +1,314 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.data;
+
+import com.itextpdf.io.font.otf.Glyph;
+import com.itextpdf.io.font.otf.GlyphLine;
+import com.itextpdf.kernel.font.PdfFont;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A compact storage of the glyphs of text render events.
+ * <p>
+ * The glyphs are split in the same way as by {@link TextRenderInfo#getCharacterRenderInfos()}, but each glyph
+ * property is stored in a column of primitives instead of a separate {@link TextRenderInfo} object per glyph:
+ * the baseline of the glyph in user space, the font size in user space, the id of the font and the unicode text.
+ * The stored glyphs are read with a {@link Cursor}.
+ */
+public class GlyphBuffer {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private int size;
+    private float[] startX = new float[INITIAL_CAPACITY];
+    private float[] startY = new float[INITIAL_CAPACITY];
+    private float[] endX = new float[INITIAL_CAPACITY];
+    private float[] endY = new float[INITIAL_CAPACITY];
+    private float[] fontSizes = new float[INITIAL_CAPACITY];
+    private int[] fontIds = new int[INITIAL_CAPACITY];
+    private int[] textOffsets = new int[INITIAL_CAPACITY + 1];
+    private char[] text = new char[INITIAL_CAPACITY];
+
+    private final List<PdfFont> fonts = new ArrayList<>();
+    private final Map<PdfFont, Integer> fontIdsByFont = new HashMap<>();
+
+    /**
+     * Adds the glyphs of the text render event to the buffer.
+     *
+     * @param renderInfo the text render event data
+     */
+    public void addGlyphs(TextRenderInfo renderInfo) {
+        renderInfo.writeGlyphs(this);
+    }
+
+    /**
+     * Gets the number of glyphs in the buffer.
+     *
+     * @return the number of glyphs
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the font by its id.
+     *
+     * @param fontId the id of the font, see {@link Cursor#getFontId()}
+     * @return the font
+     */
+    public PdfFont getFont(int fontId) {
+        return fonts.get(fontId);
+    }
+
+    /**
+     * Gets the number of the different fonts of the glyphs. The font ids are the numbers from 0 to this number.
+     *
+     * @return the number of the fonts
+     */
+    public int getFontCount() {
+        return fonts.size();
+    }
+
+    /**
+     * Removes all glyphs and fonts from the buffer, e.g. to reuse it for the next page.
+     * The allocated capacity is kept.
+     */
+    public void clear() {
+        size = 0;
+        fonts.clear();
+        fontIdsByFont.clear();
+    }
+
+    /**
+     * Creates a cursor positioned before the first glyph.
+     *
+     * @return the cursor
+     */
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    int getFontId(PdfFont font) {
+        Integer fontId = fontIdsByFont.get(font);
+        if (fontId == null) {
+            fontId = fonts.size();
+            fonts.add(font);
+            fontIdsByFont.put(font, fontId);
+        }
+        return (int) fontId;
+    }
+
+    void addGlyph(float startX, float startY, float endX, float endY, float fontSize, int fontId, GlyphLine glyphLine) {
+        if (size == this.startX.length) {
+            int capacity = size * 2;
+            this.startX = Arrays.copyOf(this.startX, capacity);
+            this.startY = Arrays.copyOf(this.startY, capacity);
+            this.endX = Arrays.copyOf(this.endX, capacity);
+            this.endY = Arrays.copyOf(this.endY, capacity);
+            this.fontSizes = Arrays.copyOf(this.fontSizes, capacity);
+            this.fontIds = Arrays.copyOf(this.fontIds, capacity);
+            this.textOffsets = Arrays.copyOf(this.textOffsets, capacity + 1);
+        }
+        this.startX[size] = startX;
+        this.startY[size] = startY;
+        this.endX[size] = endX;
+        this.endY[size] = endY;
+        this.fontSizes[size] = fontSize;
+        this.fontIds[size] = fontId;
+
+        int textLength = textOffsets[size];
+        for (int i = glyphLine.start; i < glyphLine.end; i++) {
+            Glyph glyph = glyphLine.get(i);
+            char[] chars = glyph.getUnicodeChars();
+            if (textLength + chars.length > text.length) {
+                text = Arrays.copyOf(text, Math.max(text.length * 2, textLength + chars.length));
+            }
+            System.arraycopy(chars, 0, text, textLength, chars.length);
+            textLength += chars.length;
+        }
+        textOffsets[++size] = textLength;
+    }
+
+    /**
+     * Reads the glyphs of a {@link GlyphBuffer} one by one. The cursor doesn't create objects per glyph,
+     * unless {@link #getText()} is called.
+     */
+    public class Cursor {
+        private int index = -1;
+
+        Cursor() {
+        }
+
+        /**
+         * Moves the cursor to the next glyph.
+         *
+         * @return true if the cursor is moved to a glyph, false if there are no more glyphs
+         */
+        public boolean next() {
+            if (index < size) {
+                ++index;
+            }
+            return index < size;
+        }
+
+        /**
+         * Moves the cursor to the glyph with the given index.
+         *
+         * @param index the index of the glyph, from 0 to {@link GlyphBuffer#size()} exclusive
+         */
+        public void moveTo(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+            }
+            this.index = index;
+        }
+
+        /**
+         * Gets the index of the current glyph.
+         *
+         * @return the index of the glyph in the buffer
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets the x coordinate of the start of the glyph baseline in user space.
+         *
+         * @return the x coordinate of the baseline start point
+         */
+        public float getStartX() {
+            return startX[checkedIndex()];
+        }
+
+        /**
+         * Gets the y coordinate of the start of the glyph baseline in user space.
+         *
+         * @return the y coordinate of the baseline start point
+         */
+        public float getStartY() {
+            return startY[checkedIndex()];
+        }
+
+        /**
+         * Gets the x coordinate of the end of the glyph baseline in user space.
+         *
+         * @return the x coordinate of the baseline end point
+         */
+        public float getEndX() {
+            return endX[checkedIndex()];
+        }
+
+        /**
+         * Gets the y coordinate of the end of the glyph baseline in user space.
+         *
+         * @return the y coordinate of the baseline end point
+         */
+        public float getEndY() {
+            return endY[checkedIndex()];
+        }
+
+        /**
+         * Gets the font size transformed to user space.
+         *
+         * @return the font size in user space units
+         */
+        public float getFontSize() {
+            return fontSizes[checkedIndex()];
+        }
+
+        /**
+         * Gets the id of the font of the glyph, see {@link GlyphBuffer#getFont(int)}.
+         *
+         * @return the id of the font
+         */
+        public int getFontId() {
+            return fontIds[checkedIndex()];
+        }
+
+        /**
+         * Gets the number of the unicode chars of the glyph.
+         *
+         * @return the length of the glyph text
+         */
+        public int getTextLength() {
+            int i = checkedIndex();
+            return textOffsets[i + 1] - textOffsets[i];
+        }
+
+        /**
+         * Gets a unicode char of the glyph text.
+         *
+         * @param charIndex the index of the char, from 0 to {@link #getTextLength()} exclusive
+         * @return the char
+         */
+        public char getChar(int charIndex) {
+            if (charIndex < 0 || charIndex >= getTextLength()) {
+                throw new IndexOutOfBoundsException("Index: " + charIndex + ", length: " + getTextLength());
+            }
+            return text[textOffsets[index] + charIndex];
+        }
+
+        /**
+         * Gets the unicode text of the glyph.
+         *
+         * @return the text of the glyph, may be empty if the font has no glyph for the char code
+         */
+        public String getText() {
+            int i = checkedIndex();
+            return new String(text, textOffsets[i], textOffsets[i + 1] - textOffsets[i]);
+        }
+
+        private int checkedIndex() {
+            if (index < 0 || index >= size) {
+                throw new IllegalStateException("The cursor is not positioned on a glyph.");
+            }
+            return index;
+        }
+    }
+}
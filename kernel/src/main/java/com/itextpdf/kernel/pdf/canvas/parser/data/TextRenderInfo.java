@@ -284,6 +284,42 @@ public class TextRenderInfo extends AbstractRenderInfo {
         return rslt;
     }
 
+    /**
+     * Writes the glyphs of the text to the buffer. The glyphs are the same as the ones of
+     * {@link #getCharacterRenderInfos()}, but no {@link TextRenderInfo} is created per glyph.
+     *
+     * @param buffer the buffer to which the glyphs are added
+     */
+    void writeGlyphs(GlyphBuffer buffer) {
+        checkGraphicsState();
+        PdfFont font = gs.getFont();
+        int fontId = buffer.getFontId(font);
+        float fontSize = convertHeightFromTextSpaceToUserSpace(gs.getFontSize());
+        float horizontalScaling = gs.getHorizontalScaling() / 100f;
+        float rise = gs.getTextRise();
+        Matrix m = textToUserSpaceTransformMatrix;
+        float totalWidth = 0;
+        for (PdfString str : splitString(string)) {
+            GlyphLine glyphLine = font.decodeIntoGlyphLine(str);
+            float glyphWidth = 0;
+            for (int i = glyphLine.start; i < glyphLine.end; i++) {
+                glyphWidth += glyphLine.get(i).getWidth();
+            }
+            glyphWidth = (float) (glyphWidth * fontMatrix[0]);
+            float wordSpacing = " ".equals(str.getValue()) ? gs.getWordSpacing() : 0;
+            float width = (glyphWidth * gs.getFontSize() + gs.getCharSpacing() + wordSpacing) * horizontalScaling;
+            // the baseline doesn't include the spacing, as in getUnscaledBaselineWithOffset
+            float endOffset = totalWidth + width - (gs.getCharSpacing() + wordSpacing) * horizontalScaling;
+            buffer.addGlyph(
+                    totalWidth * m.get(Matrix.I11) + rise * m.get(Matrix.I21) + m.get(Matrix.I31),
+                    totalWidth * m.get(Matrix.I12) + rise * m.get(Matrix.I22) + m.get(Matrix.I32),
+                    endOffset * m.get(Matrix.I11) + rise * m.get(Matrix.I21) + m.get(Matrix.I31),
+                    endOffset * m.get(Matrix.I12) + rise * m.get(Matrix.I22) + m.get(Matrix.I32),
+                    fontSize, fontId, glyphLine);
+            totalWidth += width;
+        }
+    }
+
     /**
      * @return The width, in user space units, of a single space character in the current font
      */
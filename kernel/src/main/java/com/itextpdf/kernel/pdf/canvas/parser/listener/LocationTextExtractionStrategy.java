@@ -45,6 +45,7 @@ package com.itextpdf.kernel.pdf.canvas.parser.listener;
 
 import com.itextpdf.kernel.geom.LineSegment;
 import com.itextpdf.kernel.geom.Matrix;
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.kernel.geom.Vector;
 import com.itextpdf.kernel.pdf.canvas.CanvasTag;
 import com.itextpdf.kernel.pdf.canvas.parser.EventType;
@@ -78,6 +79,16 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
 
     private TextRenderInfo lastTextRenderInfo;
 
+    /**
+     * the chunks in the order of the resultant text, they are sorted once all the text is found
+     */
+    private List<TextChunk> sortedChunks;
+
+    /**
+     * the lines of the sorted chunks
+     */
+    private List<TextLine> lines;
+
     /**
      * Creates a new text extraction renderer.
      */
@@ -175,6 +186,8 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
             }
 
             lastTextRenderInfo = renderInfo;
+            sortedChunks = null;
+            lines = null;
         }
     }
 
@@ -187,9 +200,40 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
     public String getResultantText() {
         if (DUMP_STATE) dumpState();
 
-        List<TextChunk> textChunks = new ArrayList<>(locationalResult);
-        sortWithMarks(textChunks);
+        return getText(getSortedChunks());
+    }
+
+    /**
+     * Gets the text which lies in the region. The result is the same as the result of the strategy which gets
+     * only the text events accepted by {@link com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter},
+     * but the content is not parsed once again for each region: the chunks are sorted once and grouped by lines,
+     * so that only the lines which intersect the region are looked through.
+     * The chunks keep the order they have in the text of the whole content.
+     *
+     * @param region the region, the chunks whose baselines intersect it are included
+     * @return the text of the region
+     */
+    public String getResultantText(Rectangle region) {
+        List<TextChunk> sortedChunks = getSortedChunks();
+        if (lines == null) {
+            lines = TextLine.groupByLines(sortedChunks);
+        }
+        List<TextChunk> regionChunks = new ArrayList<>();
+        for (TextLine line : lines) {
+            if (line.intersects(region)) {
+                for (int i = line.start; i < line.end; i++) {
+                    Vector startPoint = sortedChunks.get(i).getLocation().getStartLocation();
+                    Vector endPoint = sortedChunks.get(i).getLocation().getEndLocation();
+                    if (region.intersectsLine(startPoint.get(Vector.I1), startPoint.get(Vector.I2), endPoint.get(Vector.I1), endPoint.get(Vector.I2))) {
+                        regionChunks.add(sortedChunks.get(i));
+                    }
+                }
+            }
+        }
+        return getText(regionChunks);
+    }
 
+    private String getText(List<TextChunk> textChunks) {
         StringBuilder sb = new StringBuilder();
         TextChunk lastChunk = null;
         for (TextChunk chunk : textChunks) {
@@ -214,6 +258,14 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
         return sb.toString();
     }
 
+    private List<TextChunk> getSortedChunks() {
+        if (sortedChunks == null) {
+            sortedChunks = new ArrayList<>(locationalResult);
+            sortWithMarks(sortedChunks);
+        }
+        return sortedChunks;
+    }
+
     /**
      * Determines if a space character should be inserted between a previous chunk and the current chunk.
      * This method is exposed as a callback so subclasses can fine time the algorithm for determining whether a space should be inserted or not.
@@ -273,34 +325,29 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
     private void sortWithMarks(List<TextChunk> textChunks) {
         Map<TextChunk, TextChunkMarks> marks = new HashMap<>();
         List<TextChunk> toSort = new ArrayList<>();
+        // the indices of the chunks which are not marks, by their perpendicular distances, built on the first mark
+        Map<Integer, List<Integer>> baseIndices = null;
 
         for (int markInd = 0; markInd < textChunks.size(); markInd++) {
             ITextChunkLocation location = textChunks.get(markInd).getLocation();
             if (location.getStartLocation().equals(location.getEndLocation())) {
-                boolean foundBaseToAttachTo = false;
-                for (int baseInd = 0; baseInd < textChunks.size(); baseInd++) {
-                    if (markInd != baseInd) {
-                        ITextChunkLocation baseLocation = textChunks.get(baseInd).getLocation();
-                        if (!baseLocation.getStartLocation().equals(baseLocation.getEndLocation()) && TextChunkLocationDefaultImp.containsMark(baseLocation, location)) {
-                            TextChunkMarks currentMarks = marks.get(textChunks.get(baseInd));
-                            if (currentMarks == null) {
-                                currentMarks = new TextChunkMarks();
-                                marks.put(textChunks.get(baseInd), currentMarks);
-                            }
-
-                            if (markInd < baseInd) {
-                                currentMarks.preceding.add(textChunks.get(markInd));
-                            } else {
-                                currentMarks.succeeding.add(textChunks.get(markInd));
-                            }
-
-                            foundBaseToAttachTo = true;
-                            break;
-                        }
-                    }
+                if (baseIndices == null) {
+                    baseIndices = groupBaseIndicesByDistPerpendicular(textChunks);
                 }
+                int baseInd = findBaseToAttachTo(textChunks, markInd, baseIndices);
+                if (baseInd >= 0) {
+                    TextChunkMarks currentMarks = marks.get(textChunks.get(baseInd));
+                    if (currentMarks == null) {
+                        currentMarks = new TextChunkMarks();
+                        marks.put(textChunks.get(baseInd), currentMarks);
+                    }
 
-                if (!foundBaseToAttachTo) {
+                    if (markInd < baseInd) {
+                        currentMarks.preceding.add(textChunks.get(markInd));
+                    } else {
+                        currentMarks.succeeding.add(textChunks.get(markInd));
+                    }
+                } else {
                     toSort.add(textChunks.get(markInd));
                 }
             } else {
@@ -340,10 +387,104 @@ public class LocationTextExtractionStrategy implements ITextExtractionStrategy {
         }
     }
 
+    private static Map<Integer, List<Integer>> groupBaseIndicesByDistPerpendicular(List<TextChunk> textChunks) {
+        Map<Integer, List<Integer>> baseIndices = new HashMap<>();
+        for (int baseInd = 0; baseInd < textChunks.size(); baseInd++) {
+            ITextChunkLocation baseLocation = textChunks.get(baseInd).getLocation();
+            if (!baseLocation.getStartLocation().equals(baseLocation.getEndLocation())) {
+                List<Integer> indices = baseIndices.get(baseLocation.distPerpendicular());
+                if (indices == null) {
+                    indices = new ArrayList<>();
+                    baseIndices.put(baseLocation.distPerpendicular(), indices);
+                }
+                indices.add(baseInd);
+            }
+        }
+        return baseIndices;
+    }
+
+    /**
+     * Finds the first chunk which contains the mark. Only the chunks with close enough perpendicular distances
+     * are looked through, so that the marks are attached without comparing each mark with all the chunks.
+     *
+     * @return the index of the chunk to attach the mark to, or -1 if there is no such chunk
+     */
+    private static int findBaseToAttachTo(List<TextChunk> textChunks, int markInd, Map<Integer, List<Integer>> baseIndices) {
+        ITextChunkLocation location = textChunks.get(markInd).getLocation();
+        int foundInd = -1;
+        int maxDeviation = TextChunkLocationDefaultImp.getMaxMarkDistPerpendicularDeviation();
+        for (int dist = location.distPerpendicular() - maxDeviation; dist <= location.distPerpendicular() + maxDeviation; dist++) {
+            List<Integer> indices = baseIndices.get(dist);
+            if (indices == null) {
+                continue;
+            }
+            for (int baseInd : indices) {
+                if (foundInd >= 0 && baseInd >= foundInd) {
+                    break;
+                }
+                if (TextChunkLocationDefaultImp.containsMark(textChunks.get(baseInd).getLocation(), location)) {
+                    foundInd = baseInd;
+                    break;
+                }
+            }
+        }
+        return foundInd;
+    }
+
     public interface ITextChunkLocationStrategy {
         ITextChunkLocation createLocation(TextRenderInfo renderInfo, LineSegment baseline);
     }
 
+    /**
+     * A range of the sorted chunks which are on the same line, together with the bounding box of their baselines.
+     */
+    private static class TextLine {
+        final int start;
+        final int end;
+        final float minX;
+        final float minY;
+        final float maxX;
+        final float maxY;
+
+        TextLine(List<TextChunk> sortedChunks, int start, int end) {
+            this.start = start;
+            this.end = end;
+            float minX = Float.MAX_VALUE;
+            float minY = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE;
+            float maxY = -Float.MAX_VALUE;
+            for (int i = start; i < end; i++) {
+                ITextChunkLocation location = sortedChunks.get(i).getLocation();
+                for (Vector point : new Vector[] {location.getStartLocation(), location.getEndLocation()}) {
+                    minX = Math.min(minX, point.get(Vector.I1));
+                    minY = Math.min(minY, point.get(Vector.I2));
+                    maxX = Math.max(maxX, point.get(Vector.I1));
+                    maxY = Math.max(maxY, point.get(Vector.I2));
+                }
+            }
+            this.minX = minX;
+            this.minY = minY;
+            this.maxX = maxX;
+            this.maxY = maxY;
+        }
+
+        static List<TextLine> groupByLines(List<TextChunk> sortedChunks) {
+            List<TextLine> lines = new ArrayList<>();
+            int start = 0;
+            for (int i = 1; i <= sortedChunks.size(); i++) {
+                if (i == sortedChunks.size() || !sortedChunks.get(i).sameLine(sortedChunks.get(i - 1))) {
+                    lines.add(new TextLine(sortedChunks, start, i));
+                    start = i;
+                }
+            }
+            return lines;
+        }
+
+        boolean intersects(Rectangle region) {
+            return minX <= region.getRight() && maxX >= region.getLeft() && minY <= region.getTop() && maxY >= region.getBottom();
+        }
+    }
+
     private static class TextChunkMarks {
         List<TextChunk> preceding = new ArrayList<>();
         List<TextChunk> succeeding = new ArrayList<>();
@@ -197,6 +197,13 @@ class TextChunkLocationDefaultImp implements ITextChunkLocation {
         return dist < -getCharSpaceWidth() || dist > getCharSpaceWidth() / 2.0f;
     }
 
+    /**
+     * Gets the maximal difference of the perpendicular distances of the chunk and the mark it may contain.
+     */
+    static int getMaxMarkDistPerpendicularDeviation() {
+        return (int) DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION;
+    }
+
     static boolean containsMark(ITextChunkLocation baseLocation, ITextChunkLocation markLocation) {
         return baseLocation.getStartLocation().get(Vector.I1) <= markLocation.getStartLocation().get(Vector.I1) && baseLocation.getEndLocation().get(Vector.I1) >= markLocation.getEndLocation().get(Vector.I1) &&
                 Math.abs(baseLocation.distPerpendicular() - markLocation.distPerpendicular()) <= DIACRITICAL_MARKS_ALLOWED_VERTICAL_DEVIATION;
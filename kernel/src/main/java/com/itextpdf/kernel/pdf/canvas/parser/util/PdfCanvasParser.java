@@ -157,7 +157,9 @@ public class PdfCanvasParser {
                 break;
             if (tokeniser.getTokenType() != PdfTokenizer.TokenType.Name)
                 tokeniser.throwError(PdfException.DictionaryKey1IsNotAName, tokeniser.getStringValue());
-            PdfName name = new PdfName(tokeniser.getStringValue());
+            PdfName name = PdfName.getStaticName(tokeniser);
+            if (name == null)
+                name = new PdfName(tokeniser.getStringValue());
             PdfObject obj = readObject();
             dic.put(name, obj);
         }
@@ -202,7 +204,8 @@ public class PdfCanvasParser {
                 PdfString str = new PdfString(tokeniser.getDecodedStringContent()).setHexWriting(tokeniser.isHexString());
                 return str;
             case Name:
-                return new PdfName(tokeniser.getByteContent());
+                PdfName name = PdfName.getStaticName(tokeniser);
+                return name != null ? name : new PdfName(tokeniser.getByteContent());
             case Number:
                 //use PdfNumber(byte[]) here, as in this case number parsing won't happen until it's needed.
                 return new PdfNumber(tokeniser.getByteContent());
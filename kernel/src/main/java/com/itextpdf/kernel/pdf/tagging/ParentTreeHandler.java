@@ -73,6 +73,12 @@ class ParentTreeHandler implements Serializable {
 
     private static final long serialVersionUID = 1593883864288316473L;
 
+    /**
+     * The minimal number of parent tree entries which are kept in memory before trying to write them out,
+     * if the entries are flushed together with pages.
+     */
+    private static final int MIN_ENTRIES_TO_FLUSH = 200;
+
     private PdfStructTreeRoot structTreeRoot;
 
     /**
@@ -97,6 +103,15 @@ class ParentTreeHandler implements Serializable {
     private Map<PdfIndirectReference, TreeMap<Integer, PdfMcr>> pageToPageMcrs;
     private Map<PdfIndirectReference, Integer> pageToStructParentsInd;
 
+    /**
+     * Indicates whether the parent tree entries of a page are created as soon as the page is flushed. In this case
+     * the marked content references of the page are released right away and the complete leaves of the parent tree
+     * are written out as soon as all the preceding entries are known, instead of being kept till the document closing.
+     */
+    private boolean flushEntriesWithPages;
+    private int notFlushedEntriesCount;
+    private int entriesToFlushThreshold = MIN_ENTRIES_TO_FLUSH;
+
     /**
      * Init ParentTreeHandler. On init the parent tree is read and stored in this instance.
      */
@@ -107,6 +122,14 @@ class ParentTreeHandler implements Serializable {
         pageToStructParentsInd = new HashMap<>();
     }
 
+    public boolean isFlushEntriesWithPages() {
+        return flushEntriesWithPages;
+    }
+
+    public void setFlushEntriesWithPages(boolean flushEntriesWithPages) {
+        this.flushEntriesWithPages = flushEntriesWithPages;
+    }
+
     /**
      * Gets a list of marked content references on page.
      */
@@ -153,6 +176,9 @@ class ParentTreeHandler implements Serializable {
         if (updateStructParentTreeEntries(page, mcrs)) {
             structTreeRoot.setModified();
         }
+        if (flushEntriesWithPages && notFlushedEntriesCount >= entriesToFlushThreshold) {
+            flushParentTreeLeaves();
+        }
     }
 
     public void savePageStructParentIndexIfNeeded(PdfPage page) {
@@ -160,6 +186,10 @@ class ParentTreeHandler implements Serializable {
         if (page.isFlushed() || pageToPageMcrs.get(indRef) == null) {
             return;
         }
+        if (flushEntriesWithPages) {
+            createParentTreeEntryForPage(page);
+            return;
+        }
         boolean hasNonObjRefMcr = false;
         for (Integer key : pageToPageMcrs.get(indRef).keySet()) {
             if (key < 0) {
@@ -306,7 +336,16 @@ class ParentTreeHandler implements Serializable {
             }
             if (mcr instanceof PdfObjRef) {
                 int structParent = keyIntoStructParentIndex((int) entry.getKey());
+                if (structParent <= parentTree.getLastFlushedKey()) {
+                    // the leaf of the parent tree which shall contain this index is already written
+                    PdfDictionary obj = ((PdfDictionary) mcr.getPdfObject()).getAsDictionary(PdfName.Obj);
+                    if (obj != null && !obj.isFlushed()) {
+                        structParent = structTreeRoot.getDocument().getNextStructParentIndex();
+                        obj.put(PdfName.StructParent, new PdfNumber(structParent));
+                    }
+                }
                 parentTree.addEntry(structParent, parentObj);
+                ++notFlushedEntriesCount;
                 res = true;
             } else {
                 // if for some reason some mcr where not registered or don't exist, we ensure that the rest
@@ -331,6 +370,7 @@ class ParentTreeHandler implements Serializable {
             }
             parentsOfPageMcrs.makeIndirect(structTreeRoot.getDocument());
             parentTree.addEntry(pageStructParentIndex, parentsOfPageMcrs);
+            ++notFlushedEntriesCount;
             res = true;
             structTreeRoot.getDocument().checkIsoConformance(parentsOfPageMcrs, IsoKey.TAG_STRUCTURE_ELEMENT);
             parentsOfPageMcrs.flush();
@@ -340,10 +380,43 @@ class ParentTreeHandler implements Serializable {
 
     private int getOrCreatePageStructParentIndex(PdfPage page) {
         int structParentIndex = page.getStructParentIndex();
-        if (structParentIndex < 0) {
+        // if the leaf of the parent tree which shall contain the index is already written, the page gets a new one
+        if (structParentIndex < 0 || structParentIndex <= parentTree.getLastFlushedKey()) {
             structParentIndex = page.getDocument().getNextStructParentIndex();
             page.getPdfObject().put(PdfName.StructParents, new PdfNumber(structParentIndex));
         }
         return structParentIndex;
     }
+
+    private void flushParentTreeLeaves() {
+        notFlushedEntriesCount -= parentTree.flushLeaves(getMinNotFlushedStructParentIndex());
+        // if the entries are blocked by a page which is not flushed yet, the next attempt is postponed
+        entriesToFlushThreshold = Math.max(MIN_ENTRIES_TO_FLUSH, notFlushedEntriesCount * 2);
+    }
+
+    /**
+     * Gets the minimal struct parent index which is already assigned but has no parent tree entry yet.
+     * Indexes assigned later are always greater than the already assigned ones.
+     */
+    private int getMinNotFlushedStructParentIndex() {
+        int minIndex = Integer.MAX_VALUE;
+        for (Map.Entry<PdfIndirectReference, TreeMap<Integer, PdfMcr>> entry : pageToPageMcrs.entrySet()) {
+            PdfObject pageObj = entry.getKey().getRefersTo();
+            if (pageObj instanceof PdfDictionary) {
+                PdfNumber structParents = ((PdfDictionary) pageObj).getAsNumber(PdfName.StructParents);
+                if (structParents != null) {
+                    minIndex = Math.min(minIndex, structParents.intValue());
+                }
+            }
+            // obj ref keys are negative, the greatest of them corresponds to the least struct parent index
+            Integer objRefKey = entry.getValue().lowerKey(0);
+            if (objRefKey != null) {
+                minIndex = Math.min(minIndex, keyIntoStructParentIndex((int) objRefKey));
+            }
+        }
+        for (Integer structParentIndex : pageToStructParentsInd.values()) {
+            minIndex = Math.min(minIndex, (int) structParentIndex);
+        }
+        return minIndex;
+    }
 }
@@ -293,6 +293,31 @@ public class PdfStructTreeRoot extends PdfObjectWrapper<PdfDictionary> implement
         getParentTreeHandler().savePageStructParentIndexIfNeeded(page);
     }
 
+    /**
+     * Checks whether the parent tree entries of the pages are created and written out together with the pages.
+     *
+     * @return true if the entries are flushed together with the pages, false if they are kept till the document closing
+     * @see #setParentTreeFlushedWithPages(boolean)
+     */
+    public boolean isParentTreeFlushedWithPages() {
+        return getParentTreeHandler().isFlushEntriesWithPages();
+    }
+
+    /**
+     * Sets whether the parent tree entries of the pages shall be created as soon as the pages are flushed.
+     * By default the marked content references of all the pages are kept in memory till the document closing,
+     * which may take a lot of memory for large tagged documents. If this mode is on, the marked content references
+     * of a page are released when the page is flushed, and the leaves of the parent tree are written out as soon as
+     * all their entries are known.
+     * <p>
+     * In this mode the marked content references of a page shall not be accessed after the page is flushed.
+     *
+     * @param flushedWithPages true to flush the parent tree entries together with the pages
+     */
+    public void setParentTreeFlushedWithPages(boolean flushedWithPages) {
+        getParentTreeHandler().setFlushEntriesWithPages(flushedWithPages);
+    }
+
     /**
      * Gets an unmodifiable collection of marked content references on page.
      *
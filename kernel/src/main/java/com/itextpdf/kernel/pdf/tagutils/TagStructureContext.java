@@ -159,6 +159,20 @@ public class TagStructureContext {
         return this;
     }
 
+    /**
+     * Sets whether the parent tree entries and the marked content references of the pages shall be written out
+     * and released from memory as soon as the pages are flushed, instead of being kept till the document closing.
+     * Use it to keep the memory consumption of large tagged documents low.
+     * Default value - false.
+     * @param flushedWithPages new value of the flag
+     * @return current {@link TagStructureContext} instance.
+     * @see PdfStructTreeRoot#setParentTreeFlushedWithPages(boolean)
+     */
+    public TagStructureContext setParentTreeFlushedWithPages(boolean flushedWithPages) {
+        document.getStructTreeRoot().setParentTreeFlushedWithPages(flushedWithPages);
+        return this;
+    }
+
     public PdfVersion getTagStructureTargetVersion() {
         return tagStructureTargetVersion;
     }
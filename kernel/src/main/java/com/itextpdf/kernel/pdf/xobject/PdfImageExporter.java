@@ -0,0 +1,589 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.xobject;
+
+import com.itextpdf.io.codec.PngWriter;
+import com.itextpdf.io.codec.TIFFConstants;
+import com.itextpdf.io.codec.TiffWriter;
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfBoolean;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNull;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.utils.OrderedTaskRunner;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Exports image XObjects to standalone image files without decoding them to pixels with AWT.
+ * <p>
+ * Every image is written in the format which needs the least conversion of the stream data:
+ * <ul>
+ * <li>{@link PdfName#DCTDecode}, {@link PdfName#JPXDecode} and {@link PdfName#JBIG2Decode} streams
+ * are written as is to jpg, jp2 and jbig2 files;</li>
+ * <li>{@link PdfName#CCITTFaxDecode} streams are wrapped into tif files without decoding;</li>
+ * <li>{@link PdfName#FlateDecode} streams whose samples can be stored as PNG are written to png files:
+ * the data compressed with a PNG predictor becomes the image data as is, other data is recompressed row by row;</li>
+ * <li>other images are written as {@link PdfImageXObject#getImageBytes(boolean)} with the extension
+ * from {@link PdfImageXObject#identifyImageFileExtension()}.</li>
+ * </ul>
+ * Since {@link PdfDocument} is not thread-safe, the stream data is read in the calling thread,
+ * while the conversion, the decoding of the images of the last kind and the writing of the files
+ * is done by the worker threads, see {@link OrderedTaskRunner}.
+ * Only a limited number of read images waits for the workers, so the memory usage doesn't grow with the document.
+ */
+public class PdfImageExporter {
+
+    private static final int IDAT_CHUNK_SIZE = 32 * 1024;
+    private static final byte[] IDAT = ByteUtils.getIsoBytes("IDAT");
+
+    private final OrderedTaskRunner taskRunner;
+
+    /**
+     * Creates a new exporter.
+     *
+     * @param threadCount the number of threads which convert and write the images, 1 means that the images
+     *                    are written in the calling thread
+     */
+    public PdfImageExporter(int threadCount) {
+        this.taskRunner = new OrderedTaskRunner(threadCount);
+    }
+
+    /**
+     * Writes the image to the stream.
+     *
+     * @param image        the image to export
+     * @param outputStream the stream to write the image file to
+     * @return the extension of the written image file: 'png', 'jpg', 'jp2', 'tif' or 'jbig2'
+     * @throws IOException if an error occurs during writing
+     */
+    public String exportImage(PdfImageXObject image, OutputStream outputStream) throws IOException {
+        ImageTask task = createTask(image);
+        task.write(outputStream);
+        return task.extension;
+    }
+
+    /**
+     * Writes all images used on the pages of the document, including the images of the form XObjects,
+     * to the files in the directory. The image used several times is written once.
+     * The files are named after the object number of the image, e.g. "image12.jpg".
+     *
+     * @param document  the document to export images from
+     * @param directory the existing directory to write the image files to
+     * @return the written files in the order of the first use of the images in the document
+     * @throws IOException if an error occurs during writing
+     */
+    public List<File> exportImages(PdfDocument document, final File directory) throws IOException {
+        final List<PdfImageXObject> images = collectImages(document);
+        final List<File> files = new ArrayList<>(images.size());
+        Iterator<FileTask> tasks = new Iterator<FileTask>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < images.size();
+            }
+
+            @Override
+            public FileTask next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                FileTask task = createFileTask(images.get(next), next, directory);
+                ++next;
+                return task;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+        taskRunner.run(tasks, new OrderedTaskRunner.IResultHandler<File>() {
+            @Override
+            public void handle(File file) {
+                files.add(file);
+            }
+        });
+        return files;
+    }
+
+    private static List<PdfImageXObject> collectImages(PdfDocument document) {
+        List<PdfImageXObject> images = new ArrayList<>();
+        Set<PdfStream> visited = Collections.newSetFromMap(new IdentityHashMap<PdfStream, Boolean>());
+        for (int i = 1; i <= document.getNumberOfPages(); ++i) {
+            collectImages(document.getPage(i).getResources().getPdfObject(), visited, images);
+        }
+        return images;
+    }
+
+    private static void collectImages(PdfDictionary resources, Set<PdfStream> visited, List<PdfImageXObject> images) {
+        PdfDictionary xObjects = resources == null ? null : resources.getAsDictionary(PdfName.XObject);
+        if (xObjects == null) {
+            return;
+        }
+        for (PdfName name : xObjects.keySet()) {
+            PdfStream xObject = xObjects.getAsStream(name);
+            if (xObject == null || !visited.add(xObject)) {
+                continue;
+            }
+            PdfName subtype = xObject.getAsName(PdfName.Subtype);
+            if (PdfName.Image.equals(subtype)) {
+                images.add(new PdfImageXObject(xObject));
+            } else if (PdfName.Form.equals(subtype)) {
+                collectImages(xObject.getAsDictionary(PdfName.Resources), visited, images);
+            }
+        }
+    }
+
+    private static FileTask createFileTask(PdfImageXObject image, int index, File directory) {
+        ImageTask task = createTask(image);
+        PdfIndirectReference reference = image.getPdfObject().getIndirectReference();
+        String name = reference != null ? "image" + reference.getObjNumber() : "image_" + (index + 1);
+        return new FileTask(task, new File(directory, name + "." + task.extension));
+    }
+
+    /**
+     * Reads the data of the image which is needed to write the image file. Called in the calling thread only.
+     */
+    private static ImageTask createTask(PdfImageXObject image) {
+        PdfStream stream = image.getPdfObject();
+        PdfName filter = getSingleFilter(stream);
+        if (PdfName.DCTDecode.equals(filter)) {
+            return new RawImageTask("jpg", stream.getBytes(false));
+        } else if (PdfName.JPXDecode.equals(filter)) {
+            return new RawImageTask("jp2", stream.getBytes(false));
+        } else if (PdfName.JBIG2Decode.equals(filter)) {
+            return new RawImageTask("jbig2", stream.getBytes(false));
+        }
+        ImageTask task = null;
+        if (PdfName.CCITTFaxDecode.equals(filter)) {
+            task = createCcittTask(stream);
+        } else if (PdfName.FlateDecode.equals(filter)) {
+            task = createPngTask(image);
+        }
+        if (task == null) {
+            PdfStream detachedStream = (PdfStream) createDetachedCopy(stream, new IdentityHashMap<PdfObject, PdfObject>());
+            task = new DecodedImageTask(image.identifyImageFileExtension(), detachedStream);
+        }
+        return task;
+    }
+
+    /**
+     * Copies the object with all the objects it refers to, so that the copy can be read without access
+     * to the document, e.g. decoded by a worker thread.
+     */
+    private static PdfObject createDetachedCopy(PdfObject object, Map<PdfObject, PdfObject> copies) {
+        if (object.isIndirectReference()) {
+            object = ((PdfIndirectReference) object).getRefersTo();
+            if (object == null) {
+                return PdfNull.PDF_NULL;
+            }
+        }
+        PdfObject copy = copies.get(object);
+        if (copy != null) {
+            return copy;
+        }
+        if (object.isDictionary() || object.isStream()) {
+            PdfDictionary dictionary = (PdfDictionary) object;
+            PdfDictionary dictionaryCopy = object.isStream()
+                    ? new PdfStream(((PdfStream) object).getBytes(false)) : new PdfDictionary();
+            copies.put(object, dictionaryCopy);
+            for (PdfName key : dictionary.keySet()) {
+                dictionaryCopy.put(key, createDetachedCopy(dictionary.get(key, false), copies));
+            }
+            copy = dictionaryCopy;
+        } else if (object.isArray()) {
+            PdfArray array = (PdfArray) object;
+            PdfArray arrayCopy = new PdfArray();
+            copies.put(object, arrayCopy);
+            for (int i = 0; i < array.size(); ++i) {
+                arrayCopy.add(createDetachedCopy(array.get(i, false), copies));
+            }
+            copy = arrayCopy;
+        } else {
+            copy = object.clone();
+            copies.put(object, copy);
+        }
+        return copy;
+    }
+
+    private static ImageTask createCcittTask(PdfStream stream) {
+        PdfDictionary params = getDecodeParams(stream);
+        PdfNumber width = stream.getAsNumber(PdfName.Width);
+        PdfNumber height = stream.getAsNumber(PdfName.Height);
+        PdfNumber bpc = stream.getAsNumber(PdfName.BitsPerComponent);
+        boolean mask = PdfBoolean.TRUE.equals(stream.getAsBoolean(PdfName.ImageMask));
+        if (width == null || height == null || width.intValue() != getInt(params, PdfName.Columns, 1728)
+                || getBoolean(params, PdfName.EncodedByteAlign)
+                || !(mask || PdfName.DeviceGray.equals(stream.get(PdfName.ColorSpace)))
+                || bpc != null && bpc.intValue() != 1) {
+            return null;
+        }
+        // the photometric interpretation defines how the coded black and white are displayed
+        boolean invertedColors = getBoolean(params, PdfName.BlackIs1) != isInvertedDecode(stream.getAsArray(PdfName.Decode));
+        return new CcittTiffTask(stream.getBytes(false), width.intValue(), height.intValue(),
+                getInt(params, PdfName.K, 0), invertedColors);
+    }
+
+    private static ImageTask createPngTask(PdfImageXObject image) {
+        if (!image.preparePngParameters()) {
+            return null;
+        }
+        PdfStream stream = image.getPdfObject();
+        // mirrors the handling of the decode array by getImageBytes
+        boolean invert = image.getPngBitDepth() == 1 && isInvertedDecode(stream.getAsArray(PdfName.Decode));
+        PdfDictionary params = getDecodeParams(stream);
+        int predictor = getInt(params, PdfName.Predictor, 1);
+        byte[] bytes = stream.getBytes(false);
+        boolean predicted = predictor >= 10;
+        if (predicted) {
+            int colors = image.getPngColorType() == 2 ? 3 : 1;
+            if (invert || getInt(params, PdfName.Colors, 1) != colors
+                    || getInt(params, PdfName.BitsPerComponent, 8) != image.getPngBitDepth()
+                    || getInt(params, PdfName.Columns, 1) != (int) image.getWidth() || !hasZlibHeader(bytes)) {
+                return null;
+            }
+        } else if (predictor != 1) {
+            return null;
+        }
+        return new PngTask(bytes, predicted, invert, (int) image.getWidth(), (int) image.getHeight(),
+                image.getPngBitDepth(), image.getPngColorType(), image.getStride(), image.getPalette(),
+                image.getIccProfileBytes());
+    }
+
+    private static PdfName getSingleFilter(PdfStream stream) {
+        PdfObject filter = stream.get(PdfName.Filter);
+        if (filter != null && filter.isArray() && ((PdfArray) filter).size() == 1) {
+            filter = ((PdfArray) filter).get(0);
+        }
+        return filter != null && filter.isName() ? (PdfName) filter : null;
+    }
+
+    private static PdfDictionary getDecodeParams(PdfStream stream) {
+        PdfObject params = stream.get(PdfName.DecodeParms);
+        if (params != null && params.isArray() && ((PdfArray) params).size() == 1) {
+            params = ((PdfArray) params).get(0);
+        }
+        return params != null && params.isDictionary() ? (PdfDictionary) params : null;
+    }
+
+    private static int getInt(PdfDictionary params, PdfName key, int defaultValue) {
+        PdfNumber value = params == null ? null : params.getAsNumber(key);
+        return value == null ? defaultValue : value.intValue();
+    }
+
+    private static boolean getBoolean(PdfDictionary params, PdfName key) {
+        return params != null && PdfBoolean.TRUE.equals(params.getAsBoolean(key));
+    }
+
+    private static boolean isInvertedDecode(PdfArray decode) {
+        return decode != null && decode.size() >= 2 && decode.getAsNumber(0) != null && decode.getAsNumber(1) != null
+                && decode.getAsNumber(0).intValue() == 1 && decode.getAsNumber(1).intValue() == 0;
+    }
+
+    private static boolean hasZlibHeader(byte[] bytes) {
+        if (bytes.length < 2) {
+            return false;
+        }
+        int cmf = bytes[0] & 0xff;
+        int flg = bytes[1] & 0xff;
+        return (cmf & 0x0f) == 8 && (cmf << 8 | flg) % 31 == 0;
+    }
+
+    private static class FileTask implements Callable<File> {
+        private final ImageTask task;
+        private final File file;
+
+        FileTask(ImageTask task, File file) {
+            this.task = task;
+            this.file = file;
+        }
+
+        @Override
+        public File call() throws IOException {
+            OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file));
+            try {
+                task.write(outputStream);
+            } finally {
+                outputStream.close();
+            }
+            return file;
+        }
+    }
+
+    /**
+     * The data of an image read from the document, which is converted and written without access to the document.
+     */
+    private abstract static class ImageTask {
+        final String extension;
+
+        ImageTask(String extension) {
+            this.extension = extension;
+        }
+
+        abstract void write(OutputStream outputStream) throws IOException;
+    }
+
+    private static class RawImageTask extends ImageTask {
+        private final byte[] bytes;
+
+        RawImageTask(String extension, byte[] bytes) {
+            super(extension);
+            this.bytes = bytes;
+        }
+
+        @Override
+        void write(OutputStream outputStream) throws IOException {
+            outputStream.write(bytes);
+        }
+    }
+
+    private static class DecodedImageTask extends ImageTask {
+        private final PdfStream stream;
+
+        /**
+         * @param stream the copy of the image stream, which doesn't refer to the document
+         */
+        DecodedImageTask(String extension, PdfStream stream) {
+            super(extension);
+            this.stream = stream;
+        }
+
+        @Override
+        void write(OutputStream outputStream) throws IOException {
+            outputStream.write(new PdfImageXObject(stream).getImageBytes(true));
+        }
+    }
+
+    private static class CcittTiffTask extends ImageTask {
+        private final byte[] bytes;
+        private final int width;
+        private final int height;
+        private final int k;
+        private final boolean invertedColors;
+
+        CcittTiffTask(byte[] bytes, int width, int height, int k, boolean invertedColors) {
+            super("tif");
+            this.bytes = bytes;
+            this.width = width;
+            this.height = height;
+            this.k = k;
+            this.invertedColors = invertedColors;
+        }
+
+        @Override
+        void write(OutputStream outputStream) throws IOException {
+            TiffWriter wr = new TiffWriter();
+            wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_IMAGEWIDTH, width));
+            wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_IMAGELENGTH, height));
+            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_BITSPERSAMPLE, 1));
+            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_SAMPLESPERPIXEL, 1));
+            if (k < 0) {
+                wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_COMPRESSION, TIFFConstants.COMPRESSION_CCITTFAX4));
+            } else {
+                wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_COMPRESSION, TIFFConstants.COMPRESSION_CCITTFAX3));
+                wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_GROUP3OPTIONS,
+                        k > 0 ? TIFFConstants.GROUP3OPT_2DENCODING : 0));
+            }
+            wr.addField(new TiffWriter.FieldShort(TIFFConstants.TIFFTAG_PHOTOMETRIC,
+                    invertedColors ? TIFFConstants.PHOTOMETRIC_MINISBLACK : TIFFConstants.PHOTOMETRIC_MINISWHITE));
+            wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_ROWSPERSTRIP, height));
+            wr.addField(new TiffWriter.FieldImage(bytes));
+            wr.addField(new TiffWriter.FieldLong(TIFFConstants.TIFFTAG_STRIPBYTECOUNTS, bytes.length));
+            wr.writeFile(outputStream);
+        }
+    }
+
+    private static class PngTask extends ImageTask {
+        private final byte[] bytes;
+        private final boolean predicted;
+        private final boolean invert;
+        private final int width;
+        private final int height;
+        private final int bitDepth;
+        private final int colorType;
+        private final int stride;
+        private final byte[] palette;
+        private final byte[] icc;
+
+        PngTask(byte[] bytes, boolean predicted, boolean invert, int width, int height, int bitDepth, int colorType,
+                int stride, byte[] palette, byte[] icc) {
+            super("png");
+            this.bytes = bytes;
+            this.predicted = predicted;
+            this.invert = invert;
+            this.width = width;
+            this.height = height;
+            this.bitDepth = bitDepth;
+            this.colorType = colorType;
+            this.stride = stride;
+            this.palette = palette;
+            this.icc = icc;
+        }
+
+        @Override
+        void write(OutputStream outputStream) throws IOException {
+            PngWriter png = new PngWriter(outputStream);
+            png.writeHeader(width, height, bitDepth, colorType);
+            if (icc != null) {
+                png.writeIccProfile(icc);
+            }
+            if (palette != null) {
+                png.writePalette(palette);
+            }
+            IdatOutputStream idat = new IdatOutputStream(png);
+            if (predicted) {
+                // the rows compressed with a PNG predictor are already PNG image data
+                idat.write(bytes);
+                idat.close();
+            } else {
+                InputStream samples = new InflaterInputStream(new ByteArrayInputStream(bytes));
+                DeflaterOutputStream zip = new DeflaterOutputStream(idat);
+                try {
+                    byte[] row = new byte[stride];
+                    for (int y = 0; y < height; ++y) {
+                        readRow(samples, row);
+                        if (invert) {
+                            for (int i = 0; i < row.length; ++i) {
+                                row[i] ^= 0xff;
+                            }
+                        }
+                        zip.write(0);
+                        zip.write(row);
+                    }
+                } finally {
+                    samples.close();
+                    zip.close();
+                }
+            }
+            png.writeEnd();
+        }
+
+        private static void readRow(InputStream samples, byte[] row) throws IOException {
+            int length = 0;
+            while (length < row.length) {
+                int read = samples.read(row, length, row.length - length);
+                if (read < 0) {
+                    // the stream is shorter than the image, the rest of the image is filled with zeros
+                    Arrays.fill(row, length, row.length, (byte) 0);
+                    return;
+                }
+                length += read;
+            }
+        }
+    }
+
+    /**
+     * Splits the compressed image data into IDAT chunks of limited size, so that the whole compressed image
+     * is never buffered. The last chunk is written on closing, the underlying stream is not closed.
+     */
+    private static class IdatOutputStream extends OutputStream {
+        private final PngWriter png;
+        private final byte[] buffer = new byte[IDAT_CHUNK_SIZE];
+        private int count;
+
+        IdatOutputStream(PngWriter png) {
+            this.png = png;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (count == buffer.length) {
+                writeChunk();
+            }
+            buffer[count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (count == buffer.length) {
+                    writeChunk();
+                }
+                int length = Math.min(len, buffer.length - count);
+                System.arraycopy(b, off, buffer, count, length);
+                count += length;
+                off += length;
+                len -= length;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (count > 0) {
+                writeChunk();
+            }
+        }
+
+        private void writeChunk() throws IOException {
+            png.writeChunk(IDAT, count == buffer.length ? buffer : Arrays.copyOf(buffer, count));
+            count = 0;
+        }
+    }
+}
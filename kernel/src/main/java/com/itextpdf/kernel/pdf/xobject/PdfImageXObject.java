@@ -320,6 +320,37 @@ public class PdfImageXObject extends PdfXObject {
         return this;
     }
 
+    /**
+     * Resolves the color space of the image and checks whether the decoded image samples can be stored
+     * in a PNG image without conversion. The PNG parameters of the image are available afterwards.
+     *
+     * @return true if the decoded samples can be written as PNG image data
+     */
+    boolean preparePngParameters() {
+        prepareAndFindColorspace(getPdfObject().get(PdfName.ColorSpace));
+        return pngColorType >= 0;
+    }
+
+    int getPngColorType() {
+        return pngColorType;
+    }
+
+    int getPngBitDepth() {
+        return pngBitDepth;
+    }
+
+    int getStride() {
+        return stride;
+    }
+
+    byte[] getPalette() {
+        return palette;
+    }
+
+    byte[] getIccProfileBytes() {
+        return icc;
+    }
+
     private static PdfStream createPdfStream(ImageData image, PdfImageXObject imageMask) {
         PdfStream stream;
         if (image.getOriginalType() == ImageType.RAW) {
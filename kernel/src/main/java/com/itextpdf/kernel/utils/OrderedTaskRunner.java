@@ -0,0 +1,169 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.kernel.PdfException;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs tasks in a fixed number of threads and passes their results to the calling thread
+ * in the order in which the tasks are created.
+ * <p>
+ * The tasks are created in the calling thread, so they may read the data of a {@link com.itextpdf.kernel.pdf.PdfDocument},
+ * which is not thread-safe, while the tasks themselves shall not access the document.
+ * Only a limited number of tasks are created ahead of the handled results, so the memory usage
+ * doesn't depend on the number of tasks.
+ * <p>
+ * This class is a helper class for internal usage only.
+ * Be aware that it's API and functionality may be changed in future.
+ */
+public class OrderedTaskRunner {
+
+    private final int threadCount;
+
+    /**
+     * Creates a new runner.
+     *
+     * @param threadCount the number of threads which run the tasks, 1 means that the tasks are run
+     *                    in the calling thread
+     */
+    public OrderedTaskRunner(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count shall be positive.");
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Gets the number of threads which run the tasks.
+     *
+     * @return the number of threads
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Runs all the tasks and handles their results. If a task fails, the results of the previous tasks are handled
+     * and the exception of the task is rethrown: {@link RuntimeException} and {@link IOException} as is,
+     * other exceptions wrapped into {@link PdfException}.
+     *
+     * @param tasks   the tasks, {@link Iterator#next()} is called in the calling thread
+     * @param handler the handler of the results, called in the calling thread
+     * @param <T>     the type of the results
+     * @throws IOException if a task or the handler throws it
+     */
+    public <T> void run(Iterator<? extends Callable<T>> tasks, IResultHandler<T> handler) throws IOException {
+        if (threadCount == 1) {
+            while (tasks.hasNext()) {
+                T result;
+                try {
+                    result = tasks.next().call();
+                } catch (Exception e) {
+                    throw rethrow(e);
+                }
+                handler.handle(result);
+            }
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            int maxPendingTasks = 2 * threadCount;
+            Deque<Future<T>> pending = new ArrayDeque<>(maxPendingTasks);
+            while (tasks.hasNext() || !pending.isEmpty()) {
+                while (tasks.hasNext() && pending.size() < maxPendingTasks) {
+                    pending.addLast(executor.submit(tasks.next()));
+                }
+                handler.handle(getResult(pending.removeFirst()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.UnknownPdfException, e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static <T> T getResult(Future<T> future) throws InterruptedException, IOException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    private static PdfException rethrow(Throwable cause) throws IOException {
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        }
+        return new PdfException(PdfException.UnknownPdfException, cause);
+    }
+
+    /**
+     * Handles the results of the tasks in the calling thread.
+     *
+     * @param <T> the type of the results
+     */
+    public interface IResultHandler<T> {
+
+        /**
+         * Handles the result of the next task.
+         *
+         * @param result the result of the task
+         * @throws IOException if an error occurs during handling
+         */
+        void handle(T result) throws IOException;
+    }
+}
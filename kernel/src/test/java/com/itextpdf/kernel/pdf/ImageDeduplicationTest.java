@@ -0,0 +1,193 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.HashSet;
+import java.util.Set;
+
+@Category(IntegrationTest.class)
+public class ImageDeduplicationTest extends ExtendedITextTest {
+
+    @Test
+    public void sameImageIsWrittenOnceTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties().useImageDeduplication(), 3);
+        Assert.assertEquals(1, getImageObjectNumbers(pdf).size());
+    }
+
+    @Test
+    public void imagesAreNotDeduplicatedByDefaultTest() throws IOException {
+        byte[] pdf = createDocument(new WriterProperties(), 3);
+        Assert.assertEquals(3, getImageObjectNumbers(pdf).size());
+    }
+
+    @Test
+    public void differentImagesAreNotDeduplicatedTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos, new WriterProperties().useImageDeduplication()));
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        canvas.addImage(createImage((byte) 1), 0, 0, false);
+        canvas.addImage(createImage((byte) 2), 100, 0, false);
+        document.close();
+        Assert.assertEquals(2, getImageObjectNumbers(baos.toByteArray()).size());
+    }
+
+    @Test
+    public void encodedImageIsSharedBetweenDocumentsTest() throws IOException {
+        ImageXObjectCache cache = new ImageXObjectCache();
+        byte[] first = createDocument(new WriterProperties().setImageXObjectCache(cache), 2);
+        byte[] second = createDocument(new WriterProperties().setImageXObjectCache(cache), 2);
+        Assert.assertEquals(1, cache.size());
+        Assert.assertEquals(1, getImageObjectNumbers(second).size());
+
+        PdfStream firstImage = getFirstImage(new PdfDocument(new PdfReader(new ByteArrayInputStream(first))));
+        PdfStream secondImage = getFirstImage(new PdfDocument(new PdfReader(new ByteArrayInputStream(second))));
+        Assert.assertEquals(PdfName.FlateDecode, secondImage.get(PdfName.Filter));
+        Assert.assertArrayEquals(firstImage.getBytes(false), secondImage.getBytes(false));
+        Assert.assertArrayEquals(createImage((byte) 1).getData(), secondImage.getBytes());
+    }
+
+    @Test
+    public void duplicateImageIsNotRetainedTest() throws InterruptedException {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream(),
+                new WriterProperties().useImageDeduplication()));
+        document.addNewPage();
+        PdfImageXObject image = new PdfImageXObject(createImage((byte) 1));
+        Assert.assertSame(image, document.getDeduplicatedImage(image));
+        Assert.assertSame(image, document.getDeduplicatedImage(image));
+
+        PdfImageXObject duplicate = new PdfImageXObject(createImage((byte) 1));
+        WeakReference<PdfStream> duplicateStream = new WeakReference<>(duplicate.getPdfObject());
+        Assert.assertSame(image, document.getDeduplicatedImage(duplicate));
+        duplicate = null;
+        for (int i = 0; i < 20 && duplicateStream.get() != null; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        Assert.assertNull(duplicateStream.get());
+        document.close();
+    }
+
+    @Test
+    public void cachedImageDoesNotModifyGivenImageTest() {
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream(),
+                new WriterProperties().setImageXObjectCache(new ImageXObjectCache())));
+        document.addNewPage();
+        PdfImageXObject image = new PdfImageXObject(createImage((byte) 1));
+        byte[] data = image.getPdfObject().getBytes(false);
+
+        PdfImageXObject encodedImage = document.getDeduplicatedImage(image);
+        Assert.assertNotSame(image, encodedImage);
+        Assert.assertEquals(PdfName.FlateDecode, encodedImage.getPdfObject().get(PdfName.Filter));
+        Assert.assertNull(image.getPdfObject().get(PdfName.Filter));
+        Assert.assertArrayEquals(data, image.getPdfObject().getBytes(false));
+        Assert.assertSame(encodedImage, document.getDeduplicatedImage(encodedImage));
+        document.close();
+    }
+
+    @Test
+    public void cachedImageIsHashedOnceTest() {
+        ImageXObjectCache cache = new ImageXObjectCache();
+        PdfDocument document = new PdfDocument(new PdfWriter(new ByteArrayOutputStream(),
+                new WriterProperties().setImageXObjectCache(cache)));
+        document.addNewPage();
+        PdfImageXObject image = new PdfImageXObject(createImage((byte) 1));
+        PdfImageXObject encodedImage = document.getDeduplicatedImage(image);
+
+        // the changed content is not noticed, since the image is looked up by the stream instead of its content
+        image.getPdfObject().setData(createImage((byte) 2).getData());
+        Assert.assertSame(encodedImage, document.getDeduplicatedImage(image));
+        Assert.assertEquals(1, cache.size());
+        document.close();
+    }
+
+    private static byte[] createDocument(WriterProperties properties, int pages) {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos, properties));
+        for (int i = 0; i < pages; ++i) {
+            // every page gets its own ImageData instance with the same content
+            new PdfCanvas(document.addNewPage()).addImage(createImage((byte) 1), 36, 36, false);
+        }
+        document.close();
+        return baos.toByteArray();
+    }
+
+    private static ImageData createImage(byte seed) {
+        byte[] data = new byte[64 * 64 * 3];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = (byte) (i * seed);
+        }
+        return ImageDataFactory.create(64, 64, 3, 8, data, null);
+    }
+
+    private static Set<Integer> getImageObjectNumbers(byte[] pdf) throws IOException {
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(pdf)));
+        Set<Integer> objectNumbers = new HashSet<>();
+        for (int i = 1; i <= document.getNumberOfPages(); ++i) {
+            PdfDictionary xObjects = document.getPage(i).getResources().getResource(PdfName.XObject);
+            for (PdfObject xObject : xObjects.values(false)) {
+                objectNumbers.add(((PdfIndirectReference) xObject).getObjNumber());
+            }
+        }
+        document.close();
+        return objectNumbers;
+    }
+
+    private static PdfStream getFirstImage(PdfDocument document) {
+        PdfDictionary xObjects = document.getPage(1).getResources().getResource(PdfName.XObject);
+        return (PdfStream) xObjects.values().iterator().next();
+    }
+}
@@ -0,0 +1,168 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+@Category(IntegrationTest.class)
+public class PageFlushWindowTest extends ExtendedITextTest {
+
+    private static final int PAGE_COUNT = 100;
+    private static final int WINDOW = 3;
+
+    @Test
+    public void pagesOutOfWindowAreFlushedTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, new WriterProperties().setPageFlushWindow(WINDOW)));
+        PdfFormXObject sharedForm = createForm(pdfDocument);
+        int retainedObjectsCount = 0;
+        for (int i = 1; i <= PAGE_COUNT; ++i) {
+            PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+            canvas.addXObject(sharedForm, 0, 0);
+            canvas.addXObject(createForm(pdfDocument), 100, 100);
+            canvas.release();
+
+            for (int j = 1; j <= i; ++j) {
+                Assert.assertEquals("Page " + j + " of " + i, j < i - WINDOW + 1, pdfDocument.getPage(j).isFlushed());
+            }
+            Assert.assertFalse(sharedForm.getPdfObject().isFlushed());
+            if (i == 2 * WINDOW) {
+                retainedObjectsCount = pdfDocument.getRetainedObjectsCount();
+            } else if (i > 2 * WINDOW) {
+                // only the nodes of the page tree are added, one per several pages
+                Assert.assertTrue(pdfDocument.getRetainedObjectsCount() <= retainedObjectsCount + i / 10);
+            }
+        }
+        Assert.assertTrue(pdfDocument.getFlushedObjectsCount() >= 3 * (PAGE_COUNT - WINDOW));
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals(PAGE_COUNT, pdfDocument.getNumberOfPages());
+        PdfIndirectReference sharedFormReference = null;
+        for (int i = 1; i <= PAGE_COUNT; ++i) {
+            PdfDictionary xObjects = pdfDocument.getPage(i).getPdfObject().getAsDictionary(PdfName.Resources)
+                    .getAsDictionary(PdfName.XObject);
+            Assert.assertEquals(2, xObjects.size());
+            PdfIndirectReference reference = xObjects.get(new PdfName("Fm1"), false).getIndirectReference();
+            if (sharedFormReference == null) {
+                sharedFormReference = reference;
+            }
+            Assert.assertEquals(sharedFormReference, reference);
+        }
+        pdfDocument.close();
+    }
+
+    @Test
+    public void insertedPageIsNotFlushedTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, new WriterProperties().setPageFlushWindow(WINDOW)));
+        for (int i = 1; i <= 2 * WINDOW; ++i) {
+            pdfDocument.addNewPage();
+        }
+        PdfPage coverPage = pdfDocument.addNewPage(1);
+        Assert.assertFalse(coverPage.isFlushed());
+        new PdfCanvas(coverPage).rectangle(100, 100, 100, 100).fill().release();
+
+        for (int i = 1; i < WINDOW; ++i) {
+            pdfDocument.addNewPage();
+        }
+        Assert.assertFalse(coverPage.isFlushed());
+        pdfDocument.addNewPage();
+        Assert.assertTrue(coverPage.isFlushed());
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals(3 * WINDOW + 1, pdfDocument.getNumberOfPages());
+        Assert.assertTrue(pdfDocument.getPage(1).getContentBytes().length > 0);
+        pdfDocument.close();
+    }
+
+    @Test
+    public void removedPageLeavesWindowTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream(),
+                new WriterProperties().setPageFlushWindow(WINDOW)));
+        for (int i = 1; i <= WINDOW; ++i) {
+            pdfDocument.addNewPage();
+        }
+        pdfDocument.removePage(WINDOW);
+        // the removed page doesn't occupy the window, so the first page is not flushed by the next added page
+        pdfDocument.addNewPage();
+        Assert.assertFalse(pdfDocument.getPage(1).isFlushed());
+        pdfDocument.addNewPage();
+        Assert.assertTrue(pdfDocument.getPage(1).isFlushed());
+        for (int i = 2; i <= pdfDocument.getNumberOfPages(); ++i) {
+            Assert.assertFalse(pdfDocument.getPage(i).isFlushed());
+        }
+        pdfDocument.close();
+    }
+
+    @Test
+    public void pagesAreNotFlushedByDefaultTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        for (int i = 1; i <= 10; ++i) {
+            pdfDocument.addNewPage();
+        }
+        for (int i = 1; i <= 10; ++i) {
+            Assert.assertFalse(pdfDocument.getPage(i).isFlushed());
+        }
+        pdfDocument.close();
+    }
+
+    private static PdfFormXObject createForm(PdfDocument pdfDocument) {
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(50, 50));
+        new PdfCanvas(form, pdfDocument).rectangle(0, 0, 50, 50).fill().release();
+        form.makeIndirect(pdfDocument);
+        return form;
+    }
+}
@@ -0,0 +1,206 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.canvas.IPageContentProducer;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+@Category(IntegrationTest.class)
+public class ParallelPageContentGeneratorTest extends ExtendedITextTest {
+
+    private static final int PAGE_COUNT = 20;
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void pagesAreCommittedInOrderTest() throws IOException {
+        byte[] sequential = generateDocument(1);
+        byte[] parallel = generateDocument(4);
+        PdfDocument sequentialDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(sequential)));
+        PdfDocument parallelDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(parallel)));
+        Assert.assertEquals(PAGE_COUNT + 1, parallelDocument.getNumberOfPages());
+        Set<PdfIndirectReference> images = new HashSet<>();
+        for (int i = 1; i <= PAGE_COUNT + 1; ++i) {
+            String text = PdfTextExtractor.getTextFromPage(parallelDocument.getPage(i));
+            Assert.assertEquals(PdfTextExtractor.getTextFromPage(sequentialDocument.getPage(i)), text);
+            if (i > 1) {
+                Assert.assertTrue(text.contains("Page " + i));
+                Assert.assertTrue(text.contains("Form " + i));
+                PdfDictionary xObjects = parallelDocument.getPage(i).getResources().getResource(PdfName.XObject);
+                images.add(xObjects.get(new PdfName("Im1"), false).getIndirectReference());
+            }
+        }
+        // the images with the same content are deduplicated when the pages are committed
+        Assert.assertEquals(1, images.size());
+        sequentialDocument.close();
+        parallelDocument.close();
+    }
+
+    @Test
+    public void fontUsedOnlyInNestedFormTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        new ParallelPageContentGenerator(pdfDocument, 2).addPage(PageSize.A4, new IPageContentProducer() {
+            @Override
+            public void produceContent(PdfCanvas canvas, PageSize pageSize) {
+                PdfFormXObject innerForm = new PdfFormXObject(new Rectangle(100, 100));
+                PdfFormXObject outerForm = new PdfFormXObject(new Rectangle(100, 100));
+                // the inner form is added before its content is drawn
+                new PdfCanvas(outerForm, null).addXObject(innerForm, 0, 0).release();
+                try {
+                    new PdfCanvas(innerForm, null).beginText().setFontAndSize(PdfFontFactory.createFont(StandardFonts.COURIER), 12)
+                            .moveText(0, 50).showText("Form").endText().release();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                canvas.addXObject(outerForm, 36, 600);
+            }
+        }).generate();
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals("Form", PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1)));
+        pdfDocument.close();
+    }
+
+    @Test
+    public void fontUsedInFormAddedAsStreamTest() {
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage(PdfException.FontUsedInDetachedContentIsNotAddedToDocument);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream()));
+        new ParallelPageContentGenerator(pdfDocument, 2).addPage(PageSize.A4, new IPageContentProducer() {
+            @Override
+            public void produceContent(PdfCanvas canvas, PageSize pageSize) {
+                PdfFormXObject form = new PdfFormXObject(new Rectangle(100, 100));
+                try {
+                    new PdfCanvas(form, null).beginText().setFontAndSize(PdfFontFactory.createFont(StandardFonts.COURIER), 12)
+                            .showText("Form").endText().release();
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+                // the font can't be found, since the form is added without its wrapper
+                canvas.getResources().addForm(form.getPdfObject());
+            }
+        }).generate();
+    }
+
+    @Test
+    public void documentCheckingConformanceIsRejectedTest() {
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage(PdfException.PagesOfDocumentCheckingConformanceCanNotBeGeneratedInParallel);
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(new ByteArrayOutputStream())) {
+            @Override
+            protected boolean isIsoConformanceChecked() {
+                return true;
+            }
+        };
+        new ParallelPageContentGenerator(pdfDocument, 2);
+    }
+
+    @Test
+    public void threadCountShallBePositiveTest() {
+        junitExpectedException.expect(IllegalArgumentException.class);
+        new ParallelPageContentGenerator(new PdfDocument(new PdfWriter(new ByteArrayOutputStream())), 0);
+    }
+
+    private static byte[] generateDocument(int threadCount) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, new WriterProperties().useImageDeduplication()));
+        // a page drawn in the calling thread before the generated ones
+        new PdfCanvas(pdfDocument.addNewPage()).beginText().setFontAndSize(PdfFontFactory.createFont(StandardFonts.HELVETICA), 12)
+                .moveText(36, 700).showText("First").endText().release();
+        ParallelPageContentGenerator generator = new ParallelPageContentGenerator(pdfDocument, threadCount);
+        for (int i = 2; i <= PAGE_COUNT + 1; ++i) {
+            final int pageNumber = i;
+            generator.addPage(PageSize.A4, new IPageContentProducer() {
+                @Override
+                public void produceContent(PdfCanvas canvas, PageSize pageSize) {
+                    PdfFont font;
+                    try {
+                        font = PdfFontFactory.createFont(StandardFonts.TIMES_ROMAN);
+                    } catch (IOException e) {
+                        throw new RuntimeException(e);
+                    }
+                    canvas.beginText().setFontAndSize(font, 12).moveText(36, 750).showText("Page " + pageNumber).endText();
+
+                    PdfFormXObject form = new PdfFormXObject(new Rectangle(200, 50));
+                    new PdfCanvas(form, null).beginText().setFontAndSize(font, 10).moveText(0, 20)
+                            .showText("Form " + pageNumber).endText().release();
+                    canvas.addXObject(form, 36, 600);
+
+                    PdfImageXObject image = new PdfImageXObject(ImageDataFactory.create(2, 2, 1, 8, new byte[] {0, 127, (byte) 255, 64}, null));
+                    canvas.addXObject(image, new Rectangle(36, 400, 100, 100));
+                }
+            });
+        }
+        generator.generate();
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+}
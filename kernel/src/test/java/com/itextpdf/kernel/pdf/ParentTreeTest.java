@@ -42,6 +42,8 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 import com.itextpdf.io.font.constants.StandardFonts;
@@ -283,6 +285,55 @@ public class ParentTreeTest extends ExtendedITextTest {
         assertTrue(checkParentTree(outFile, cmpFile));
     }
 
+    @Test
+    public void parentTreeFlushedWithPagesTest() throws IOException, InterruptedException {
+        String outFile = destinationFolder + "parentTreeFlushedWithPagesTest.pdf";
+        String cmpFile = destinationFolder + "parentTreeNotFlushedWithPages.pdf";
+        createDocumentWithManyPages(cmpFile, false);
+        createDocumentWithManyPages(outFile, true);
+
+        assertTrue(checkParentTree(outFile, cmpFile));
+        PdfDocument document = new PdfDocument(new PdfReader(outFile));
+        PdfDictionary parentTree = document.getStructTreeRoot().getPdfObject().getAsDictionary(PdfName.ParentTree);
+        assertTrue(parentTree.containsKey(PdfName.Kids));
+        assertEquals(220, new PdfNumTree(document.getCatalog(), PdfName.ParentTree).getNumbers().size());
+        for (int i = 1; i <= document.getNumberOfPages(); ++i) {
+            assertEquals(1, document.getStructTreeRoot().getPageMarkedContentReferences(document.getPage(i)).size() - (i % 10 == 0 ? 1 : 0));
+        }
+        document.close();
+    }
+
+    private static void createDocumentWithManyPages(String outFile, boolean parentTreeFlushedWithPages) throws IOException {
+        PdfDocument document = new PdfDocument(new PdfWriter(outFile));
+        document.setTagged();
+        document.getTagStructureContext().setParentTreeFlushedWithPages(parentTreeFlushedWithPages);
+
+        PdfStructElem doc = document.getStructTreeRoot().addKid(new PdfStructElem(document, PdfName.Document));
+        for (int i = 1; i <= 200; ++i) {
+            PdfPage page = document.addNewPage();
+            PdfCanvas canvas = new PdfCanvas(page);
+            canvas.beginText();
+            canvas.setFontAndSize(PdfFontFactory.createFont(StandardFonts.COURIER), 24);
+            canvas.setTextMatrix(1, 0, 0, 1, 32, 512);
+            PdfStructElem paragraph = doc.addKid(new PdfStructElem(document, PdfName.P, page));
+            canvas.openTag(new CanvasTag(paragraph.addKid(new PdfMcrNumber(page, paragraph))));
+            canvas.showText("Page " + i);
+            canvas.closeTag();
+            canvas.endText();
+            canvas.release();
+            if (i % 10 == 0) {
+                document.getTagStructureContext().getAutoTaggingPointer().setPageForTagging(page);
+                page.addAnnotation(new PdfLinkAnnotation(new Rectangle(35, 785, 160, 15)));
+            }
+            PdfDictionary pageDict = page.getPdfObject();
+            page.flush();
+            if (parentTreeFlushedWithPages) {
+                assertNull(document.getStructTreeRoot().findMcrByMcid(pageDict, 0));
+            }
+        }
+        document.close();
+    }
+
     private boolean checkParentTree(String outFileName, String cmpFileName) throws IOException {
     	PdfReader outReader = new PdfReader(outFileName);
     	PdfDocument outDocument = new PdfDocument(outReader);
@@ -42,6 +42,7 @@
  */
 package com.itextpdf.kernel.pdf;
 
+import com.itextpdf.io.source.ByteUtils;
 import com.itextpdf.test.ITextTest;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 import com.itextpdf.test.annotations.type.UnitTest;
@@ -63,4 +64,20 @@ public class PdfNameTest extends ITextTest {
         Assert.assertEquals(str2, createStringByEscaped(name2.getInternalContent()));
     }
 
+    @Test
+    public void equalsWithoutValueGenerationTest() {
+        PdfName readName = new PdfName(ByteUtils.getIsoBytes("Custom#20Name"));
+        PdfName name = new PdfName("Custom Name");
+        Assert.assertEquals(name, readName);
+        Assert.assertEquals(readName, name);
+        Assert.assertEquals(name.hashCode(), readName.hashCode());
+        Assert.assertNotEquals(new PdfName("Custom"), readName);
+        Assert.assertNotEquals(new PdfName("Custom Name2"), readName);
+        Assert.assertNull(readName.value);
+
+        Assert.assertEquals(new PdfName("A"), new PdfName(ByteUtils.getIsoBytes("A#2")));
+        Assert.assertEquals(new PdfName("A").hashCode(), new PdfName(ByteUtils.getIsoBytes("A#2")).hashCode());
+        Assert.assertEquals("Custom Name", readName.getValue());
+    }
+
 }
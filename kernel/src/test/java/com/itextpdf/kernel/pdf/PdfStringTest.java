@@ -284,4 +284,28 @@ public class PdfStringTest extends ExtendedITextTest {
 
         Assert.assertNull(new CompareTool().compareByContent(destinationFolder + "writeUtf8ActualText.pdf", sourceFolder + "cmp_writeUtf8ActualText.pdf", destinationFolder, "diffActualText_"));
     }
+
+    @Test
+    public void lazyValueFromBytesTest() {
+        byte[] bytes = new byte[] {'a', (byte) 0xe9, '(', 0};
+        PdfString string = new PdfString(bytes);
+        Assert.assertArrayEquals(bytes, string.getValueBytes());
+        Assert.assertNotSame(bytes, string.getValueBytes());
+        Assert.assertEquals("a\u00e9(\u0000", string.toUnicodeString());
+        Assert.assertNull(string.value);
+
+        Assert.assertEquals("a\u00e9(\u0000", string.getValue());
+        Assert.assertArrayEquals(bytes, string.getValueBytes());
+        Assert.assertEquals(new PdfString("a\u00e9(\u0000"), string);
+        Assert.assertEquals("", new PdfString(new byte[0]).getValue());
+    }
+
+    @Test
+    public void givenBytesAreCopiedTest() {
+        byte[] bytes = new byte[] {'a', 'b'};
+        PdfString string = new PdfString(bytes);
+        bytes[0] = 'c';
+        Assert.assertEquals("ab", string.toUnicodeString());
+        Assert.assertEquals("ab", string.getValue());
+    }
 }
@@ -334,4 +334,69 @@ public class PdfTokenizerTest {
         tok.nextToken();
         Assert.assertTrue(tok.tokenValueEqualsTo(data.getBytes(StandardCharsets.ISO_8859_1)));
     }
+
+    @Test
+    public void intValuesTest() throws IOException {
+        String data = "0 -17 +42 2147483647 -2147483648 9223372036854775807 12 0 R";
+        RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+        PdfTokenizer tok = new PdfTokenizer(new RandomAccessFileOrArray(factory.createSource(data.getBytes(StandardCharsets.ISO_8859_1))));
+        tok.nextValidToken();
+        Assert.assertEquals(0, tok.getIntValue());
+        tok.nextValidToken();
+        Assert.assertEquals(-17, tok.getIntValue());
+        tok.nextValidToken();
+        Assert.assertEquals(42, tok.getIntValue());
+        tok.nextValidToken();
+        Assert.assertEquals(Integer.MAX_VALUE, tok.getIntValue());
+        tok.nextValidToken();
+        Assert.assertEquals(Integer.MIN_VALUE, tok.getIntValue());
+        tok.nextValidToken();
+        Assert.assertEquals(Long.MAX_VALUE, tok.getLongValue());
+        tok.nextValidToken();
+        Assert.assertSame(PdfTokenizer.TokenType.Ref, tok.getTokenType());
+        Assert.assertEquals(12, tok.getObjNr());
+        Assert.assertEquals(0, tok.getGenNr());
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void intValueOverflowTest() throws IOException {
+        RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+        PdfTokenizer tok = new PdfTokenizer(new RandomAccessFileOrArray(factory.createSource("2147483648".getBytes(StandardCharsets.ISO_8859_1))));
+        tok.nextValidToken();
+        tok.getIntValue();
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void realIntValueTest() throws IOException {
+        RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+        PdfTokenizer tok = new PdfTokenizer(new RandomAccessFileOrArray(factory.createSource("1.5".getBytes(StandardCharsets.ISO_8859_1))));
+        tok.nextValidToken();
+        tok.getIntValue();
+    }
+
+    @Test
+    public void realValuesTest() {
+        String[] values = {"0", "-0", "1.", ".5", "-116.23", "3.14159265358979", "0.1", "123456789012345", "1234567890123456789.5", "0.000000000000000000001"};
+        for (String value : values) {
+            PdfNumber number = new PdfNumber(value.getBytes(StandardCharsets.ISO_8859_1));
+            Assert.assertEquals(value, Double.parseDouble(value), number.getValue(), 0);
+        }
+        Assert.assertTrue(Double.isNaN(new PdfNumber(".".getBytes(StandardCharsets.ISO_8859_1)).getValue()));
+    }
+
+    @Test
+    public void staticNameLookupTest() throws IOException {
+        String data = "/Type /Page /NotAStaticName /Typ#65";
+        RandomAccessSourceFactory factory = new RandomAccessSourceFactory();
+        PdfTokenizer tok = new PdfTokenizer(new RandomAccessFileOrArray(factory.createSource(data.getBytes(StandardCharsets.ISO_8859_1))));
+        tok.nextValidToken();
+        Assert.assertSame(PdfName.Type, PdfName.getStaticName(tok));
+        tok.nextValidToken();
+        Assert.assertSame(PdfName.Page, PdfName.getStaticName(tok));
+        tok.nextValidToken();
+        Assert.assertNull(PdfName.getStaticName(tok));
+        tok.nextValidToken();
+        Assert.assertNull(PdfName.getStaticName(tok));
+        Assert.assertEquals(PdfName.Type.getValue(), new PdfName(tok.getByteContent()).getValue());
+    }
 }
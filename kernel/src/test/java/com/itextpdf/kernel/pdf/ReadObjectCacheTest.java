@@ -0,0 +1,130 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+@Category(IntegrationTest.class)
+public class ReadObjectCacheTest extends ExtendedITextTest {
+
+    private static final int PAGE_COUNT = 30;
+    private static final int CACHE_SIZE = 5;
+
+    @Test
+    public void readPagesWithSmallCacheTest() throws IOException {
+        readPagesWithSmallCache(false);
+    }
+
+    @Test
+    public void readPagesFromObjectStreamsWithSmallCacheTest() throws IOException {
+        readPagesWithSmallCache(true);
+    }
+
+    @Test
+    public void cacheIsNotUsedInStampingModeTest() throws IOException {
+        byte[] bytes = createDocument(false);
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(bytes), new ReaderProperties().setReadOnlyObjectCacheSize(CACHE_SIZE));
+        PdfDocument pdfDocument = new PdfDocument(reader, new PdfWriter(new ByteArrayOutputStream()));
+        Assert.assertNull(reader.readObjectCache);
+        pdfDocument.close();
+    }
+
+    @Test
+    public void cacheIsNotUsedByDefaultTest() throws IOException {
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(createDocument(false)));
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        Assert.assertNull(reader.readObjectCache);
+        pdfDocument.close();
+    }
+
+    private static void readPagesWithSmallCache(boolean fullCompression) throws IOException {
+        byte[] bytes = createDocument(fullCompression);
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(bytes), new ReaderProperties().setReadOnlyObjectCacheSize(CACHE_SIZE));
+        PdfDocument pdfDocument = new PdfDocument(reader);
+        for (int pass = 0; pass < 2; ++pass) {
+            for (int i = 1; i <= PAGE_COUNT; ++i) {
+                String content = new String(pdfDocument.getPage(i).getContentBytes(), "ISO-8859-1");
+                Assert.assertTrue(content.contains("(Page " + i + ")"));
+                Assert.assertTrue(getLinkedObjectsCount(pdfDocument) <= CACHE_SIZE);
+            }
+        }
+        Assert.assertTrue(reader.readObjectCache.getUnlinkedCount() >= 2 * PAGE_COUNT - CACHE_SIZE);
+        pdfDocument.close();
+    }
+
+    private static int getLinkedObjectsCount(PdfDocument pdfDocument) {
+        int count = 0;
+        PdfXrefTable xref = pdfDocument.getXref();
+        for (int i = 1; i < xref.size(); ++i) {
+            PdfIndirectReference reference = xref.get(i);
+            if (reference != null && reference.refersTo != null && !reference.refersTo.isReleaseForbidden()) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private static byte[] createDocument(boolean fullCompression) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos, new WriterProperties().setFullCompressionMode(fullCompression)));
+        PdfFont font = PdfFontFactory.createFont(StandardFonts.HELVETICA);
+        for (int i = 1; i <= PAGE_COUNT; ++i) {
+            PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+            canvas.beginText().setFontAndSize(font, 12).moveText(36, 700).showText("Page " + i).endText();
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+}
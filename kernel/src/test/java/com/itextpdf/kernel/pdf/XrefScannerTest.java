@@ -0,0 +1,150 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf;
+
+import com.itextpdf.io.LogMessageConstant;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.source.ByteBuffer;
+import com.itextpdf.io.source.PdfTokenizer;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+@Category(IntegrationTest.class)
+public class XrefScannerTest extends ExtendedITextTest {
+
+    @Test
+    public void chunksFindTheSameCandidatesAsLinesTest() throws IOException {
+        String data = "%PDF-1.7\n1 0 obj\r\n<<>>\rendobj\r\r  \n 2 0 obj <<>> endobj\n\t3 1 obj\n"
+                + "stream 4 0 obj\nendstream\n\n   \n5      0      obj\n\0 6 0 obj\n7 0 R\n"
+                + "trailer\n<</Root 1 0 R>>\ntrailerX\n  12345678901234567890 0 obj\n8 0 obj";
+        PdfTokenizer tokens = createTokenizer(data);
+        List<long[]> expected = scanLineByLine(tokens);
+        Assert.assertEquals(8, expected.size());
+        for (int chunkSize = 1; chunkSize <= data.length(); ++chunkSize) {
+            for (int threadCount = 1; threadCount <= 3; threadCount += 2) {
+                List<XrefScanner.Candidate> candidates = new XrefScanner(tokens, threadCount, chunkSize)
+                        .scan(new XrefReconstructionReport());
+                Assert.assertEquals("Chunk size " + chunkSize, expected.size(), candidates.size());
+                for (int i = 0; i < expected.size(); ++i) {
+                    Assert.assertEquals("Chunk size " + chunkSize, expected.get(i)[0], candidates.get(i).offset);
+                    Assert.assertEquals("Chunk size " + chunkSize, expected.get(i)[1], candidates.get(i).objNr);
+                    Assert.assertEquals("Chunk size " + chunkSize, expected.get(i)[2], candidates.get(i).genNr);
+                }
+            }
+        }
+    }
+
+    @Test
+    @LogMessages(messages = @LogMessage(messageTemplate = LogMessageConstant.XREF_ERROR))
+    public void rebuildXrefReportTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        pdfDocument.addNewPage();
+        pdfDocument.addNewPage();
+        pdfDocument.close();
+        byte[] bytes = baos.toByteArray();
+        // break the offset of the cross-reference table
+        String content = new String(bytes, StandardCharsets.ISO_8859_1);
+        int startxref = content.lastIndexOf("startxref") + "startxref\n".length();
+        bytes[startxref] = (byte) (bytes[startxref] == '9' ? '1' : '9');
+
+        PdfReader reader = new PdfReader(new ByteArrayInputStream(bytes), new ReaderProperties().setXrefReconstructionThreadCount(2));
+        Assert.assertNull(reader.getXrefReconstructionReport());
+        pdfDocument = new PdfDocument(reader);
+        Assert.assertTrue(reader.hasRebuiltXref());
+        Assert.assertEquals(2, pdfDocument.getNumberOfPages());
+        pdfDocument.close();
+
+        XrefReconstructionReport report = reader.getXrefReconstructionReport();
+        Assert.assertEquals(bytes.length, report.getScannedLength());
+        Assert.assertEquals(1, report.getChunkCount());
+        Assert.assertEquals(1, report.getThreadCount());
+        Assert.assertEquals(1, report.getTrailerOffsets().size());
+        Assert.assertEquals(content.lastIndexOf("trailer"), report.getTrailerOffset());
+        Assert.assertEquals(report.getObjectHeadersCount(), report.getObjectsCount());
+        Assert.assertTrue(report.getObjectsCount() > 4);
+    }
+
+    private static PdfTokenizer createTokenizer(String data) {
+        return new PdfTokenizer(new RandomAccessFileOrArray(
+                new RandomAccessSourceFactory().createSource(data.getBytes(StandardCharsets.ISO_8859_1))));
+    }
+
+    /**
+     * Scans the file the way PdfReader did it before the scanning was split into chunks.
+     */
+    private static List<long[]> scanLineByLine(PdfTokenizer tokens) throws IOException {
+        List<long[]> candidates = new ArrayList<>();
+        tokens.seek(0);
+        ByteBuffer buffer = new ByteBuffer(24);
+        PdfTokenizer lineTokeniser = new PdfTokenizer(new RandomAccessFileOrArray(new PdfReader.ReusableRandomAccessSource(buffer)));
+        for (; ; ) {
+            long pos = tokens.getPosition();
+            buffer.reset();
+            if (!tokens.readLineSegment(buffer, true))
+                break;
+            if (buffer.get(0) == 't') {
+                if (PdfTokenizer.checkTrailer(buffer))
+                    candidates.add(new long[] {pos, -1, -1});
+            } else if (buffer.get(0) >= '0' && buffer.get(0) <= '9') {
+                int[] obj = PdfTokenizer.checkObjectStart(lineTokeniser);
+                if (obj != null)
+                    candidates.add(new long[] {pos, obj[0], obj[1]});
+            }
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,176 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.kernel.geom.Path;
+import com.itextpdf.kernel.geom.Point;
+import com.itextpdf.kernel.geom.Subpath;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants.FillingRule;
+import com.itextpdf.kernel.pdf.canvas.parser.clipper.ClipperBridge;
+import com.itextpdf.kernel.pdf.canvas.parser.clipper.DefaultClipper;
+import com.itextpdf.kernel.pdf.canvas.parser.clipper.IClipper;
+import com.itextpdf.kernel.pdf.canvas.parser.clipper.PolyTree;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class ParserGraphicsStateTest extends ExtendedITextTest {
+
+    private static final double EPS = 1e-4;
+
+    @Test
+    public void clipRectangleByRectangleTest() {
+        ParserGraphicsState gs = createGraphicsState(createRectangle(0, 0, 100, 100));
+        Path rect = createRectangle(50, 20, 100, 30);
+        Path expected = clipWithClipper(gs.getClippingPath(), rect, FillingRule.NONZERO_WINDING);
+
+        gs.clip(rect, FillingRule.NONZERO_WINDING);
+
+        assertBoundingBoxEquals(new double[] {50, 20, 100, 50}, gs.getClippingPath());
+        assertBoundingBoxEquals(getBoundingBox(expected), gs.getClippingPath());
+    }
+
+    @Test
+    public void clipRectangleByDisjointRectangleTest() {
+        ParserGraphicsState gs = createGraphicsState(createRectangle(0, 0, 100, 100));
+        gs.clip(createRectangle(100, 0, 50, 50), FillingRule.EVEN_ODD);
+
+        Assert.assertTrue(gs.getClippingPath().isEmpty());
+    }
+
+    @Test
+    public void clipPolygonByContainingRectangleTest() {
+        Path triangle = createTriangle();
+        ParserGraphicsState gs = createGraphicsState(triangle);
+        Path clippingPath = gs.getClippingPath();
+        gs.clip(createRectangle(-10, -10, 200, 200), FillingRule.NONZERO_WINDING);
+
+        Assert.assertSame(clippingPath, gs.getClippingPath());
+    }
+
+    @Test
+    public void clipPolygonByDisjointRectangleTest() {
+        ParserGraphicsState gs = createGraphicsState(createTriangle());
+        gs.clip(createRectangle(200, 200, 10, 10), FillingRule.NONZERO_WINDING);
+
+        Assert.assertTrue(gs.getClippingPath().isEmpty());
+    }
+
+    @Test
+    public void clipPolygonByOverlappingRectangleTest() {
+        ParserGraphicsState gs = createGraphicsState(createTriangle());
+        Path rect = createRectangle(0, 0, 50, 100);
+        Path expected = clipWithClipper(gs.getClippingPath(), rect, FillingRule.NONZERO_WINDING);
+
+        gs.clip(rect, FillingRule.NONZERO_WINDING);
+
+        assertBoundingBoxEquals(getBoundingBox(expected), gs.getClippingPath());
+    }
+
+    @Test
+    public void clipRectangleByPolygonTest() {
+        ParserGraphicsState gs = createGraphicsState(createRectangle(0, 0, 50, 100));
+        Path triangle = createTriangle();
+        Path expected = clipWithClipper(gs.getClippingPath(), triangle, FillingRule.EVEN_ODD);
+
+        gs.clip(triangle, FillingRule.EVEN_ODD);
+
+        assertBoundingBoxEquals(getBoundingBox(expected), gs.getClippingPath());
+    }
+
+    private static ParserGraphicsState createGraphicsState(Path clippingPath) {
+        ParserGraphicsState gs = new ParserGraphicsState();
+        gs.setClippingPath(clippingPath);
+        return gs;
+    }
+
+    private static Path createRectangle(float x, float y, float width, float height) {
+        Path path = new Path();
+        path.rectangle(x, y, width, height);
+        return path;
+    }
+
+    private static Path createTriangle() {
+        Path path = new Path();
+        path.moveTo(0, 0);
+        path.lineTo(100, 0);
+        path.lineTo(50, 100);
+        path.closeSubpath();
+        return path;
+    }
+
+    private static Path clipWithClipper(Path subject, Path clip, int fillingRule) {
+        Path closedClip = new Path(clip);
+        closedClip.closeAllSubpaths();
+        IClipper clipper = new DefaultClipper();
+        ClipperBridge.addPath(clipper, subject, IClipper.PolyType.SUBJECT);
+        ClipperBridge.addPath(clipper, closedClip, IClipper.PolyType.CLIP);
+        PolyTree resultTree = new PolyTree();
+        clipper.execute(IClipper.ClipType.INTERSECTION, resultTree, IClipper.PolyFillType.NON_ZERO, ClipperBridge.getFillType(fillingRule));
+        return ClipperBridge.convertToPath(resultTree);
+    }
+
+    private static double[] getBoundingBox(Path path) {
+        double[] bBox = new double[] {Double.MAX_VALUE, Double.MAX_VALUE, -Double.MAX_VALUE, -Double.MAX_VALUE};
+        for (Subpath subpath : path.getSubpaths()) {
+            List<Point> points = subpath.getPiecewiseLinearApproximation();
+            for (Point point : points) {
+                bBox[0] = Math.min(bBox[0], point.getX());
+                bBox[1] = Math.min(bBox[1], point.getY());
+                bBox[2] = Math.max(bBox[2], point.getX());
+                bBox[3] = Math.max(bBox[3], point.getY());
+            }
+        }
+        return bBox;
+    }
+
+    private static void assertBoundingBoxEquals(double[] expected, Path path) {
+        Assert.assertArrayEquals(expected, getBoundingBox(path), EPS);
+    }
+}
@@ -44,24 +44,36 @@ package com.itextpdf.kernel.pdf.canvas.parser;
 
 import com.itextpdf.io.LogMessageConstant;
 import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfLiteral;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ClippingPathInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
 import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.PathRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
 import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
-import com.itextpdf.kernel.pdf.PdfDocument;
-import com.itextpdf.kernel.pdf.PdfPage;
-import com.itextpdf.kernel.pdf.PdfReader;
-import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
-import com.itextpdf.test.ExtendedITextTest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Set;
 
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 
@@ -140,4 +152,53 @@ public class PdfCanvasProcessorTest extends ExtendedITextTest {
         }
     }
 
+    @Test
+    public void graphicsStatePoolingTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument document = new PdfDocument(new PdfWriter(baos));
+        PdfFont font = PdfFontFactory.createFont();
+        PdfCanvas canvas = new PdfCanvas(document.addNewPage());
+        for (int i = 0; i < 20; i++) {
+            canvas.saveState().concatMatrix(1, 0, 0, 1, 10, 30 * i).rectangle(0, 0, 300, 20).clip().newPath()
+                    .beginText().setFontAndSize(font, 10).moveText(5, 5).showText("Line " + i).endText()
+                    .restoreState();
+        }
+        canvas.release();
+        document.close();
+
+        document = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        List<String> expected = processWithGraphicsStates(document.getPage(1), false, new HashSet<ParserGraphicsState>());
+        Set<ParserGraphicsState> graphicsStates = Collections.newSetFromMap(new IdentityHashMap<ParserGraphicsState, Boolean>());
+        List<String> actual = processWithGraphicsStates(document.getPage(1), true, graphicsStates);
+        document.close();
+
+        Assert.assertEquals(20, expected.size());
+        Assert.assertEquals(expected, actual);
+        Assert.assertEquals(1, graphicsStates.size());
+    }
+
+    private static List<String> processWithGraphicsStates(PdfPage page, boolean pooling, final Set<ParserGraphicsState> graphicsStates) {
+        final List<String> texts = new ArrayList<>();
+        PdfCanvasProcessor processor = new PdfCanvasProcessor(new IEventListener() {
+            public void eventOccurred(IEventData data, EventType type) {
+                TextRenderInfo renderInfo = (TextRenderInfo) data;
+                texts.add(renderInfo.getText() + " " + renderInfo.getBaseline().getStartPoint()
+                        + " " + renderInfo.getGraphicsState().getCtm());
+            }
+
+            public Set<EventType> getSupportedEvents() {
+                return Collections.singleton(EventType.RENDER_TEXT);
+            }
+        });
+        processor.setGraphicsStatePoolingEnabled(pooling);
+        final IContentOperator showText = processor.registerContentOperator("Tj", null);
+        processor.registerContentOperator("Tj", new IContentOperator() {
+            public void invoke(PdfCanvasProcessor processor, PdfLiteral operator, List<PdfObject> operands) {
+                graphicsStates.add(processor.getGraphicsState());
+                showText.invoke(processor, operator, operands);
+            }
+        });
+        processor.processPageContent(page);
+        return texts;
+    }
 }
@@ -0,0 +1,169 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser;
+
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.FilteredTextEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.LocationTextExtractionStrategy;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class RegionRestrictedPdfCanvasProcessorTest extends ExtendedITextTest {
+
+    private static final Rectangle REGION = new Rectangle(30, 740, 200, 40);
+
+    @Test
+    public void skipContentOutsideRegionTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument())));
+        PdfPage page = pdfDocument.getPage(1);
+
+        RecordingListener fullListener = new RecordingListener();
+        new PdfCanvasProcessor(fullListener).processPageContent(page);
+        RecordingListener regionListener = new RecordingListener();
+        new RegionRestrictedPdfCanvasProcessor(regionListener, REGION).processPageContent(page);
+        pdfDocument.close();
+
+        Assert.assertEquals(5, fullListener.texts.size());
+        Assert.assertEquals(4, fullListener.imageCount);
+        Assert.assertEquals(2, fullListener.formTextCount);
+
+        List<String> expectedTexts = new ArrayList<>();
+        expectedTexts.add("Invoice 42");
+        expectedTexts.add("Form inside");
+        Assert.assertEquals(expectedTexts, regionListener.texts);
+        Assert.assertEquals(2, regionListener.imageCount);
+        Assert.assertEquals(1, regionListener.formTextCount);
+    }
+
+    @Test
+    public void extractTextFromRegionTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument())));
+        PdfPage page = pdfDocument.getPage(1);
+
+        String expected = PdfTextExtractor.getTextFromPage(page, new FilteredTextEventListener(
+                new LocationTextExtractionStrategy(), new TextRegionEventFilter(REGION)));
+        String actual = PdfTextExtractor.getTextFromPage(page, new LocationTextExtractionStrategy(), REGION);
+        pdfDocument.close();
+
+        Assert.assertEquals("Invoice 42\nForm inside", expected);
+        Assert.assertEquals(expected, actual);
+    }
+
+    private static byte[] createDocument() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        PdfFont font = PdfFontFactory.createFont();
+        PdfPage page = pdfDocument.addNewPage();
+        PdfCanvas canvas = new PdfCanvas(page);
+        canvas.beginText().setFontAndSize(font, 12).moveText(40, 760).showText("Invoice 42").endText();
+        canvas.beginText().setFontAndSize(font, 12).moveText(300, 100).showText("Total").endText();
+        canvas.beginText().setFontAndSize(font, 12).moveText(40, 500).showText("Footer").endText();
+
+        PdfFormXObject insideForm = new PdfFormXObject(new Rectangle(100, 20));
+        new PdfCanvas(insideForm, pdfDocument).beginText().setFontAndSize(font, 12).moveText(0, 5)
+                .showText("Form inside").endText().release();
+        canvas.addXObject(insideForm, 40, 742);
+        PdfFormXObject outsideForm = new PdfFormXObject(new Rectangle(100, 20));
+        new PdfCanvas(outsideForm, pdfDocument).beginText().setFontAndSize(font, 12).moveText(0, 5)
+                .showText("Form outside").endText().release();
+        canvas.addXObject(outsideForm, 300, 300);
+
+        byte[] pixels = new byte[] {(byte) 0, (byte) 127, (byte) 255, (byte) 127};
+        canvas.addImage(ImageDataFactory.create(2, 2, 1, 8, pixels, null), 180, 745, 10, true);
+        canvas.addImage(ImageDataFactory.create(2, 2, 1, 8, pixels, null), 400, 400, 10, true);
+        canvas.addImage(ImageDataFactory.create(2, 2, 1, 8, pixels, null), 200, 745, 10, false);
+        canvas.addImage(ImageDataFactory.create(2, 2, 1, 8, pixels, null), 400, 200, 10, false);
+        canvas.release();
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static class RecordingListener implements IEventListener {
+        final List<String> texts = new ArrayList<>();
+        int imageCount;
+        int formTextCount;
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            if (type == EventType.RENDER_TEXT) {
+                String text = ((TextRenderInfo) data).getText();
+                texts.add(text);
+                if (text.startsWith("Form")) {
+                    formTextCount++;
+                }
+            } else if (type == EventType.RENDER_IMAGE) {
+                imageCount++;
+            }
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return null;
+        }
+    }
+}
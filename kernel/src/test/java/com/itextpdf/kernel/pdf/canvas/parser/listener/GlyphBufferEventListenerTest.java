@@ -0,0 +1,166 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import com.itextpdf.io.font.PdfEncodings;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.LineSegment;
+import com.itextpdf.kernel.geom.Vector;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.GlyphBuffer;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@Category(IntegrationTest.class)
+public class GlyphBufferEventListenerTest extends ExtendedITextTest {
+
+    private static final String fontsFolder = "./src/test/resources/com/itextpdf/kernel/pdf/fonts/";
+
+    @Test
+    public void glyphsAreTheSameAsCharacterRenderInfosTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument())));
+        PdfPage page = pdfDocument.getPage(1);
+
+        CharacterInfoCollector collector = new CharacterInfoCollector();
+        new PdfCanvasProcessor(new GlyphEventListener(collector)).processPageContent(page);
+        GlyphBufferEventListener listener = new GlyphBufferEventListener();
+        new PdfCanvasProcessor(listener).processPageContent(page);
+        pdfDocument.close();
+
+        GlyphBuffer buffer = listener.getGlyphBuffer();
+        Assert.assertEquals(collector.characters.size(), buffer.size());
+        Assert.assertEquals(2, buffer.getFontCount());
+
+        GlyphBuffer.Cursor cursor = buffer.cursor();
+        for (TextRenderInfo character : collector.characters) {
+            Assert.assertTrue(cursor.next());
+            LineSegment baseline = character.getBaseline();
+            Assert.assertEquals(character.getText(), cursor.getText());
+            Assert.assertEquals(baseline.getStartPoint().get(Vector.I1), cursor.getStartX(), 1e-3);
+            Assert.assertEquals(baseline.getStartPoint().get(Vector.I2), cursor.getStartY(), 1e-3);
+            Assert.assertEquals(baseline.getEndPoint().get(Vector.I1), cursor.getEndX(), 1e-3);
+            Assert.assertEquals(baseline.getEndPoint().get(Vector.I2), cursor.getEndY(), 1e-3);
+            Assert.assertSame(character.getFont().getPdfObject(), buffer.getFont(cursor.getFontId()).getPdfObject());
+        }
+        Assert.assertFalse(cursor.next());
+    }
+
+    @Test
+    public void clearBufferTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument())));
+        GlyphBufferEventListener listener = new GlyphBufferEventListener();
+        new PdfCanvasProcessor(listener).processPageContent(pdfDocument.getPage(1));
+        int size = listener.getGlyphBuffer().size();
+
+        listener.getGlyphBuffer().clear();
+        Assert.assertEquals(0, listener.getGlyphBuffer().size());
+        Assert.assertFalse(listener.getGlyphBuffer().cursor().next());
+
+        new PdfCanvasProcessor(listener).processPageContent(pdfDocument.getPage(1));
+        pdfDocument.close();
+        Assert.assertEquals(size, listener.getGlyphBuffer().size());
+        GlyphBuffer.Cursor cursor = listener.getGlyphBuffer().cursor();
+        cursor.moveTo(size - 1);
+        Assert.assertEquals("t", cursor.getText());
+        Assert.assertEquals('t', cursor.getChar(0));
+        Assert.assertEquals(24, cursor.getFontSize(), 1e-3);
+    }
+
+    private static byte[] createDocument() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        PdfFont helvetica = PdfFontFactory.createFont();
+        PdfFont type0Font = PdfFontFactory.createFont(fontsFolder + "abserif4_5.ttf", PdfEncodings.IDENTITY_H);
+        PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+        canvas.beginText().setFontAndSize(helvetica, 12).moveText(40, 760).showText("Plain text").endText();
+        canvas.beginText().setFontAndSize(helvetica, 10).setCharacterSpacing(1.5f).setWordSpacing(4)
+                .setHorizontalScaling(80).setTextRise(3).moveText(40, 700).showText("Spaced out text").endText();
+        canvas.saveState().concatMatrix(0, 1, -1, 0, 300, 300);
+        canvas.beginText().setFontAndSize(type0Font, 14).moveText(0, 0).showText("Rotated text").endText();
+        canvas.restoreState();
+        canvas.saveState().concatMatrix(2, 0, 0, 2, 0, 0);
+        canvas.beginText().setFontAndSize(helvetica, 12).setCharacterSpacing(0).setWordSpacing(0)
+                .setHorizontalScaling(100).setTextRise(0).moveText(20, 100).showText("Scaled text").endText();
+        canvas.restoreState();
+        canvas.release();
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static class CharacterInfoCollector implements IEventListener {
+        final List<TextRenderInfo> characters = new ArrayList<>();
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            if (type == EventType.RENDER_TEXT) {
+                TextRenderInfo renderInfo = (TextRenderInfo) data;
+                renderInfo.preserveGraphicsState();
+                characters.add(renderInfo);
+            }
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return null;
+        }
+    }
+}
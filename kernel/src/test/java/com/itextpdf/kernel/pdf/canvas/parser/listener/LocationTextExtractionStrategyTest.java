@@ -0,0 +1,188 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.canvas.parser.listener;
+
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfTextExtractor;
+import com.itextpdf.kernel.pdf.canvas.parser.filter.TextRegionEventFilter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+@Category(IntegrationTest.class)
+public class LocationTextExtractionStrategyTest extends ExtendedITextTest {
+
+    @Test
+    public void regionTextTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createGrid())));
+        LocationTextExtractionStrategy strategy = new LocationTextExtractionStrategy();
+        String text = PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1), strategy);
+        Assert.assertTrue(text.startsWith("r0c0 r0c1 r0c2 r0c3"));
+
+        Rectangle[] regions = {
+                new Rectangle(30, 710, 60, 20),
+                new Rectangle(130, 640, 150, 70),
+                new Rectangle(0, 0, 600, 800),
+                new Rectangle(500, 100, 50, 50)
+        };
+        for (Rectangle region : regions) {
+            LocationTextExtractionStrategy filteredStrategy = new LocationTextExtractionStrategy();
+            String expected = PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1),
+                    new FilteredTextEventListener(filteredStrategy, new TextRegionEventFilter(region)));
+            Assert.assertEquals(expected, strategy.getResultantText(region));
+        }
+        Assert.assertEquals("r0c0", strategy.getResultantText(new Rectangle(30, 710, 60, 20)));
+        Assert.assertEquals("", strategy.getResultantText(new Rectangle(500, 100, 50, 50)));
+        // the whole text is not changed by the region queries
+        Assert.assertEquals(text, strategy.getResultantText());
+        pdfDocument.close();
+    }
+
+    @Test
+    public void marksAboveAndBelowBaseTest() throws IOException {
+        // the marks are attached to the chunk which contains them, no matter if they are shown before or after it
+        Assert.assertEquals("a\u0301\n\u0323b\na\u0301\u0323\n\u0301\nb", extractMarksText(new MarkedText[] {
+                new MarkedText(36, 700, "a"),
+                new MarkedText(37, 702, "\u0301"),
+                new MarkedText(37, 648, "\u0323"),
+                new MarkedText(36, 650, "b"),
+                new MarkedText(36, 600, "a"),
+                new MarkedText(38, 601, "\u0301"),
+                new MarkedText(38, 599, "\u0323"),
+                // the mark which is too high is not attached and is sorted as a separate line
+                new MarkedText(36, 550, "b"),
+                new MarkedText(37, 560, "\u0301")
+        }));
+    }
+
+    @Test
+    public void markBetweenTwoBasesTest() throws IOException {
+        // the mark lies within the allowed deviation from both the chunks, it's attached to the one shown first
+        Assert.assertEquals("b\na\u0301", extractMarksText(new MarkedText[] {
+                new MarkedText(36, 700, "a"),
+                new MarkedText(36, 703, "b"),
+                new MarkedText(37, 701.5f, "\u0301")
+        }));
+        Assert.assertEquals("b\u0301a", extractMarksText(new MarkedText[] {
+                new MarkedText(36, 703, "b"),
+                new MarkedText(36, 700, "a"),
+                new MarkedText(37, 701.5f, "\u0301")
+        }));
+        // the mark is attached to the base which contains it horizontally
+        Assert.assertEquals("ab\u0301", extractMarksText(new MarkedText[] {
+                new MarkedText(36, 700, "a"),
+                new MarkedText(46, 700, "b"),
+                new MarkedText(47, 700, "\u0301")
+        }));
+    }
+
+    private static byte[] createGrid() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+        canvas.setFontAndSize(PdfFontFactory.createFont(StandardFonts.HELVETICA), 10);
+        // the cells are shown column by column, so that the text has to be sorted
+        for (int column = 0; column < 4; column++) {
+            for (int row = 0; row < 20; row++) {
+                canvas.beginText()
+                        .moveText(36 + 100 * column, 720 - 20 * row)
+                        .showText("r" + row + "c" + column)
+                        .endText();
+            }
+        }
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static String extractMarksText(MarkedText[] texts) throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        PdfType3Font font = PdfFontFactory.createType3Font(pdfDocument, false);
+        for (char c : new char[] {'a', 'b'}) {
+            font.addGlyph(c, 600, 0, 0, 600, 600).rectangle(0, 0, 600, 600).fill();
+        }
+        // the marks have no advance, so their chunks are of zero length
+        for (char c : new char[] {'\u0301', '\u0323'}) {
+            font.addGlyph(c, 0, 0, 0, 200, 200).rectangle(0, 0, 200, 200).fill();
+        }
+        PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+        for (MarkedText text : texts) {
+            canvas.beginText()
+                    .setFontAndSize(font, 10)
+                    .moveText(text.x, text.y)
+                    .showText(text.text)
+                    .endText();
+        }
+        pdfDocument.close();
+
+        pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        String result = PdfTextExtractor.getTextFromPage(pdfDocument.getPage(1), new LocationTextExtractionStrategy());
+        pdfDocument.close();
+        return result;
+    }
+
+    private static class MarkedText {
+        final float x;
+        final float y;
+        final String text;
+
+        MarkedText(float x, float y, String text) {
+            this.x = x;
+            this.y = y;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.pdf.xobject;
+
+import com.itextpdf.io.codec.TIFFConstants;
+import com.itextpdf.io.codec.TIFFDirectory;
+import com.itextpdf.io.codec.TIFFFaxDecoder;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.source.ByteUtils;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfBoolean;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.filters.FlateDecodeFilter;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class PdfImageExporterTest extends ExtendedITextTest {
+
+    public static final String destinationFolder = "./target/test/com/itextpdf/kernel/pdf/xobject/PdfImageExporterTest/";
+
+    private static final String jpegImage = "./src/test/resources/com/itextpdf/kernel/pdf/PdfPagesTest/icon.jpg";
+    private static final String ccittDocument = "./src/test/resources/com/itextpdf/kernel/parser/PdfImageXObjectTest/ccittfaxdecode.pdf";
+
+    @BeforeClass
+    public static void beforeClass() {
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Test
+    public void exportImagesTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(new ByteArrayInputStream(createDocument())));
+        File singleThreadFolder = new File(destinationFolder, "singleThread");
+        File multiThreadFolder = new File(destinationFolder, "multiThread");
+        singleThreadFolder.mkdirs();
+        multiThreadFolder.mkdirs();
+
+        List<File> singleThreadFiles = new PdfImageExporter(1).exportImages(pdfDocument, singleThreadFolder);
+        List<File> multiThreadFiles = new PdfImageExporter(3).exportImages(pdfDocument, multiThreadFolder);
+
+        // the gray image used in the form XObject is written once
+        Assert.assertEquals(4, singleThreadFiles.size());
+        Assert.assertEquals(singleThreadFiles.size(), multiThreadFiles.size());
+        int jpegCount = 0;
+        int predictedCount = 0;
+        for (int i = 0; i < singleThreadFiles.size(); ++i) {
+            File file = singleThreadFiles.get(i);
+            Assert.assertEquals(file.getName(), multiThreadFiles.get(i).getName());
+            byte[] bytes = Files.readAllBytes(file.toPath());
+            Assert.assertArrayEquals(bytes, Files.readAllBytes(multiThreadFiles.get(i).toPath()));
+
+            String name = file.getName();
+            int objNumber = Integer.parseInt(name.substring("image".length(), name.indexOf('.')));
+            PdfImageXObject image = new PdfImageXObject((PdfStream) pdfDocument.getPdfObject(objNumber));
+            if (name.endsWith(".jpg")) {
+                Assert.assertArrayEquals(image.getPdfObject().getBytes(false), bytes);
+                ++jpegCount;
+            } else {
+                Assert.assertTrue(name.endsWith(".png"));
+                PdfStream stream = image.getPdfObject();
+                Assert.assertArrayEquals(stream.getBytes(true), decodePngSamples(bytes));
+                if (stream.getAsDictionary(PdfName.DecodeParms) != null) {
+                    // the rows compressed with the PNG predictor are written without recompression
+                    Assert.assertArrayEquals(stream.getBytes(false), getPngImageData(bytes));
+                    ++predictedCount;
+                }
+            }
+        }
+        Assert.assertEquals(1, jpegCount);
+        Assert.assertEquals(1, predictedCount);
+        pdfDocument.close();
+    }
+
+    @Test
+    public void exportCcittImageTest() throws IOException {
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(ccittDocument));
+        PdfStream stream = pdfDocument.getPage(1).getResources().getResource(PdfName.XObject)
+                .getAsStream(new PdfName("background0"));
+        // the tif file shall show the same pixels for all the ways to define the meaning of the coded black
+        for (boolean blackIs1 : new boolean[] {false, true}) {
+            for (boolean invertedDecode : new boolean[] {false, true}) {
+                PdfStream image = createCcittVariant(stream, blackIs1, invertedDecode);
+                ByteArrayOutputStream baos = new ByteArrayOutputStream();
+                String extension = new PdfImageExporter(1).exportImage(new PdfImageXObject(image), baos);
+
+                byte[] tiff = baos.toByteArray();
+                Assert.assertEquals("tif", extension);
+                Assert.assertTrue(tiff.length > image.getBytes(false).length);
+                Assert.assertArrayEquals(getBlackPixels(image), getTiffBlackPixels(tiff));
+            }
+        }
+        pdfDocument.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidThreadCountTest() {
+        new PdfImageExporter(0);
+    }
+
+    private static byte[] createDocument() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(baos));
+        PdfCanvas canvas = new PdfCanvas(pdfDocument.addNewPage());
+        canvas.addImage(ImageDataFactory.create(jpegImage), 50, 600, 100, false);
+        byte[] gray = new byte[16 * 16];
+        for (int i = 0; i < gray.length; ++i) {
+            gray[i] = (byte) i;
+        }
+        PdfImageXObject grayImage = new PdfImageXObject(ImageDataFactory.create(16, 16, 1, 8, gray, null));
+        canvas.addXObject(grayImage, 50, 400, 100);
+        canvas.release();
+
+        canvas = new PdfCanvas(pdfDocument.addNewPage());
+        PdfFormXObject form = new PdfFormXObject(new Rectangle(100, 100));
+        new PdfCanvas(form, pdfDocument).addXObject(grayImage, 0, 0, 100).release();
+        canvas.addXObject(form, 50, 400);
+        canvas.addXObject(createPredictedImage(pdfDocument), 50, 200, 100);
+        canvas.addXObject(createIndexedImage(pdfDocument), 200, 200, 100);
+        canvas.release();
+        pdfDocument.close();
+        return baos.toByteArray();
+    }
+
+    private static PdfImageXObject createPredictedImage(PdfDocument pdfDocument) throws IOException {
+        int width = 20;
+        int height = 10;
+        int bytesPerPixel = 3;
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        // not the default compression level, so that the written data can't match the data compressed once again
+        DeflaterOutputStream zip = new DeflaterOutputStream(compressed, new Deflater(Deflater.BEST_COMPRESSION));
+        byte[] previous = new byte[width * bytesPerPixel];
+        byte[] row = new byte[width * bytesPerPixel];
+        for (int y = 0; y < height; ++y) {
+            for (int x = 0; x < width; ++x) {
+                row[x * bytesPerPixel] = (byte) (x * 12);
+                row[x * bytesPerPixel + 1] = (byte) (y * 25);
+                row[x * bytesPerPixel + 2] = (byte) (128 + x * y);
+            }
+            // all the PNG filter types are used
+            int filterType = y % 5;
+            zip.write(filterType);
+            for (int i = 0; i < row.length; ++i) {
+                int a = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xff : 0;
+                int b = previous[i] & 0xff;
+                int c = i >= bytesPerPixel ? previous[i - bytesPerPixel] & 0xff : 0;
+                int predicted;
+                switch (filterType) {
+                    case 1:
+                        predicted = a;
+                        break;
+                    case 2:
+                        predicted = b;
+                        break;
+                    case 3:
+                        predicted = (a + b) / 2;
+                        break;
+                    case 4:
+                        predicted = paeth(a, b, c);
+                        break;
+                    default:
+                        predicted = 0;
+                        break;
+                }
+                zip.write((row[i] & 0xff) - predicted);
+            }
+            System.arraycopy(row, 0, previous, 0, row.length);
+        }
+        zip.close();
+
+        PdfStream stream = new PdfStream(compressed.toByteArray());
+        stream.put(PdfName.Type, PdfName.XObject);
+        stream.put(PdfName.Subtype, PdfName.Image);
+        stream.put(PdfName.Width, new PdfNumber(width));
+        stream.put(PdfName.Height, new PdfNumber(height));
+        stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+        stream.put(PdfName.ColorSpace, PdfName.DeviceRGB);
+        stream.put(PdfName.Filter, PdfName.FlateDecode);
+        stream.put(PdfName.DecodeParms, createPredictorParams(3, 8, width));
+        stream.makeIndirect(pdfDocument);
+        return new PdfImageXObject(stream);
+    }
+
+    /**
+     * Creates an image which is not converted by the exporter itself, but decoded by {@link PdfImageXObject}.
+     */
+    private static PdfImageXObject createIndexedImage(PdfDocument pdfDocument) {
+        int width = 8;
+        int height = 8;
+        StringBuilder hex = new StringBuilder();
+        for (int i = 0; i < width * height; ++i) {
+            hex.append('0').append(i % 4);
+        }
+        PdfStream stream = new PdfStream(ByteUtils.getIsoBytes(hex.append('>').toString()));
+        stream.put(PdfName.Type, PdfName.XObject);
+        stream.put(PdfName.Subtype, PdfName.Image);
+        stream.put(PdfName.Width, new PdfNumber(width));
+        stream.put(PdfName.Height, new PdfNumber(height));
+        stream.put(PdfName.BitsPerComponent, new PdfNumber(8));
+        PdfStream lookup = new PdfStream(new byte[] {0, 0, 0, (byte) 255, 0, 0, 0, (byte) 255, 0, 0, 0, (byte) 255});
+        lookup.makeIndirect(pdfDocument);
+        PdfArray colorSpace = new PdfArray();
+        colorSpace.add(PdfName.Indexed);
+        colorSpace.add(PdfName.DeviceRGB);
+        colorSpace.add(new PdfNumber(3));
+        colorSpace.add(lookup);
+        stream.put(PdfName.ColorSpace, colorSpace);
+        stream.put(PdfName.Filter, PdfName.ASCIIHexDecode);
+        stream.makeIndirect(pdfDocument);
+        return new PdfImageXObject(stream);
+    }
+
+    private static int paeth(int a, int b, int c) {
+        int p = a + b - c;
+        int pa = Math.abs(p - a);
+        int pb = Math.abs(p - b);
+        int pc = Math.abs(p - c);
+        if (pa <= pb && pa <= pc) {
+            return a;
+        }
+        return pb <= pc ? b : c;
+    }
+
+    private static PdfDictionary createPredictorParams(int colors, int bitsPerComponent, int columns) {
+        PdfDictionary decodeParams = new PdfDictionary();
+        decodeParams.put(PdfName.Predictor, new PdfNumber(15));
+        decodeParams.put(PdfName.Colors, new PdfNumber(colors));
+        decodeParams.put(PdfName.BitsPerComponent, new PdfNumber(bitsPerComponent));
+        decodeParams.put(PdfName.Columns, new PdfNumber(columns));
+        return decodeParams;
+    }
+
+    /**
+     * Gets the concatenated data of the IDAT chunks of the png file.
+     */
+    private static byte[] getPngImageData(byte[] png) {
+        ByteArrayOutputStream data = new ByteArrayOutputStream();
+        // the chunks follow the 8 bytes of the signature, each chunk is length, type, data and crc
+        int offset = 8;
+        while (offset < png.length) {
+            int length = readInt(png, offset);
+            if ("IDAT".equals(new String(png, offset + 4, 4, StandardCharsets.ISO_8859_1))) {
+                data.write(png, offset + 8, length);
+            }
+            offset += 12 + length;
+        }
+        return data.toByteArray();
+    }
+
+    /**
+     * Decodes the samples of the png file, the rows are of the same layout as the rows of a PDF image.
+     */
+    private static byte[] decodePngSamples(byte[] png) {
+        // IHDR is the first chunk
+        int width = readInt(png, 16);
+        int bitDepth = png[24];
+        int colorType = png[25];
+        byte[] predicted = FlateDecodeFilter.flateDecode(getPngImageData(png), true);
+        return FlateDecodeFilter.decodePredictor(predicted, createPredictorParams(colorType == 2 ? 3 : 1, bitDepth, width));
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return (bytes[offset] & 0xff) << 24 | (bytes[offset + 1] & 0xff) << 16
+                | (bytes[offset + 2] & 0xff) << 8 | bytes[offset + 3] & 0xff;
+    }
+
+    private static PdfStream createCcittVariant(PdfStream stream, boolean blackIs1, boolean invertedDecode) {
+        PdfStream variant = new PdfStream(stream.getBytes(false));
+        variant.putAll(stream);
+        PdfDictionary decodeParams = new PdfDictionary(stream.getAsDictionary(PdfName.DecodeParms));
+        decodeParams.put(PdfName.BlackIs1, PdfBoolean.valueOf(blackIs1));
+        variant.put(PdfName.DecodeParms, decodeParams);
+        if (invertedDecode) {
+            variant.put(PdfName.Decode, new PdfArray(new int[] {1, 0}));
+        }
+        return variant;
+    }
+
+    /**
+     * Gets the pixels of the 1-bit gray image shown in black, as 1 bits.
+     */
+    private static byte[] getBlackPixels(PdfStream image) {
+        byte[] samples = image.getBytes(true);
+        PdfArray decode = image.getAsArray(PdfName.Decode);
+        boolean invertedDecode = decode != null && decode.getAsNumber(0).intValue() == 1;
+        for (int i = 0; i < samples.length; ++i) {
+            // the sample 0 is black, unless the decode array is inverted
+            samples[i] = (byte) (invertedDecode ? samples[i] : ~samples[i]);
+        }
+        return samples;
+    }
+
+    /**
+     * Decodes the G4 tif file and gets the pixels shown in black, as 1 bits.
+     */
+    private static byte[] getTiffBlackPixels(byte[] tiff) throws IOException {
+        RandomAccessFileOrArray raf = new RandomAccessFileOrArray(new RandomAccessSourceFactory().createSource(tiff));
+        TIFFDirectory directory = new TIFFDirectory(raf, 0);
+        raf.close();
+        Assert.assertEquals(TIFFConstants.COMPRESSION_CCITTFAX4, directory.getFieldAsLong(TIFFConstants.TIFFTAG_COMPRESSION));
+        int width = (int) directory.getFieldAsLong(TIFFConstants.TIFFTAG_IMAGEWIDTH);
+        int height = (int) directory.getFieldAsLong(TIFFConstants.TIFFTAG_IMAGELENGTH);
+        int offset = (int) directory.getFieldAsLong(TIFFConstants.TIFFTAG_STRIPOFFSETS);
+        int length = (int) directory.getFieldAsLong(TIFFConstants.TIFFTAG_STRIPBYTECOUNTS);
+        byte[] pixels = new byte[(width + 7) / 8 * height];
+        // the decoder sets the bits of the coded black
+        new TIFFFaxDecoder(1, width, height).decodeT6(pixels, Arrays.copyOfRange(tiff, offset, offset + length), 0, height, 0);
+        if (directory.getFieldAsLong(TIFFConstants.TIFFTAG_PHOTOMETRIC) == TIFFConstants.PHOTOMETRIC_MINISBLACK) {
+            for (int i = 0; i < pixels.length; ++i) {
+                pixels[i] = (byte) ~pixels[i];
+            }
+        }
+        return pixels;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.kernel.utils;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@Category(UnitTest.class)
+public class OrderedTaskRunnerTest extends ExtendedITextTest {
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void resultsAreHandledInOrderTest() throws IOException {
+        for (int threadCount = 1; threadCount <= 4; ++threadCount) {
+            final List<Integer> results = new ArrayList<>();
+            new OrderedTaskRunner(threadCount).run(createTasks(50, -1).iterator(), new OrderedTaskRunner.IResultHandler<Integer>() {
+                @Override
+                public void handle(Integer result) {
+                    results.add(result);
+                }
+            });
+            Assert.assertEquals(50, results.size());
+            for (int i = 0; i < results.size(); ++i) {
+                Assert.assertEquals(i, (int) results.get(i));
+            }
+        }
+    }
+
+    @Test
+    public void resultsBeforeFailedTaskAreHandledTest() throws IOException {
+        final List<Integer> results = new ArrayList<>();
+        try {
+            new OrderedTaskRunner(3).run(createTasks(20, 7).iterator(), new OrderedTaskRunner.IResultHandler<Integer>() {
+                @Override
+                public void handle(Integer result) {
+                    results.add(result);
+                }
+            });
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("7", e.getMessage());
+        }
+        Assert.assertEquals(7, results.size());
+    }
+
+    @Test
+    public void checkedExceptionIsWrappedTest() throws IOException {
+        junitExpectedException.expect(PdfException.class);
+        Callable<Integer> task = new Callable<Integer>() {
+            @Override
+            public Integer call() throws Exception {
+                throw new Exception();
+            }
+        };
+        new OrderedTaskRunner(1).run(Collections.singletonList(task).iterator(), new OrderedTaskRunner.IResultHandler<Integer>() {
+            @Override
+            public void handle(Integer result) {
+            }
+        });
+    }
+
+    @Test
+    public void invalidThreadCountTest() {
+        junitExpectedException.expect(IllegalArgumentException.class);
+        junitExpectedException.expectMessage("Thread count shall be positive.");
+        new OrderedTaskRunner(0);
+    }
+
+    private static List<Callable<Integer>> createTasks(int count, final int failedTask) {
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            final int index = i;
+            tasks.add(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    // the tasks don't finish in the order they are submitted
+                    Thread.sleep(index % 3);
+                    if (index == failedTask) {
+                        throw new IOException(String.valueOf(index));
+                    }
+                    return index;
+                }
+            });
+        }
+        return tasks;
+    }
+}
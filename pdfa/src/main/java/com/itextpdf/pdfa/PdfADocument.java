@@ -72,6 +72,7 @@ import com.itextpdf.pdfa.checker.PdfA1Checker;
 import com.itextpdf.pdfa.checker.PdfA2Checker;
 import com.itextpdf.pdfa.checker.PdfA3Checker;
 import com.itextpdf.pdfa.checker.PdfAChecker;
+import com.itextpdf.pdfa.checker.PdfACheckerCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -194,6 +195,11 @@ public class PdfADocument extends PdfDocument {
         }
     }
 
+    @Override
+    protected boolean isIsoConformanceChecked() {
+        return true;
+    }
+
     /**
      * Gets the PdfAConformanceLevel set in the constructor or in the metadata
      * of the {@link PdfReader}.
@@ -204,6 +210,19 @@ public class PdfADocument extends PdfDocument {
         return checker.getConformanceLevel();
     }
 
+    /**
+     * Sets the cache of conformance check results which is shared with other {@link PdfADocument} instances.
+     * Resources met in several documents, like the ICC profile of the output intent, are then
+     * analyzed only once. The cache shall be set before any content is added to the document.
+     *
+     * @param checkerCache the shared cache, or null to not share check results
+     * @return this {@link PdfADocument} instance
+     */
+    public PdfADocument setCheckerCache(PdfACheckerCache checkerCache) {
+        checker.setCheckerCache(checkerCache);
+        return this;
+    }
+
     @Override
     protected void addCustomMetadataExtensions(XMPMeta xmpMeta) {
         if (this.isTagged()) {
@@ -43,7 +43,6 @@
  */
 package com.itextpdf.pdfa.checker;
 
-import com.itextpdf.io.colors.IccProfile;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.image.ImageDataFactory;
 import com.itextpdf.io.image.Jpeg2000ImageData;
@@ -227,8 +226,8 @@ public class PdfA2Checker extends PdfA1Checker {
         }
 
         if (fill != null && colorSpace instanceof PdfCieBasedCs.IccBased) {
-            byte[] iccBytes = ((PdfArray) colorSpace.getPdfObject()).getAsStream(1).getBytes();
-            if (ICC_COLOR_SPACE_CMYK.equals(IccProfile.getIccColorSpaceName(iccBytes))) {
+            PdfStream iccStream = ((PdfArray) colorSpace.getPdfObject()).getAsStream(1);
+            if (ICC_COLOR_SPACE_CMYK.equals(getIccColorSpaceName(iccStream))) {
                 if ((boolean) fill) {
                     currentFillCsIsIccBasedCMYK = true;
                 } else {
@@ -632,12 +631,12 @@ public class PdfA2Checker extends PdfA1Checker {
         }
 
         if (destOutputProfile != null) {
-            String deviceClass = IccProfile.getIccDeviceClass(((PdfStream) destOutputProfile).getBytes());
+            String deviceClass = getIccDeviceClass((PdfStream) destOutputProfile);
             if (!ICC_DEVICE_CLASS_OUTPUT_PROFILE.equals(deviceClass) && !ICC_DEVICE_CLASS_MONITOR_PROFILE.equals(deviceClass)) {
                 throw new PdfAConformanceException(PdfAConformanceException.PROFILE_STREAM_OF_OUTPUTINTENT_SHALL_BE_OUTPUT_PROFILE_PRTR_OR_MONITOR_PROFILE_MNTR);
             }
 
-            String cs = IccProfile.getIccColorSpaceName(((PdfStream) destOutputProfile).getBytes());
+            String cs = getIccColorSpaceName((PdfStream) destOutputProfile);
             if (!ICC_COLOR_SPACE_RGB.equals(cs) && !ICC_COLOR_SPACE_CMYK.equals(cs) && !ICC_COLOR_SPACE_GRAY.equals(cs)) {
                 throw new PdfAConformanceException(PdfAConformanceException.OUTPUT_INTENT_COLOR_SPACE_SHALL_BE_EITHER_GRAY_RGB_OR_CMYK);
             }
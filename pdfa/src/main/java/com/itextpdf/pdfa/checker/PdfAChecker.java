@@ -148,6 +148,21 @@ public abstract class PdfAChecker implements Serializable {
     protected Set<PdfObject> checkedObjects = new HashSet<>();
     protected Map<PdfObject, PdfColorSpace> checkedObjectsColorspace = new HashMap<>();
 
+    /**
+     * Contains the headers of the ICC profiles which were already met in the document, so that the profile
+     * streams are not decoded again every time a color of an ICC based color space is checked.
+     */
+    protected Map<PdfObject, byte[]> checkedIccProfileHeaders = new HashMap<>();
+
+    /**
+     * Indicates whether the XObjects, shadings and patterns referenced from the resources of the checked
+     * objects shall be checked as well. {@link PdfAValidator} checks every object of the file on its own,
+     * so it switches this off to avoid checking the same object several times.
+     */
+    boolean checkReferencedResources = true;
+
+    private transient PdfACheckerCache checkerCache;
+
     protected PdfAChecker(PdfAConformanceLevel conformanceLevel) {
         this.conformanceLevel = conformanceLevel;
     }
@@ -221,6 +236,26 @@ public abstract class PdfAChecker implements Serializable {
         return conformanceLevel;
     }
 
+    /**
+     * Gets the cache of check results shared with other documents.
+     *
+     * @return the cache, or null if this checker does not use a shared cache
+     */
+    public PdfACheckerCache getCheckerCache() {
+        return checkerCache;
+    }
+
+    /**
+     * Sets the cache of check results shared with other documents. Results which only depend on
+     * the content of a resource, like the properties of an ICC profile, are taken from this
+     * cache if a resource with the same content was already checked in another document.
+     *
+     * @param checkerCache the cache, or null to not share check results
+     */
+    public void setCheckerCache(PdfACheckerCache checkerCache) {
+        this.checkerCache = checkerCache;
+    }
+
     /**
      * Remembers which objects have already been checked, in order to avoid
      * redundant checks.
@@ -333,7 +368,7 @@ public abstract class PdfAChecker implements Serializable {
 
 
     protected void checkResources(PdfDictionary resources) {
-        if (resources == null)
+        if (resources == null || !checkReferencedResources)
             return;
 
         PdfDictionary xObjects = resources.getAsDictionary(PdfName.XObject);
@@ -397,6 +432,26 @@ public abstract class PdfAChecker implements Serializable {
         return false;
     }
 
+    /**
+     * Gets the color space name of the ICC profile stored in the given stream.
+     *
+     * @param iccStream the stream containing the ICC profile
+     * @return the color space name, e.g. {@link #ICC_COLOR_SPACE_RGB}
+     */
+    protected String getIccColorSpaceName(PdfStream iccStream) {
+        return IccProfile.getIccColorSpaceName(getIccProfileHeader(iccStream));
+    }
+
+    /**
+     * Gets the device class of the ICC profile stored in the given stream.
+     *
+     * @param iccStream the stream containing the ICC profile
+     * @return the device class, e.g. {@link #ICC_DEVICE_CLASS_OUTPUT_PROFILE}
+     */
+    protected String getIccDeviceClass(PdfStream iccStream) {
+        return IccProfile.getIccDeviceClass(getIccProfileHeader(iccStream));
+    }
+
     protected void checkResourcesOfAppearanceStreams(PdfDictionary appearanceStreamsDict) {
         for (PdfObject val : appearanceStreamsDict.values()) {
             if (val instanceof PdfDictionary) {
@@ -412,6 +467,15 @@ public abstract class PdfAChecker implements Serializable {
         }
     }
 
+    void setPdfAOutputIntentColorSpace(PdfDictionary catalog) {
+        PdfArray outputIntents = catalog.getAsArray(PdfName.OutputIntents);
+        if (outputIntents == null)
+            return;
+
+        PdfDictionary pdfAOutputIntent = getPdfAOutputIntent(outputIntents);
+        setCheckerOutputIntent(pdfAOutputIntent);
+    }
+
     private void checkPages(PdfDocument document) {
         for (int i = 1; i <= document.getNumberOfPages(); i++) {
             checkPage(document.getPage(i));
@@ -484,15 +548,6 @@ public abstract class PdfAChecker implements Serializable {
         return outlines;
     }
 
-    private void setPdfAOutputIntentColorSpace(PdfDictionary catalog) {
-        PdfArray outputIntents = catalog.getAsArray(PdfName.OutputIntents);
-        if (outputIntents == null)
-            return;
-
-        PdfDictionary pdfAOutputIntent = getPdfAOutputIntent(outputIntents);
-        setCheckerOutputIntent(pdfAOutputIntent);
-    }
-
     private PdfDictionary getPdfAOutputIntent(PdfArray outputIntents) {
         for (int i = 0; i < outputIntents.size(); ++i) {
             PdfName outputIntentSubtype = outputIntents.getAsDictionary(i).getAsName(PdfName.S);
@@ -508,9 +563,19 @@ public abstract class PdfAChecker implements Serializable {
         if (outputIntent != null) {
             PdfStream destOutputProfile = outputIntent.getAsStream(PdfName.DestOutputProfile);
             if (destOutputProfile != null) {
-                String intentCS = IccProfile.getIccColorSpaceName(destOutputProfile.getBytes());
+                String intentCS = getIccColorSpaceName(destOutputProfile);
                 this.pdfAOutputIntentColorSpace = intentCS;
             }
         }
     }
+
+    private byte[] getIccProfileHeader(PdfStream iccStream) {
+        byte[] header = checkedIccProfileHeaders.get(iccStream);
+        if (header == null) {
+            header = checkerCache != null ? checkerCache.getIccProfileHeader(iccStream)
+                    : PdfACheckerCache.extractIccProfileHeader(iccStream);
+            checkedIccProfileHeaders.put(iccStream, header);
+        }
+        return header;
+    }
 }
@@ -0,0 +1,202 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.pdfa.checker;
+
+import com.itextpdf.io.util.ArrayUtil;
+import com.itextpdf.io.util.LruCache;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfStream;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A cache of intermediate conformance check results which can be shared between several
+ * {@link com.itextpdf.pdfa.PdfADocument} instances, e.g. in a long-running service which produces
+ * many PDF/A documents with the same ICC profiles. Entries are keyed by a fingerprint of the
+ * encoded content of the checked resource, so identical resources from different documents
+ * share the same entry. Indirect resources are also remembered by their reference within their
+ * document, so the fingerprint of a resource is calculated only once per document.
+ * <p>
+ * The cache is thread-safe. It holds at most {@link #getMaxSize()} entries, the least recently
+ * used entries are evicted first.
+ */
+public class PdfACheckerCache {
+
+    /**
+     * The default maximal number of entries in the cache.
+     */
+    public static final int DEFAULT_MAX_SIZE = 256;
+
+    /**
+     * The number of bytes of the ICC profile header that is kept in the cache. It contains the
+     * profile size, version, device class, color space and the profile connection space.
+     */
+    static final int ICC_HEADER_LENGTH = 128;
+
+    private final LruCache<String, byte[]> iccProfileHeaders;
+
+    /**
+     * The headers of the indirect ICC profile streams by the object and generation numbers of their
+     * references. The documents are weak keys, so the entries are dropped together with the document.
+     */
+    private final Map<PdfDocument, Map<Long, byte[]>> iccProfileHeadersByReference =
+            Collections.synchronizedMap(new WeakHashMap<PdfDocument, Map<Long, byte[]>>());
+
+    /**
+     * Creates a cache with the {@link #DEFAULT_MAX_SIZE default} maximal number of entries.
+     */
+    public PdfACheckerCache() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a cache with the given maximal number of entries.
+     *
+     * @param maxSize the maximal number of entries
+     */
+    public PdfACheckerCache(int maxSize) {
+        this.iccProfileHeaders = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Gets the maximal number of entries in the cache.
+     *
+     * @return the maximal number of entries
+     */
+    public int getMaxSize() {
+        return iccProfileHeaders.getMaxSize();
+    }
+
+    /**
+     * Gets the number of entries currently stored in the cache.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return iccProfileHeaders.size();
+    }
+
+    /**
+     * Removes all entries from the cache.
+     */
+    public void clear() {
+        iccProfileHeaders.clear();
+        iccProfileHeadersByReference.clear();
+    }
+
+    /**
+     * Gets the header of the ICC profile stored in the given stream. The stream is looked up by its
+     * indirect reference first, the fingerprint of its encoded content is calculated only if the
+     * reference was not met before. The decoded stream bytes are calculated only if a profile with
+     * the same encoded content was not met before.
+     *
+     * @param iccStream the stream containing the ICC profile
+     * @return the first {@link #ICC_HEADER_LENGTH} bytes of the decoded profile, or less
+     * if the profile is shorter
+     */
+    byte[] getIccProfileHeader(PdfStream iccStream) {
+        Map<Long, byte[]> headersByReference = null;
+        Long referenceKey = null;
+        PdfIndirectReference reference = iccStream.getIndirectReference();
+        if (reference != null && reference.getDocument() != null) {
+            synchronized (iccProfileHeadersByReference) {
+                headersByReference = iccProfileHeadersByReference.get(reference.getDocument());
+                if (headersByReference == null) {
+                    headersByReference = Collections.synchronizedMap(new HashMap<Long, byte[]>());
+                    iccProfileHeadersByReference.put(reference.getDocument(), headersByReference);
+                }
+            }
+            referenceKey = ((long) reference.getObjNumber() << 32) | reference.getGenNumber();
+            byte[] header = headersByReference.get(referenceKey);
+            if (header != null) {
+                return header;
+            }
+        }
+
+        String fingerprint = getFingerprint(iccStream);
+        byte[] header = iccProfileHeaders.get(fingerprint);
+        if (header == null) {
+            header = extractIccProfileHeader(iccStream);
+            iccProfileHeaders.put(fingerprint, header);
+        }
+        if (headersByReference != null) {
+            headersByReference.put(referenceKey, header);
+        }
+        return header;
+    }
+
+    static byte[] extractIccProfileHeader(PdfStream iccStream) {
+        byte[] bytes = iccStream.getBytes();
+        return bytes.length > ICC_HEADER_LENGTH ? Arrays.copyOf(bytes, ICC_HEADER_LENGTH) : bytes;
+    }
+
+    private static String getFingerprint(PdfStream stream) {
+        MessageDigest md;
+        try {
+            md = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        // the same encoded bytes may mean different content if they are decoded differently
+        PdfObject filter = stream.get(PdfName.Filter);
+        if (filter != null) {
+            md.update(filter.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+        PdfObject decodeParms = stream.get(PdfName.DecodeParms);
+        if (decodeParms != null) {
+            md.update(decodeParms.toString().getBytes(StandardCharsets.ISO_8859_1));
+        }
+        md.update(stream.getBytes(false));
+        return ArrayUtil.toHexString(md.digest());
+    }
+}
@@ -0,0 +1,494 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.pdfa.checker;
+
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfAConformanceLevel;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfString;
+import com.itextpdf.kernel.xmp.XMPException;
+import com.itextpdf.kernel.xmp.XMPMetaFactory;
+import com.itextpdf.pdfa.PdfAConformanceException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Validates existing files against the PDF/A requirements without loading the whole document into memory.
+ * <p>
+ * Unlike {@link PdfAChecker#checkDocument(com.itextpdf.kernel.pdf.PdfCatalog)}, which walks the catalog, the pages
+ * and their resources, the validator reads the indirect objects one by one in the order they are stored in the file,
+ * applies the rules of {@link PdfA1Checker}, {@link PdfA2Checker} or {@link PdfA3Checker} to each of them and releases
+ * them right after the check. Objects packed into the same object stream are therefore checked together and
+ * read only once. Violations are passed to an {@link IPdfAViolationListener} as soon as they are found, and the
+ * validation goes on with the next check, so a single run reports all the violated requirements.
+ * <p>
+ * Only the requirements which can be checked on the objects of the file are verified: catalog and trailer entries,
+ * metadata, output intents, pages, annotations, actions, file specifications, fonts, images, form XObjects,
+ * strings, numbers and streams. The validator checks the objects and the resources, but it never parses the content
+ * streams, so the requirements to the colors, graphics state stack and inline images used by the page contents are
+ * not checked. The images are checked in the context of every resource dictionary which uses them, so e.g. the
+ * default color spaces of a page are taken into account when the color spaces of its images are checked. The images
+ * which are not used from any resource dictionary are checked without such a context.
+ * <p>
+ * The validator can be reused for several files, but it is not thread-safe.
+ */
+public class PdfAValidator {
+
+    private static final Set<PdfName> CHECKED_FONT_SUBTYPES = new HashSet<>(Arrays.asList(
+            PdfName.Type0, PdfName.Type1, PdfName.Type3, PdfName.TrueType));
+
+    private PdfAConformanceLevel conformanceLevel;
+
+    private PdfACheckerCache checkerCache;
+
+    /**
+     * Creates a validator which takes the conformance level from the metadata of the validated file.
+     */
+    public PdfAValidator() {
+    }
+
+    /**
+     * Creates a validator which checks the files against the given conformance level, whatever the level claimed
+     * in their metadata is.
+     *
+     * @param conformanceLevel the conformance level to check against
+     */
+    public PdfAValidator(PdfAConformanceLevel conformanceLevel) {
+        this.conformanceLevel = conformanceLevel;
+    }
+
+    /**
+     * Sets the cache of check results shared between the validated files.
+     *
+     * @param checkerCache the cache, or null to not share anything between the files
+     * @return this instance
+     */
+    public PdfAValidator setCheckerCache(PdfACheckerCache checkerCache) {
+        this.checkerCache = checkerCache;
+        return this;
+    }
+
+    /**
+     * Validates the file read by the given reader and collects all the found violations.
+     *
+     * @param reader PdfReader that reads the PDF file. It is closed by the validator
+     * @return the found violations, empty if the file complies with the checked requirements
+     */
+    public List<PdfAViolation> validate(PdfReader reader) {
+        final List<PdfAViolation> violations = new ArrayList<>();
+        validate(reader, new IPdfAViolationListener() {
+            @Override
+            public void onViolation(PdfAViolation violation) {
+                violations.add(violation);
+            }
+        });
+        return violations;
+    }
+
+    /**
+     * Validates the file read by the given reader and passes the found violations to the listener.
+     *
+     * @param reader   PdfReader that reads the PDF file. It is closed by the validator
+     * @param listener the listener to pass the violations to
+     * @return the number of the found violations
+     */
+    public int validate(PdfReader reader, IPdfAViolationListener listener) {
+        CountingListener countingListener = new CountingListener(listener);
+        PdfDocument document = new PdfDocument(reader);
+        try {
+            PdfAConformanceLevel level = conformanceLevel != null ? conformanceLevel : getConformanceLevel(document);
+            if (level == null) {
+                countingListener.onViolation(new PdfAViolation(0, 0, new PdfAConformanceException(
+                        PdfAConformanceException.DOCUMENT_TO_READ_FROM_SHALL_BE_A_PDFA_CONFORMANT_FILE_WITH_VALID_XMP_METADATA)));
+                return countingListener.count;
+            }
+            PdfAChecker checker = createChecker(level);
+            checker.setCheckerCache(checkerCache);
+            checker.checkReferencedResources = false;
+
+            checkDocumentLevelRequirements(checker, document, countingListener);
+            ImageUsages imageUsages = new ImageUsages();
+            for (PdfIndirectReference reference : getReferencesInFileOrder(document)) {
+                checkIndirectObject(checker, reference, imageUsages, countingListener);
+            }
+            for (PdfIndirectReference imageReference : imageUsages.imagesWithoutContext) {
+                if (!imageUsages.imagesCheckedInContext.contains(imageReference)) {
+                    checkImage(checker, imageReference, null, countingListener);
+                }
+            }
+            PdfIndirectReference catalogReference = document.getCatalog().getPdfObject().getIndirectReference();
+            try {
+                checker.checkColorsUsages();
+            } catch (RuntimeException e) {
+                countingListener.onViolation(new PdfAViolation(catalogReference.getObjNumber(), catalogReference.getGenNumber(), e));
+            }
+        } finally {
+            document.close();
+        }
+        return countingListener.count;
+    }
+
+    /**
+     * Creates the checker which applies the rules of the given conformance level.
+     *
+     * @param conformanceLevel the conformance level to check against
+     * @return the checker instance
+     */
+    protected PdfAChecker createChecker(PdfAConformanceLevel conformanceLevel) {
+        switch (conformanceLevel.getPart()) {
+            case "1":
+                return new PdfA1Checker(conformanceLevel);
+            case "2":
+                return new PdfA2Checker(conformanceLevel);
+            default:
+                return new PdfA3Checker(conformanceLevel);
+        }
+    }
+
+    private void checkDocumentLevelRequirements(final PdfAChecker checker, final PdfDocument document, IPdfAViolationListener listener) {
+        final PdfDictionary catalog = document.getCatalog().getPdfObject();
+        PdfIndirectReference catalogReference = catalog.getIndirectReference();
+        int objNr = catalogReference.getObjNumber();
+        int genNr = catalogReference.getGenNumber();
+
+        try {
+            checker.setPdfAOutputIntentColorSpace(catalog);
+            checker.checkOutputIntents(catalog);
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(objNr, genNr, e));
+        }
+        try {
+            checker.checkMetaData(catalog);
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(objNr, genNr, e));
+        }
+        try {
+            checker.checkCatalogValidEntries(catalog);
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(objNr, genNr, e));
+        }
+        try {
+            checker.checkLogicalStructure(catalog);
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(objNr, genNr, e));
+        }
+        try {
+            checker.checkForm(catalog.getAsDictionary(PdfName.AcroForm));
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(objNr, genNr, e));
+        }
+        try {
+            checker.checkTrailer(document.getTrailer());
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(0, 0, e));
+        }
+        resetCheckedObjects(checker);
+    }
+
+    private void checkIndirectObject(PdfAChecker checker, PdfIndirectReference reference, ImageUsages imageUsages,
+            IPdfAViolationListener listener) {
+        PdfObject object;
+        try {
+            object = reference.getRefersTo();
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(reference.getObjNumber(), reference.getGenNumber(), e));
+            return;
+        }
+        if (object == null) {
+            return;
+        }
+        List<RuntimeException> exceptions = new ArrayList<>();
+        checkDirectContent(checker, object, exceptions);
+        PdfDictionary resources = null;
+        switch (object.getType()) {
+            case PdfObject.STREAM:
+                checkStream(checker, (PdfStream) object, exceptions);
+                if (PdfName.Image.equals(((PdfStream) object).getAsName(PdfName.Subtype))
+                        && !imageUsages.imagesCheckedInContext.contains(reference)) {
+                    // checked later, either in the context of the resources which use it or on its own
+                    imageUsages.imagesWithoutContext.add(reference);
+                }
+                resources = getResourcesToCheck((PdfStream) object, imageUsages);
+                break;
+            case PdfObject.DICTIONARY:
+                checkDictionary(checker, (PdfDictionary) object, exceptions);
+                resources = getResourcesToCheck((PdfDictionary) object, imageUsages);
+                break;
+        }
+        for (RuntimeException e : exceptions) {
+            listener.onViolation(new PdfAViolation(reference.getObjNumber(), reference.getGenNumber(), e));
+        }
+        resetCheckedObjects(checker);
+        if (resources != null) {
+            checkImagesOfResources(checker, resources, imageUsages, listener);
+        }
+        if (!object.isReleaseForbidden()) {
+            object.release();
+        }
+    }
+
+    private void checkStream(PdfAChecker checker, PdfStream stream, List<RuntimeException> exceptions) {
+        try {
+            checker.checkPdfStream(stream);
+        } catch (RuntimeException e) {
+            exceptions.add(e);
+        }
+        try {
+            if (PdfName.Form.equals(stream.getAsName(PdfName.Subtype))) {
+                checker.checkFormXObject(stream);
+            }
+        } catch (RuntimeException e) {
+            exceptions.add(e);
+        }
+    }
+
+    /**
+     * Gets the resources of the object unless they are shared with another object whose resources were already checked.
+     */
+    private static PdfDictionary getResourcesToCheck(PdfDictionary object, ImageUsages imageUsages) {
+        PdfObject resources = object.get(PdfName.Resources, false);
+        if (resources != null && resources.isIndirectReference()
+                && !imageUsages.checkedResources.add((PdfIndirectReference) resources)) {
+            return null;
+        }
+        return object.getAsDictionary(PdfName.Resources);
+    }
+
+    /**
+     * Checks the image XObjects of the resources with the color spaces of the resources,
+     * e.g. the default color spaces of a page, as the current color spaces.
+     */
+    private void checkImagesOfResources(PdfAChecker checker, PdfDictionary resources, ImageUsages imageUsages,
+            IPdfAViolationListener listener) {
+        PdfDictionary xObjects = resources.getAsDictionary(PdfName.XObject);
+        if (xObjects == null) {
+            return;
+        }
+        PdfDictionary currentColorSpaces = resources.getAsDictionary(PdfName.ColorSpace);
+        for (PdfName name : xObjects.keySet()) {
+            PdfObject xObject = xObjects.get(name, false);
+            if (xObject != null && xObject.isIndirectReference()) {
+                PdfIndirectReference imageReference = (PdfIndirectReference) xObject;
+                if (checkImage(checker, imageReference, currentColorSpaces, listener)) {
+                    imageUsages.imagesCheckedInContext.add(imageReference);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks the image referred to by the given reference.
+     *
+     * @return false if the reference doesn't refer to an image
+     */
+    private boolean checkImage(PdfAChecker checker, PdfIndirectReference imageReference, PdfDictionary currentColorSpaces,
+            IPdfAViolationListener listener) {
+        PdfObject image;
+        try {
+            image = imageReference.getRefersTo();
+        } catch (RuntimeException e) {
+            // the failure is reported when the object itself is checked
+            return false;
+        }
+        if (image == null || !image.isStream() || !PdfName.Image.equals(((PdfStream) image).getAsName(PdfName.Subtype))) {
+            return false;
+        }
+        try {
+            checker.checkImage((PdfStream) image, currentColorSpaces);
+        } catch (RuntimeException e) {
+            listener.onViolation(new PdfAViolation(imageReference.getObjNumber(), imageReference.getGenNumber(), e));
+        }
+        resetCheckedObjects(checker);
+        if (!image.isReleaseForbidden()) {
+            image.release();
+        }
+        return true;
+    }
+
+    private void checkDictionary(PdfAChecker checker, PdfDictionary dictionary, List<RuntimeException> exceptions) {
+        PdfName type = dictionary.getAsName(PdfName.Type);
+        PdfName subtype = dictionary.getAsName(PdfName.Subtype);
+        try {
+            if (PdfName.Page.equals(type)) {
+                PdfDictionary resources = dictionary.getAsDictionary(PdfName.Resources);
+                checker.checkPageObject(dictionary, resources != null ? resources : new PdfDictionary());
+                checker.checkPageSize(dictionary);
+            } else if (PdfName.Filespec.equals(type)) {
+                checker.checkFileSpec(dictionary);
+            } else if (PdfName.Font.equals(type)) {
+                if (CHECKED_FONT_SUBTYPES.contains(subtype)) {
+                    checker.checkFont(PdfFontFactory.createFont(dictionary));
+                }
+            } else if (PdfName.Annot.equals(type) || type == null && subtype != null && dictionary.containsKey(PdfName.Rect)) {
+                checker.checkAnnotation(dictionary);
+            } else if (PdfName.Action.equals(type) || type == null && isAction(dictionary)) {
+                checker.checkAction(dictionary);
+            }
+        } catch (RuntimeException e) {
+            exceptions.add(e);
+        }
+    }
+
+    /**
+     * Checks the numbers and strings stored directly in the object. The indirect children
+     * are not followed, they are checked on their own.
+     */
+    private void checkDirectContent(PdfAChecker checker, PdfObject object, List<RuntimeException> exceptions) {
+        try {
+            switch (object.getType()) {
+                case PdfObject.NUMBER:
+                    checker.checkPdfNumber((PdfNumber) object);
+                    break;
+                case PdfObject.STRING:
+                    checker.checkPdfString((PdfString) object);
+                    break;
+                case PdfObject.ARRAY:
+                    PdfArray array = (PdfArray) object;
+                    for (int i = 0; i < array.size(); ++i) {
+                        checkDirectContent(checker, array.get(i, false), exceptions);
+                    }
+                    break;
+                case PdfObject.DICTIONARY:
+                case PdfObject.STREAM:
+                    for (PdfObject value : ((PdfDictionary) object).values(false)) {
+                        checkDirectContent(checker, value, exceptions);
+                    }
+                    break;
+            }
+        } catch (RuntimeException e) {
+            exceptions.add(e);
+        }
+    }
+
+    private static boolean isAction(PdfDictionary dictionary) {
+        // structure elements and transitions also have the S key, but actions have neither parent nor kids
+        return dictionary.get(PdfName.S) instanceof PdfName
+                && !dictionary.containsKey(PdfName.P) && !dictionary.containsKey(PdfName.K);
+    }
+
+    private static void resetCheckedObjects(PdfAChecker checker) {
+        checker.checkedObjects.clear();
+        checker.checkedObjectsColorspace.clear();
+        checker.checkedIccProfileHeaders.clear();
+    }
+
+    private static PdfAConformanceLevel getConformanceLevel(PdfDocument document) {
+        byte[] xmpMetadata = document.getXmpMetadata();
+        if (xmpMetadata == null) {
+            return null;
+        }
+        try {
+            return PdfAConformanceLevel.getConformanceLevel(XMPMetaFactory.parseFromBuffer(xmpMetadata));
+        } catch (XMPException e) {
+            return null;
+        }
+    }
+
+    private static List<PdfIndirectReference> getReferencesInFileOrder(PdfDocument document) {
+        List<PdfIndirectReference> references = new ArrayList<>();
+        final List<PdfIndirectReference> allReferences = document.listIndirectReferences();
+        int maxObjNr = 0;
+        for (PdfIndirectReference reference : allReferences) {
+            maxObjNr = Math.max(maxObjNr, reference.getObjNumber());
+        }
+        final long[] offsets = new long[maxObjNr + 1];
+        for (PdfIndirectReference reference : allReferences) {
+            offsets[reference.getObjNumber()] = reference.getOffset();
+            if (!reference.isFree() && reference.getObjNumber() > 0) {
+                references.add(reference);
+            }
+        }
+        Collections.sort(references, new Comparator<PdfIndirectReference>() {
+            @Override
+            public int compare(PdfIndirectReference r1, PdfIndirectReference r2) {
+                int result = Long.compare(getPosition(r1), getPosition(r2));
+                return result != 0 ? result : Integer.compare(r1.getIndex(), r2.getIndex());
+            }
+
+            private long getPosition(PdfIndirectReference reference) {
+                int objStreamNumber = reference.getObjStreamNumber();
+                if (objStreamNumber == 0) {
+                    return reference.getOffset();
+                }
+                return objStreamNumber < offsets.length ? offsets[objStreamNumber] : Long.MAX_VALUE;
+            }
+        });
+        return references;
+    }
+
+    private static class ImageUsages {
+        final Set<PdfIndirectReference> imagesCheckedInContext = new HashSet<>();
+        final Set<PdfIndirectReference> imagesWithoutContext = new LinkedHashSet<>();
+        final Set<PdfIndirectReference> checkedResources = new HashSet<>();
+    }
+
+    private static class CountingListener implements IPdfAViolationListener {
+        private final IPdfAViolationListener listener;
+        int count;
+
+        CountingListener(IPdfAViolationListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void onViolation(PdfAViolation violation) {
+            ++count;
+            listener.onViolation(violation);
+        }
+    }
+}
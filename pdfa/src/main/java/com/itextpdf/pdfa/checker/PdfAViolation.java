@@ -0,0 +1,111 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.pdfa.checker;
+
+/**
+ * Describes a single violation of the PDF/A requirements found by {@link PdfAValidator}.
+ */
+public class PdfAViolation {
+
+    private final int objectNumber;
+    private final int generationNumber;
+    private final RuntimeException exception;
+
+    /**
+     * Creates a violation.
+     *
+     * @param objectNumber     the number of the indirect object which violates the requirements,
+     *                         or 0 if the violation is not related to a particular object
+     * @param generationNumber the generation number of the indirect object
+     * @param exception        the exception thrown by the check. It is generally a
+     *                         {@link com.itextpdf.pdfa.PdfAConformanceException}, but it may be any other
+     *                         exception if the object could not be read or checked at all
+     */
+    public PdfAViolation(int objectNumber, int generationNumber, RuntimeException exception) {
+        this.objectNumber = objectNumber;
+        this.generationNumber = generationNumber;
+        this.exception = exception;
+    }
+
+    /**
+     * Gets the number of the indirect object which violates the requirements.
+     *
+     * @return the object number, or 0 if the violation relates to the document as a whole,
+     * e.g. to its trailer
+     */
+    public int getObjectNumber() {
+        return objectNumber;
+    }
+
+    /**
+     * Gets the generation number of the indirect object which violates the requirements.
+     *
+     * @return the generation number
+     */
+    public int getGenerationNumber() {
+        return generationNumber;
+    }
+
+    /**
+     * Gets the exception thrown by the failed check.
+     *
+     * @return the exception
+     */
+    public RuntimeException getException() {
+        return exception;
+    }
+
+    /**
+     * Gets the description of the violation.
+     *
+     * @return the message of the exception thrown by the failed check
+     */
+    public String getMessage() {
+        return exception.getMessage();
+    }
+
+    @Override
+    public String toString() {
+        return objectNumber == 0 ? getMessage() : objectNumber + " " + generationNumber + " R: " + getMessage();
+    }
+}
@@ -0,0 +1,189 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.pdfa;
+
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.source.ByteArrayOutputStream;
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.kernel.colors.DeviceRgb;
+import com.itextpdf.kernel.pdf.PdfAConformanceLevel;
+import com.itextpdf.kernel.pdf.PdfArray;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfNumber;
+import com.itextpdf.kernel.pdf.PdfObject;
+import com.itextpdf.kernel.pdf.PdfOutputIntent;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.action.PdfAction;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.pdfa.checker.IPdfAViolationListener;
+import com.itextpdf.pdfa.checker.PdfAValidator;
+import com.itextpdf.pdfa.checker.PdfAViolation;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Category(IntegrationTest.class)
+public class PdfAValidatorTest extends ExtendedITextTest {
+    public static final String sourceFolder = "./src/test/resources/com/itextpdf/pdfa/";
+
+    @Test
+    public void conformingDocumentTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        InputStream is = new FileInputStream(sourceFolder + "sRGB Color Space Profile.icm");
+        PdfADocument doc = new PdfADocument(new PdfWriter(baos), PdfAConformanceLevel.PDF_A_2B,
+                new PdfOutputIntent("Custom", "", "http://www.color.org", "sRGB IEC61966-2.1", is));
+        PdfCanvas canvas = new PdfCanvas(doc.addNewPage());
+        canvas.setFillColor(new DeviceRgb(255, 0, 0)).rectangle(10, 10, 100, 100).fill();
+        doc.close();
+
+        List<PdfAViolation> violations = new PdfAValidator().validate(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertTrue(violations.toString(), violations.isEmpty());
+    }
+
+    @Test
+    public void violationsAreReportedPerObjectTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument doc = new PdfDocument(new PdfWriter(baos));
+        PdfPage page = doc.addNewPage();
+        page.setAdditionalAction(PdfName.C, PdfAction.createJavaScript("js"));
+        PdfAction action = PdfAction.createJavaScript("js");
+        action.makeIndirect(doc);
+        doc.getCatalog().setOpenAction(action);
+        int pageObjNr = page.getPdfObject().getIndirectReference().getObjNumber();
+        int actionObjNr = action.getPdfObject().getIndirectReference().getObjNumber();
+        int catalogObjNr = doc.getCatalog().getPdfObject().getIndirectReference().getObjNumber();
+        doc.close();
+
+        final List<PdfAViolation> violations = new ArrayList<>();
+        int count = new PdfAValidator(PdfAConformanceLevel.PDF_A_2B).validate(new PdfReader(new ByteArrayInputStream(baos.toByteArray())),
+                new IPdfAViolationListener() {
+                    @Override
+                    public void onViolation(PdfAViolation violation) {
+                        violations.add(violation);
+                    }
+                });
+        Assert.assertEquals(violations.size(), count);
+
+        String forbiddenActionMessage = MessageFormatUtil.format(PdfAConformanceException._0_ACTIONS_ARE_NOT_ALLOWED, PdfName.JavaScript.getValue());
+        Assert.assertTrue(violations.toString(), containsViolation(violations, actionObjNr, forbiddenActionMessage));
+        Assert.assertTrue(violations.toString(), containsViolation(violations, pageObjNr, PdfAConformanceException.THE_PAGE_DICTIONARY_SHALL_NOT_CONTAIN_AA_ENTRY));
+        Assert.assertTrue(violations.toString(), containsViolation(violations, catalogObjNr, PdfAConformanceException.A_CATALOG_DICTIONARY_SHALL_CONTAIN_METADATA_ENTRY));
+    }
+
+    @Test
+    public void imageIsCheckedWithDefaultColorSpacesOfPageTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        InputStream is = new FileInputStream(sourceFolder + "sRGB Color Space Profile.icm");
+        PdfADocument doc = new PdfADocument(new PdfWriter(baos), PdfAConformanceLevel.PDF_A_2B,
+                new PdfOutputIntent("Custom", "", "http://www.color.org", "sRGB IEC61966-2.1", is));
+        PdfPage page = doc.addNewPage();
+        PdfStream defaultCmykProfile = new PdfStream(new byte[] {0});
+        defaultCmykProfile.put(PdfName.N, new PdfNumber(4));
+        PdfDictionary colorSpaces = new PdfDictionary();
+        colorSpaces.put(PdfName.DefaultCMYK, new PdfArray(Arrays.<PdfObject>asList(PdfName.ICCBased, defaultCmykProfile.makeIndirect(doc))));
+        page.getResources().getPdfObject().put(PdfName.ColorSpace, colorSpaces);
+        new PdfCanvas(page).addXObject(createCmykImage(), 10, 10, 100).release();
+        doc.close();
+
+        List<PdfAViolation> violations = new PdfAValidator().validate(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertTrue(violations.toString(), violations.isEmpty());
+    }
+
+    @Test
+    public void imageWithoutDefaultColorSpaceInContextTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument doc = new PdfDocument(new PdfWriter(baos));
+        InputStream is = new FileInputStream(sourceFolder + "sRGB Color Space Profile.icm");
+        doc.addOutputIntent(new PdfOutputIntent("Custom", "", "http://www.color.org", "sRGB IEC61966-2.1", is));
+        new PdfCanvas(doc.addNewPage()).addXObject(createCmykImage(), 10, 10, 100).release();
+        int catalogObjNr = doc.getCatalog().getPdfObject().getIndirectReference().getObjNumber();
+        doc.close();
+
+        List<PdfAViolation> violations = new PdfAValidator(PdfAConformanceLevel.PDF_A_2B)
+                .validate(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertTrue(violations.toString(), containsViolation(violations, catalogObjNr,
+                PdfAConformanceException.DEVICECMYK_MAY_BE_USED_ONLY_IF_THE_FILE_HAS_A_CMYK_PDFA_OUTPUT_INTENT_OR_DEFAULTCMYK_IN_USAGE_CONTEXT));
+    }
+
+    @Test
+    public void documentWithoutPdfAMetadataTest() throws IOException {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        PdfDocument doc = new PdfDocument(new PdfWriter(baos));
+        doc.addNewPage();
+        doc.close();
+
+        List<PdfAViolation> violations = new PdfAValidator().validate(new PdfReader(new ByteArrayInputStream(baos.toByteArray())));
+        Assert.assertEquals(1, violations.size());
+        Assert.assertEquals(PdfAConformanceException.DOCUMENT_TO_READ_FROM_SHALL_BE_A_PDFA_CONFORMANT_FILE_WITH_VALID_XMP_METADATA,
+                violations.get(0).getMessage());
+    }
+
+    private static PdfImageXObject createCmykImage() {
+        return new PdfImageXObject(ImageDataFactory.create(1, 1, 4, 8, new byte[] {0, 0, 0, (byte) 255}, null));
+    }
+
+    private static boolean containsViolation(List<PdfAViolation> violations, int objNr, String message) {
+        for (PdfAViolation violation : violations) {
+            if (violation.getObjectNumber() == objNr && message.equals(violation.getMessage())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.util.DateTimeUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.security.cert.CertificateParsingException;
+import java.security.cert.X509CRL;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An {@link ICrlClient} which wraps another CRL client and keeps the fetched CRLs in an
+ * {@link IRevocationDataCache} until their nextUpdate date is reached, so that CRLs of the same
+ * CA are not downloaded again for every signature or for every certificate of the chain.
+ * The same cache instance may be shared between several clients.
+ */
+public class CachingCrlClient implements ICrlClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingCrlClient.class);
+
+    private static final String KEY_PREFIX = "crl:";
+
+    private final ICrlClient crlClient;
+
+    private final IRevocationDataCache cache;
+
+    private long defaultValidity = RevocationDataCache.DEFAULT_VALIDITY;
+
+    /**
+     * Creates a caching CRL client which wraps a {@link CrlClientOnline} and keeps the CRLs in memory.
+     */
+    public CachingCrlClient() {
+        this(new CrlClientOnline(), new RevocationDataCache());
+    }
+
+    /**
+     * Creates a caching CRL client.
+     *
+     * @param crlClient the client which will be used to fetch the CRLs which are not in the cache yet
+     * @param cache     the cache to store the fetched CRLs in
+     */
+    public CachingCrlClient(ICrlClient crlClient, IRevocationDataCache cache) {
+        this.crlClient = crlClient;
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the cache used by this client.
+     *
+     * @return the revocation data cache
+     */
+    public IRevocationDataCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the period of time for which a CRL without nextUpdate date is kept in the cache.
+     *
+     * @return the validity period in milliseconds
+     */
+    public long getDefaultValidity() {
+        return defaultValidity;
+    }
+
+    /**
+     * Sets the period of time, counted from the thisUpdate date, for which a CRL
+     * without nextUpdate date is kept in the cache. Zero value disables caching of such CRLs.
+     *
+     * @param defaultValidity the validity period in milliseconds
+     * @return this instance
+     */
+    public CachingCrlClient setDefaultValidity(long defaultValidity) {
+        this.defaultValidity = defaultValidity;
+        return this;
+    }
+
+    /**
+     * Gets CRLs from the cache, or fetches them with the wrapped client if there are no valid cached ones.
+     *
+     * @see ICrlClient#getEncoded(X509Certificate, String)
+     */
+    @Override
+    public Collection<byte[]> getEncoded(X509Certificate checkCert, String url) {
+        if (checkCert == null) {
+            return null;
+        }
+        String key = getCacheKey(checkCert, url);
+        List<byte[]> cached = cache.get(key);
+        if (cached != null) {
+            LOGGER.info("Found cached CRL for certificate " + checkCert.getSubjectDN());
+            // the cached data is shared, so the caller gets its own copies
+            List<byte[]> copies = new ArrayList<>(cached.size());
+            for (byte[] bytes : cached) {
+                copies.add(bytes.clone());
+            }
+            return copies;
+        }
+        Collection<byte[]> fetched = crlClient.getEncoded(checkCert, url);
+        if (fetched != null && !fetched.isEmpty()) {
+            Date expirationDate = getExpirationDate(fetched);
+            if (expirationDate != null) {
+                cache.put(key, new ArrayList<>(fetched), expirationDate);
+            }
+        }
+        return fetched;
+    }
+
+    /**
+     * Calculates the date until which the given CRLs may be served from the cache.
+     * This is the earliest nextUpdate date of all the CRLs, or thisUpdate date plus
+     * the {@link #getDefaultValidity() default validity} for CRLs without nextUpdate.
+     *
+     * @param crls the encoded CRLs
+     * @return the expiration date, or null if the CRLs shall not be cached
+     */
+    protected Date getExpirationDate(Collection<byte[]> crls) {
+        Date expirationDate = null;
+        Date now = DateTimeUtil.getCurrentTimeDate();
+        for (byte[] encoded : crls) {
+            X509CRL crl;
+            try {
+                crl = (X509CRL) SignUtils.parseCrlFromStream(new ByteArrayInputStream(encoded));
+            } catch (Exception e) {
+                LOGGER.info("CRL can not be cached: " + e.getMessage());
+                return null;
+            }
+            Date crlExpiration = RevocationDataCache.getExpirationDate(crl.getThisUpdate(), crl.getNextUpdate(), now, defaultValidity);
+            if (crlExpiration == null) {
+                return null;
+            }
+            if (expirationDate == null || crlExpiration.before(expirationDate)) {
+                expirationDate = crlExpiration;
+            }
+        }
+        return expirationDate;
+    }
+
+    private static String getCacheKey(X509Certificate checkCert, String url) {
+        if (url == null) {
+            try {
+                url = CertificateUtil.getCRLURL(checkCert);
+            } catch (CertificateParsingException ignored) {
+            }
+        }
+        // CRL is issued per CA, so the key must not depend on the certificate being checked
+        // unless there is nothing else to identify the CRL
+        return KEY_PREFIX + checkCert.getIssuerX500Principal().getName() + "|"
+                + (url != null ? url : checkCert.getSerialNumber().toString());
+    }
+}
@@ -0,0 +1,186 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.util.DateTimeUtil;
+import org.bouncycastle.asn1.ASN1InputStream;
+import org.bouncycastle.asn1.ocsp.BasicOCSPResponse;
+import org.bouncycastle.cert.ocsp.BasicOCSPResp;
+import org.bouncycastle.cert.ocsp.SingleResp;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.cert.X509Certificate;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * An {@link IOcspClient} which wraps another OCSP client and keeps the fetched responses in an
+ * {@link IRevocationDataCache} until their nextUpdate date is reached, so that the OCSP responder
+ * is not queried again for every signature made with the same certificate.
+ * The same cache instance may be shared between several clients and with {@link CachingCrlClient}.
+ */
+public class CachingOcspClient implements IOcspClient {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CachingOcspClient.class);
+
+    private static final String KEY_PREFIX = "ocsp:";
+
+    private final IOcspClient ocspClient;
+
+    private final IRevocationDataCache cache;
+
+    private long defaultValidity = RevocationDataCache.DEFAULT_VALIDITY;
+
+    /**
+     * Creates a caching OCSP client which wraps an {@link OcspClientBouncyCastle} without response
+     * verification and keeps the responses in memory.
+     */
+    public CachingOcspClient() {
+        this(new OcspClientBouncyCastle(null), new RevocationDataCache());
+    }
+
+    /**
+     * Creates a caching OCSP client.
+     *
+     * @param ocspClient the client which will be used to fetch the responses which are not in the cache yet
+     * @param cache      the cache to store the fetched responses in
+     */
+    public CachingOcspClient(IOcspClient ocspClient, IRevocationDataCache cache) {
+        this.ocspClient = ocspClient;
+        this.cache = cache;
+    }
+
+    /**
+     * Gets the cache used by this client.
+     *
+     * @return the revocation data cache
+     */
+    public IRevocationDataCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the period of time for which a response without nextUpdate date is kept in the cache.
+     *
+     * @return the validity period in milliseconds
+     */
+    public long getDefaultValidity() {
+        return defaultValidity;
+    }
+
+    /**
+     * Sets the period of time, counted from the thisUpdate date, for which an OCSP response
+     * without nextUpdate date is kept in the cache. Zero value disables caching of such responses.
+     *
+     * @param defaultValidity the validity period in milliseconds
+     * @return this instance
+     */
+    public CachingOcspClient setDefaultValidity(long defaultValidity) {
+        this.defaultValidity = defaultValidity;
+        return this;
+    }
+
+    /**
+     * Gets the OCSP response from the cache, or fetches it with the wrapped client if there is no valid cached one.
+     *
+     * @see IOcspClient#getEncoded(X509Certificate, X509Certificate, String)
+     */
+    @Override
+    public byte[] getEncoded(X509Certificate checkCert, X509Certificate issuerCert, String url) {
+        if (checkCert == null || issuerCert == null) {
+            return null;
+        }
+        String key = KEY_PREFIX + issuerCert.getSubjectX500Principal().getName() + "|"
+                + checkCert.getSerialNumber() + "|" + (url != null ? url : "");
+        List<byte[]> cached = cache.get(key);
+        if (cached != null) {
+            LOGGER.info("Found cached OCSP response for certificate " + checkCert.getSubjectDN());
+            // the cached data is shared, so the caller gets its own copy
+            return cached.get(0).clone();
+        }
+        byte[] fetched = ocspClient.getEncoded(checkCert, issuerCert, url);
+        if (fetched != null) {
+            Date expirationDate = getExpirationDate(fetched);
+            if (expirationDate != null) {
+                cache.put(key, Collections.singletonList(fetched), expirationDate);
+            }
+        }
+        return fetched;
+    }
+
+    /**
+     * Calculates the date until which the given OCSP response may be served from the cache.
+     * This is the earliest nextUpdate date of its single responses, or thisUpdate date plus
+     * the {@link #getDefaultValidity() default validity} for single responses without nextUpdate.
+     *
+     * @param basicOcspResponse the encoded basic OCSP response
+     * @return the expiration date, or null if the response shall not be cached
+     */
+    protected Date getExpirationDate(byte[] basicOcspResponse) {
+        SingleResp[] responses;
+        try {
+            ASN1InputStream inp = new ASN1InputStream(basicOcspResponse);
+            responses = new BasicOCSPResp(BasicOCSPResponse.getInstance(inp.readObject())).getResponses();
+        } catch (Exception e) {
+            LOGGER.info("OCSP response can not be cached: " + e.getMessage());
+            return null;
+        }
+        if (responses.length == 0) {
+            return null;
+        }
+        Date expirationDate = null;
+        Date now = DateTimeUtil.getCurrentTimeDate();
+        for (SingleResp response : responses) {
+            Date responseExpiration = RevocationDataCache.getExpirationDate(response.getThisUpdate(), response.getNextUpdate(), now, defaultValidity);
+            if (responseExpiration == null) {
+                return null;
+            }
+            if (expirationDate == null || responseExpiration.before(expirationDate)) {
+                expirationDate = responseExpiration;
+            }
+        }
+        return expirationDate;
+    }
+}
@@ -0,0 +1,84 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfName;
+
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+/**
+ * Interface to sign several documents at once, used by {@link PdfBatchSigner}.
+ * Unlike {@link IExternalSignatureContainer} it receives the digests of the signed byte ranges
+ * of all the documents of the batch in a single call, so that a single session of an HSM
+ * or a single round trip to a remote signing service can be used for the whole batch.
+ */
+public interface IExternalBatchSignatureContainer {
+
+    /**
+     * Gets the name of the hash algorithm which shall be used to calculate the digests
+     * of the documents, e.g. "SHA-256".
+     *
+     * @return the hash algorithm name
+     */
+    String getHashAlgorithm();
+
+    /**
+     * Produces the containers with the signatures.
+     *
+     * @param digests the digests of the signed byte ranges of the documents, in the order of the batch
+     * @return the containers with the signature and other objects, like CRL and OCSP, one for each
+     * digest and in the same order. The containers will generally be PKCS7 ones.
+     * @throws GeneralSecurityException
+     */
+    List<byte[]> sign(List<byte[]> digests) throws GeneralSecurityException;
+
+    /**
+     * Modifies the signature dictionary to suit the container. At least the keys {@link PdfName#Filter} and
+     * {@link PdfName#SubFilter} will have to be set. Called once for each document of the batch.
+     *
+     * @param signDic the signature dictionary
+     */
+    void modifySigningDictionary(PdfDictionary signDic);
+}
@@ -0,0 +1,336 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Signs a batch of documents with a single call to an {@link IExternalBatchSignatureContainer}.
+ * <p>
+ * Signing happens in three phases:
+ * <ol>
+ * <li>every document is pre-closed with a blank signature of the estimated size, and the digest of
+ * its signed byte range is calculated. Documents are processed in parallel;</li>
+ * <li>all the digests are passed to {@link IExternalBatchSignatureContainer#sign(List)} at once;</li>
+ * <li>the returned signature containers are injected into the prepared documents with
+ * {@link PdfSigner#signDeferred(PdfDocument, String, OutputStream, IExternalSignatureContainer)},
+ * again in parallel.</li>
+ * </ol>
+ * Prepared documents are kept in memory until the batch is signed, so the number of documents
+ * added to a single batch shall be chosen accordingly.
+ * The signer can be reused for several batches, but it is not thread-safe.
+ */
+public class PdfBatchSigner {
+
+    private final IExternalBatchSignatureContainer externalBatchSignatureContainer;
+
+    private final int estimatedSize;
+
+    private final List<BatchEntry> entries = new ArrayList<>();
+
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Creates a batch signer.
+     *
+     * @param externalBatchSignatureContainer the interface providing the actual signing
+     * @param estimatedSize                   the reserved size for each signature
+     */
+    public PdfBatchSigner(IExternalBatchSignatureContainer externalBatchSignatureContainer, int estimatedSize) {
+        this.externalBatchSignatureContainer = externalBatchSignatureContainer;
+        this.estimatedSize = estimatedSize;
+    }
+
+    /**
+     * Gets the number of threads used to prepare and finish the documents of a batch.
+     *
+     * @return the number of threads
+     */
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Sets the number of threads used to prepare and finish the documents of a batch.
+     * By default it is equal to the number of available processors.
+     *
+     * @param threadCount the number of threads, 1 means that the documents are processed sequentially
+     * @return this instance
+     */
+    public PdfBatchSigner setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count shall be positive.");
+        }
+        this.threadCount = threadCount;
+        return this;
+    }
+
+    /**
+     * Adds a document to the current batch. A new signature field will be created.
+     *
+     * @param reader       PdfReader that reads the PDF file
+     * @param outputStream OutputStream to write the signed PDF file to. It is not closed by the signer
+     * @return this instance
+     */
+    public PdfBatchSigner addDocument(PdfReader reader, OutputStream outputStream) {
+        return addDocument(reader, outputStream, null);
+    }
+
+    /**
+     * Adds a document to the current batch.
+     *
+     * @param reader       PdfReader that reads the PDF file
+     * @param outputStream OutputStream to write the signed PDF file to. It is not closed by the signer
+     * @param fieldName    the name of the signature field to sign, or null to create a new field
+     * @return this instance
+     */
+    public PdfBatchSigner addDocument(PdfReader reader, OutputStream outputStream, String fieldName) {
+        entries.add(new BatchEntry(reader, outputStream, fieldName));
+        return this;
+    }
+
+    /**
+     * Gets the number of documents in the current batch.
+     *
+     * @return the number of documents added since the last {@link #signBatch()} call
+     */
+    public int getBatchSize() {
+        return entries.size();
+    }
+
+    /**
+     * Signs all the documents of the current batch and writes them to their output streams.
+     * The batch is cleared afterwards, even if signing failed.
+     *
+     * @throws IOException
+     * @throws GeneralSecurityException
+     */
+    public void signBatch() throws IOException, GeneralSecurityException {
+        if (entries.isEmpty()) {
+            return;
+        }
+        final List<BatchEntry> batch = new ArrayList<>(entries);
+        entries.clear();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, batch.size()));
+        try {
+            List<Callable<Void>> prepareTasks = new ArrayList<>(batch.size());
+            for (final BatchEntry entry : batch) {
+                prepareTasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        prepare(entry);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(executor, prepareTasks);
+
+            List<byte[]> digests = new ArrayList<>(batch.size());
+            for (BatchEntry entry : batch) {
+                digests.add(entry.digest);
+            }
+            List<byte[]> containers = externalBatchSignatureContainer.sign(digests);
+            if (containers == null || containers.size() != batch.size()) {
+                throw new PdfException(PdfException.NumberOfSignatureContainersDoesntCorrespondWithTheNumberOfDocuments);
+            }
+
+            List<Callable<Void>> finishTasks = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); ++i) {
+                final BatchEntry entry = batch.get(i);
+                final byte[] container = containers.get(i);
+                finishTasks.add(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        finish(entry, container);
+                        return null;
+                    }
+                });
+            }
+            invokeAll(executor, finishTasks);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates the {@link PdfSigner} which pre-closes a single document of the batch.
+     * Override this method to customize the signature appearance or other signer settings.
+     *
+     * @param reader       PdfReader that reads the PDF file
+     * @param outputStream OutputStream the prepared document shall be written to
+     * @param fieldName    the name of the signature field, or null to create a new field
+     * @return the signer instance
+     * @throws IOException
+     */
+    protected PdfSigner createSigner(PdfReader reader, OutputStream outputStream, String fieldName) throws IOException {
+        PdfSigner signer = new PdfSigner(reader, outputStream, false);
+        if (fieldName != null) {
+            signer.setFieldName(fieldName);
+        }
+        return signer;
+    }
+
+    private void prepare(BatchEntry entry) throws IOException, GeneralSecurityException {
+        ByteArrayOutputStream prepared = new ByteArrayOutputStream();
+        PdfSigner signer = createSigner(entry.reader, prepared, entry.fieldName);
+        DigestingSignatureContainer digestingContainer = new DigestingSignatureContainer(externalBatchSignatureContainer);
+        signer.signExternalContainer(digestingContainer, estimatedSize);
+        entry.fieldName = signer.getFieldName();
+        entry.digest = digestingContainer.digest;
+        entry.prepared = prepared.toByteArray();
+    }
+
+    private void finish(BatchEntry entry, byte[] container) throws IOException, GeneralSecurityException {
+        PdfDocument document = new PdfDocument(new PdfReader(new ByteArrayInputStream(entry.prepared)));
+        try {
+            PdfSigner.signDeferred(document, entry.fieldName, entry.outputStream, new ReadySignatureContainer(container));
+        } finally {
+            document.close();
+            entry.prepared = null;
+        }
+    }
+
+    private static void invokeAll(ExecutorService executor, List<Callable<Void>> tasks) throws IOException, GeneralSecurityException {
+        List<Future<Void>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PdfException(PdfException.UnknownPdfException, e);
+        }
+        for (Future<Void> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PdfException(PdfException.UnknownPdfException, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                } else if (cause instanceof GeneralSecurityException) {
+                    throw (GeneralSecurityException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new PdfException(PdfException.UnknownPdfException, cause);
+            }
+        }
+    }
+
+    private static class BatchEntry {
+        final PdfReader reader;
+        final OutputStream outputStream;
+        String fieldName;
+        byte[] digest;
+        byte[] prepared;
+
+        BatchEntry(PdfReader reader, OutputStream outputStream, String fieldName) {
+            this.reader = reader;
+            this.outputStream = outputStream;
+            this.fieldName = fieldName;
+        }
+    }
+
+    /**
+     * Calculates the digest of the signed byte range while the document is pre-closed
+     * and leaves a blank signature in place.
+     */
+    private static class DigestingSignatureContainer implements IExternalSignatureContainer {
+        private final IExternalBatchSignatureContainer batchContainer;
+        byte[] digest;
+
+        DigestingSignatureContainer(IExternalBatchSignatureContainer batchContainer) {
+            this.batchContainer = batchContainer;
+        }
+
+        @Override
+        public byte[] sign(InputStream data) throws GeneralSecurityException {
+            try {
+                digest = DigestAlgorithms.digest(data, SignUtils.getMessageDigest(batchContainer.getHashAlgorithm()));
+            } catch (IOException e) {
+                throw new GeneralSecurityException(e.getMessage(), e);
+            }
+            return new byte[0];
+        }
+
+        @Override
+        public void modifySigningDictionary(PdfDictionary signDic) {
+            batchContainer.modifySigningDictionary(signDic);
+        }
+    }
+
+    private static class ReadySignatureContainer implements IExternalSignatureContainer {
+        private final byte[] container;
+
+        ReadySignatureContainer(byte[] container) {
+            this.container = container;
+        }
+
+        @Override
+        public byte[] sign(InputStream data) {
+            return container;
+        }
+
+        @Override
+        public void modifySigningDictionary(PdfDictionary signDic) {
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures;
+
+import com.itextpdf.io.util.ArrayUtil;
+import com.itextpdf.io.util.DateTimeUtil;
+import com.itextpdf.io.util.LruCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Default implementation of {@link IRevocationDataCache}.
+ * Entries are kept in memory and, if a store directory is specified, also persisted
+ * to the file system, so that they survive the restart of the application.
+ * Expired entries are never returned and are removed lazily on access.
+ * At most {@link #getMaxSize()} entries are kept in memory, the least recently used entries
+ * are evicted first; the evicted entries are read from the store directory again when needed.
+ */
+public class RevocationDataCache implements IRevocationDataCache {
+
+    /**
+     * The default period of time, in milliseconds, for which revocation data without nextUpdate
+     * date is considered fresh, counted from its thisUpdate date. One hour.
+     */
+    public static final long DEFAULT_VALIDITY = 60 * 60 * 1000L;
+
+    /**
+     * The default maximal number of entries kept in memory.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RevocationDataCache.class);
+
+    private static final String FILE_EXTENSION = ".rev";
+
+    private final LruCache<String, CacheEntry> entries;
+
+    /**
+     * Guards the entry files, so that an expired entry file is never deleted after a fresh entry was stored.
+     */
+    private final Object storeLock = new Object();
+
+    private final File storeDirectory;
+
+    /**
+     * Creates an in-memory only revocation data cache.
+     */
+    public RevocationDataCache() {
+        this(null);
+    }
+
+    /**
+     * Creates a revocation data cache which persists its entries to the given directory.
+     *
+     * @param storeDirectory the directory to store entries in. If null, entries are kept in memory only.
+     */
+    public RevocationDataCache(File storeDirectory) {
+        this(storeDirectory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a revocation data cache which persists its entries to the given directory
+     * and keeps at most the given number of entries in memory.
+     *
+     * @param storeDirectory the directory to store entries in. If null, entries are kept in memory only.
+     * @param maxSize        the maximal number of entries kept in memory
+     */
+    public RevocationDataCache(File storeDirectory, int maxSize) {
+        if (storeDirectory != null && !storeDirectory.isDirectory() && !storeDirectory.mkdirs()) {
+            throw new IllegalArgumentException("Revocation data store directory can not be created: " + storeDirectory);
+        }
+        this.storeDirectory = storeDirectory;
+        this.entries = new LruCache<>(maxSize);
+    }
+
+    /**
+     * Gets the maximal number of entries kept in memory.
+     *
+     * @return the maximal number of entries
+     */
+    public int getMaxSize() {
+        return entries.getMaxSize();
+    }
+
+    @Override
+    public List<byte[]> get(String key) {
+        long now = DateTimeUtil.getCurrentTimeDate().getTime();
+        CacheEntry entry = entries.get(key);
+        if (entry == null && storeDirectory != null) {
+            entry = readEntry(key);
+            if (entry != null) {
+                CacheEntry storedEntry = entries.putIfAbsent(key, entry);
+                if (storedEntry != null) {
+                    entry = storedEntry;
+                }
+            }
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expirationTime <= now) {
+            remove(key, entry);
+            return null;
+        }
+        return entry.encoded;
+    }
+
+    @Override
+    public void put(String key, List<byte[]> encoded, Date expirationDate) {
+        if (encoded == null || encoded.isEmpty() || expirationDate == null
+                || expirationDate.getTime() <= DateTimeUtil.getCurrentTimeDate().getTime()) {
+            return;
+        }
+        List<byte[]> encodedCopy = new ArrayList<>(encoded.size());
+        for (byte[] bytes : encoded) {
+            encodedCopy.add(bytes.clone());
+        }
+        CacheEntry entry = new CacheEntry(Collections.unmodifiableList(encodedCopy), expirationDate.getTime());
+        entries.put(key, entry);
+        if (storeDirectory != null) {
+            synchronized (storeLock) {
+                // a newer entry may have been stored concurrently
+                if (entries.get(key) == entry) {
+                    writeEntry(key, entry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+        if (storeDirectory != null) {
+            synchronized (storeLock) {
+                File[] files = storeDirectory.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        if (file.getName().endsWith(FILE_EXTENSION)) {
+                            file.delete();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Calculates the date until which revocation data may be served from the cache.
+     *
+     * @param thisUpdate      the thisUpdate date of the revocation data
+     * @param nextUpdate      the nextUpdate date of the revocation data, may be null
+     * @param now             the current date
+     * @param defaultValidity the validity period to use when nextUpdate is not specified
+     * @return the expiration date, or null if the data shall not be cached
+     */
+    static Date getExpirationDate(Date thisUpdate, Date nextUpdate, Date now, long defaultValidity) {
+        if (thisUpdate == null || thisUpdate.after(now)) {
+            // data from the future most likely means clock skew, do not rely on it
+            return null;
+        }
+        Date expirationDate = nextUpdate != null ? nextUpdate : new Date(thisUpdate.getTime() + defaultValidity);
+        return expirationDate.after(now) ? expirationDate : null;
+    }
+
+    private void remove(String key, CacheEntry expiredEntry) {
+        // an entry put concurrently after the expiration check is kept
+        if (entries.remove(key, expiredEntry) && storeDirectory != null) {
+            synchronized (storeLock) {
+                // the file may already hold fresh data, e.g. stored by another cache with the same directory
+                CacheEntry storedEntry = entries.containsKey(key) ? null : readEntry(key);
+                if (storedEntry != null && storedEntry.expirationTime <= expiredEntry.expirationTime) {
+                    getEntryFile(key).delete();
+                }
+            }
+        }
+    }
+
+    private CacheEntry readEntry(String key) {
+        File file = getEntryFile(key);
+        if (!file.isFile()) {
+            return null;
+        }
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            if (!key.equals(in.readUTF())) {
+                return null;
+            }
+            long expirationTime = in.readLong();
+            int count = in.readInt();
+            List<byte[]> encoded = new ArrayList<>(count);
+            for (int i = 0; i < count; ++i) {
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                encoded.add(bytes);
+            }
+            return new CacheEntry(Collections.unmodifiableList(encoded), expirationTime);
+        } catch (IOException e) {
+            LOGGER.warn("Skipped unreadable revocation data cache entry: " + file);
+            return null;
+        } finally {
+            closeQuietly(in);
+        }
+    }
+
+    private void writeEntry(String key, CacheEntry entry) {
+        File file = getEntryFile(key);
+        File tempFile = null;
+        DataOutputStream out = null;
+        try {
+            tempFile = File.createTempFile(file.getName(), ".tmp", storeDirectory);
+            out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            out.writeUTF(key);
+            out.writeLong(entry.expirationTime);
+            out.writeInt(entry.encoded.size());
+            for (byte[] bytes : entry.encoded) {
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+            out.close();
+            out = null;
+            if (file.exists()) {
+                file.delete();
+            }
+            if (!tempFile.renameTo(file)) {
+                LOGGER.warn("Revocation data cache entry can not be stored: " + file);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Revocation data cache entry can not be stored: " + file);
+        } finally {
+            closeQuietly(out);
+            if (tempFile != null) {
+                tempFile.delete();
+            }
+        }
+    }
+
+    private File getEntryFile(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8));
+            return new File(storeDirectory, ArrayUtil.toHexString(hash) + FILE_EXTENSION);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void closeQuietly(java.io.Closeable closeable) {
+        if (closeable != null) {
+            try {
+                closeable.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    private static class CacheEntry {
+        final List<byte[]> encoded;
+        final long expirationTime;
+
+        CacheEntry(List<byte[]> encoded, long expirationTime) {
+            this.encoded = encoded;
+            this.expirationTime = expirationTime;
+        }
+    }
+}
@@ -0,0 +1,191 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures.sign;
+
+import com.itextpdf.kernel.PdfException;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.signatures.BouncyCastleDigest;
+import com.itextpdf.signatures.DigestAlgorithms;
+import com.itextpdf.signatures.IExternalBatchSignatureContainer;
+import com.itextpdf.signatures.PdfBatchSigner;
+import com.itextpdf.signatures.PdfPKCS7;
+import com.itextpdf.signatures.PdfSigner;
+import com.itextpdf.signatures.PrivateKeySignature;
+import com.itextpdf.signatures.SignatureUtil;
+import com.itextpdf.signatures.testutils.Pkcs12FileHelper;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+import java.io.ByteArrayOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.Certificate;
+import java.util.ArrayList;
+import java.util.List;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+@Category(IntegrationTest.class)
+public class PdfBatchSignerTest extends ExtendedITextTest {
+
+    public static final String sourceFolder = "./src/test/resources/com/itextpdf/signatures/sign/SigningTest/";
+    public static final String destinationFolder = "./target/test/com/itextpdf/signatures/sign/PdfBatchSignerTest/";
+    public static final String keystorePath = "./src/test/resources/com/itextpdf/signatures/sign/SigningTest/test.p12";
+    public static final char[] password = "kspass".toCharArray();
+
+    private Certificate[] chain;
+    private PrivateKey pk;
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @BeforeClass
+    public static void before() {
+        Security.addProvider(new BouncyCastleProvider());
+        createOrClearDestinationFolder(destinationFolder);
+    }
+
+    @Before
+    public void init() throws GeneralSecurityException, IOException {
+        pk = Pkcs12FileHelper.readFirstKey(keystorePath, password, password);
+        chain = Pkcs12FileHelper.readFirstChain(keystorePath, password);
+    }
+
+    @Test
+    public void signBatchTest() throws GeneralSecurityException, IOException {
+        PrivateKeyBatchSignatureContainer container = new PrivateKeyBatchSignatureContainer(pk, chain);
+        PdfBatchSigner batchSigner = new PdfBatchSigner(container, 8192).setThreadCount(2);
+
+        int documentsCount = 4;
+        List<OutputStream> outputs = new ArrayList<>();
+        for (int i = 0; i < documentsCount; ++i) {
+            OutputStream os = new FileOutputStream(destinationFolder + "batchSigned" + i + ".pdf");
+            outputs.add(os);
+            batchSigner.addDocument(new PdfReader(sourceFolder + "simpleDocument.pdf"), os, i % 2 == 0 ? "Signature1" : null);
+        }
+        Assert.assertEquals(documentsCount, batchSigner.getBatchSize());
+        batchSigner.signBatch();
+        for (OutputStream os : outputs) {
+            os.close();
+        }
+
+        Assert.assertEquals(0, batchSigner.getBatchSize());
+        Assert.assertEquals(1, container.signCalls);
+        for (int i = 0; i < documentsCount; ++i) {
+            PdfDocument document = new PdfDocument(new PdfReader(destinationFolder + "batchSigned" + i + ".pdf"));
+            SignatureUtil signatureUtil = new SignatureUtil(document);
+            List<String> names = signatureUtil.getSignatureNames();
+            Assert.assertEquals(1, names.size());
+            if (i % 2 == 0) {
+                Assert.assertEquals("Signature1", names.get(0));
+            }
+            Assert.assertTrue(signatureUtil.signatureCoversWholeDocument(names.get(0)));
+            Assert.assertTrue(signatureUtil.verifySignature(names.get(0)).verify());
+            document.close();
+        }
+    }
+
+    @Test
+    public void wrongNumberOfContainersTest() throws GeneralSecurityException, IOException {
+        junitExpectedException.expect(PdfException.class);
+        junitExpectedException.expectMessage(PdfException.NumberOfSignatureContainersDoesntCorrespondWithTheNumberOfDocuments);
+
+        PdfBatchSigner batchSigner = new PdfBatchSigner(new PrivateKeyBatchSignatureContainer(pk, chain) {
+            @Override
+            public List<byte[]> sign(List<byte[]> digests) throws GeneralSecurityException {
+                return super.sign(digests.subList(1, digests.size()));
+            }
+        }, 8192);
+        batchSigner.addDocument(new PdfReader(sourceFolder + "simpleDocument.pdf"), new ByteArrayOutputStream());
+        batchSigner.addDocument(new PdfReader(sourceFolder + "simpleDocument.pdf"), new ByteArrayOutputStream());
+        batchSigner.signBatch();
+    }
+
+    private static class PrivateKeyBatchSignatureContainer implements IExternalBatchSignatureContainer {
+        private final PrivateKey pk;
+        private final Certificate[] chain;
+        int signCalls;
+
+        PrivateKeyBatchSignatureContainer(PrivateKey pk, Certificate[] chain) {
+            this.pk = pk;
+            this.chain = chain;
+        }
+
+        @Override
+        public String getHashAlgorithm() {
+            return DigestAlgorithms.SHA256;
+        }
+
+        @Override
+        public List<byte[]> sign(List<byte[]> digests) throws GeneralSecurityException {
+            ++signCalls;
+            PrivateKeySignature signature = new PrivateKeySignature(pk, getHashAlgorithm(), BouncyCastleProvider.PROVIDER_NAME);
+            List<byte[]> containers = new ArrayList<>();
+            for (byte[] digest : digests) {
+                PdfPKCS7 sgn = new PdfPKCS7(null, chain, getHashAlgorithm(), null, new BouncyCastleDigest(), false);
+                byte[] attributes = sgn.getAuthenticatedAttributeBytes(digest, null, null, PdfSigner.CryptoStandard.CMS);
+                sgn.setExternalDigest(signature.sign(attributes), null, signature.getEncryptionAlgorithm());
+                containers.add(sgn.getEncodedPKCS7(digest, null, null, null, PdfSigner.CryptoStandard.CMS));
+            }
+            return containers;
+        }
+
+        @Override
+        public void modifySigningDictionary(PdfDictionary signDic) {
+            signDic.put(PdfName.Filter, PdfName.Adobe_PPKLite);
+            signDic.put(PdfName.SubFilter, PdfName.Adbe_pkcs7_detached);
+        }
+    }
+}
@@ -0,0 +1,239 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2018 iText Group NV
+    Authors: iText Software.
+
+    This program is free software; you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License version 3
+    as published by the Free Software Foundation with the addition of the
+    following permission added to Section 15 as permitted in Section 7(a):
+    FOR ANY PART OF THE COVERED WORK IN WHICH THE COPYRIGHT IS OWNED BY
+    ITEXT GROUP. ITEXT GROUP DISCLAIMS THE WARRANTY OF NON INFRINGEMENT
+    OF THIRD PARTY RIGHTS
+
+    This program is distributed in the hope that it will be useful, but
+    WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY
+    or FITNESS FOR A PARTICULAR PURPOSE.
+    See the GNU Affero General Public License for more details.
+    You should have received a copy of the GNU Affero General Public License
+    along with this program; if not, see http://www.gnu.org/licenses or write to
+    the Free Software Foundation, Inc., 51 Franklin Street, Fifth Floor,
+    Boston, MA, 02110-1301 USA, or download the license from the following URL:
+    http://itextpdf.com/terms-of-use/
+
+    The interactive user interfaces in modified source and object code versions
+    of this program must display Appropriate Legal Notices, as required under
+    Section 5 of the GNU Affero General Public License.
+
+    In accordance with Section 7(b) of the GNU Affero General Public License,
+    a covered work must retain the producer line in every PDF that is created
+    or manipulated using iText.
+
+    You can be released from the requirements of the license by purchasing
+    a commercial license. Buying such a license is mandatory as soon as you
+    develop commercial activities involving the iText software without
+    disclosing the source code of your own applications.
+    These activities include: offering paid services to customers as an ASP,
+    serving PDFs on the fly in a web application, shipping iText with a closed
+    source product.
+
+    For more information, please contact iText Software Corp. at this
+    address: sales@itextpdf.com
+ */
+package com.itextpdf.signatures.verify;
+
+import com.itextpdf.io.util.DateTimeUtil;
+import com.itextpdf.signatures.CachingCrlClient;
+import com.itextpdf.signatures.CachingOcspClient;
+import com.itextpdf.signatures.ICrlClient;
+import com.itextpdf.signatures.IOcspClient;
+import com.itextpdf.signatures.RevocationDataCache;
+import com.itextpdf.signatures.testutils.Pkcs12FileHelper;
+import com.itextpdf.signatures.testutils.builder.TestCrlBuilder;
+import com.itextpdf.signatures.testutils.builder.TestOcspResponseBuilder;
+import com.itextpdf.signatures.testutils.client.TestCrlClient;
+import com.itextpdf.signatures.testutils.client.TestOcspClient;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+import java.io.File;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.security.PrivateKey;
+import java.security.Security;
+import java.security.cert.X509Certificate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class RevocationDataCacheTest extends ExtendedITextTest {
+    private static final String certsSrc = "./src/test/resources/com/itextpdf/signatures/certs/";
+    private static final String destinationFolder = "./target/test/com/itextpdf/signatures/verify/RevocationDataCacheTest/";
+    private static final char[] password = "testpass".toCharArray();
+
+    private static X509Certificate caCert;
+    private static PrivateKey caPrivateKey;
+    private static X509Certificate checkCert;
+
+    @BeforeClass
+    public static void before() throws GeneralSecurityException, IOException {
+        Security.addProvider(new BouncyCastleProvider());
+        createOrClearDestinationFolder(destinationFolder);
+        caCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(certsSrc + "rootRsa.p12", password)[0];
+        caPrivateKey = Pkcs12FileHelper.readFirstKey(certsSrc + "rootRsa.p12", password, password);
+        checkCert = (X509Certificate) Pkcs12FileHelper.readFirstChain(certsSrc + "signCertRsa01.p12", password)[0];
+    }
+
+    @Test
+    public void crlIsFetchedOnceTest() throws GeneralSecurityException {
+        CountingCrlClient countingClient = new CountingCrlClient(new TestCrlClient(caCert, caPrivateKey));
+        CachingCrlClient cachingClient = new CachingCrlClient(countingClient, new RevocationDataCache());
+
+        Collection<byte[]> first = cachingClient.getEncoded(checkCert, null);
+        Collection<byte[]> second = cachingClient.getEncoded(checkCert, null);
+
+        Assert.assertEquals(1, countingClient.calls);
+        Assert.assertEquals(1, second.size());
+        Assert.assertArrayEquals(first.iterator().next(), second.iterator().next());
+    }
+
+    @Test
+    public void outdatedCrlIsNotCachedTest() throws GeneralSecurityException {
+        TestCrlBuilder crlBuilder = new TestCrlBuilder(caCert, DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), -2));
+        crlBuilder.setNextUpdate(DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), -1));
+        CountingCrlClient countingClient = new CountingCrlClient(new TestCrlClient(crlBuilder, caPrivateKey));
+        CachingCrlClient cachingClient = new CachingCrlClient(countingClient, new RevocationDataCache());
+
+        cachingClient.getEncoded(checkCert, null);
+        cachingClient.getEncoded(checkCert, null);
+
+        Assert.assertEquals(2, countingClient.calls);
+    }
+
+    @Test
+    public void crlIsReadFromPersistentStoreTest() throws GeneralSecurityException {
+        File storeDirectory = new File(destinationFolder, "store");
+        CachingCrlClient writingClient = new CachingCrlClient(new TestCrlClient(caCert, caPrivateKey), new RevocationDataCache(storeDirectory));
+        Collection<byte[]> stored = writingClient.getEncoded(checkCert, null);
+
+        CountingCrlClient countingClient = new CountingCrlClient(new TestCrlClient(caCert, caPrivateKey));
+        CachingCrlClient readingClient = new CachingCrlClient(countingClient, new RevocationDataCache(storeDirectory));
+        Collection<byte[]> read = readingClient.getEncoded(checkCert, null);
+
+        Assert.assertEquals(0, countingClient.calls);
+        Assert.assertArrayEquals(stored.iterator().next(), read.iterator().next());
+    }
+
+    @Test
+    public void ocspResponseIsFetchedOnceTest() throws GeneralSecurityException {
+        CountingOcspClient countingClient = new CountingOcspClient(new TestOcspClient(caCert, caPrivateKey));
+        CachingOcspClient cachingClient = new CachingOcspClient(countingClient, new RevocationDataCache());
+
+        byte[] first = cachingClient.getEncoded(checkCert, caCert, null);
+        byte[] second = cachingClient.getEncoded(checkCert, caCert, null);
+
+        Assert.assertEquals(1, countingClient.calls);
+        Assert.assertArrayEquals(first, second);
+    }
+
+    @Test
+    public void ocspResponseWithoutValidNextUpdateIsNotCachedTest() throws GeneralSecurityException {
+        TestOcspResponseBuilder builder = new TestOcspResponseBuilder(caCert);
+        builder.setNextUpdate(DateTimeUtil.addDaysToCalendar(DateTimeUtil.getCurrentTimeCalendar(), -1));
+        CountingOcspClient countingClient = new CountingOcspClient(new TestOcspClient(builder, caPrivateKey));
+        CachingOcspClient cachingClient = new CachingOcspClient(countingClient, new RevocationDataCache());
+
+        cachingClient.getEncoded(checkCert, caCert, null);
+        cachingClient.getEncoded(checkCert, caCert, null);
+
+        Assert.assertEquals(2, countingClient.calls);
+    }
+
+    @Test
+    public void expiredEntryIsNotReturnedTest() {
+        RevocationDataCache cache = new RevocationDataCache();
+        cache.put("key", Collections.singletonList(new byte[] {1}), DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), -1));
+        Assert.assertNull(cache.get("key"));
+    }
+
+    @Test
+    public void cachedOcspResponseIsNotModifiedByCallerTest() throws GeneralSecurityException {
+        CachingOcspClient cachingClient = new CachingOcspClient(new TestOcspClient(caCert, caPrivateKey), new RevocationDataCache());
+
+        byte[] fetched = cachingClient.getEncoded(checkCert, caCert, null);
+        byte[] expected = fetched.clone();
+        fetched[0] ^= 1;
+        byte[] cached = cachingClient.getEncoded(checkCert, caCert, null);
+        Assert.assertArrayEquals(expected, cached);
+        cached[0] ^= 1;
+        Assert.assertArrayEquals(expected, cachingClient.getEncoded(checkCert, caCert, null));
+    }
+
+    @Test
+    public void removingExpiredEntryKeepsFreshStoredEntryTest() throws InterruptedException {
+        File storeDirectory = new File(destinationFolder, "sharedStore");
+        RevocationDataCache expiringCache = new RevocationDataCache(storeDirectory);
+        expiringCache.put("key", Collections.singletonList(new byte[] {1}), new Date(DateTimeUtil.getCurrentTimeDate().getTime() + 200));
+        new RevocationDataCache(storeDirectory).put("key", Collections.singletonList(new byte[] {2}),
+                DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1));
+        Thread.sleep(300);
+
+        Assert.assertNull(expiringCache.get("key"));
+        Assert.assertArrayEquals(new byte[] {2}, new RevocationDataCache(storeDirectory).get("key").get(0));
+    }
+
+    @Test
+    public void evictedEntryIsReadFromPersistentStoreTest() {
+        File storeDirectory = new File(destinationFolder, "boundedStore");
+        RevocationDataCache memoryCache = new RevocationDataCache(null, 1);
+        RevocationDataCache storingCache = new RevocationDataCache(storeDirectory, 1);
+        Date expirationDate = DateTimeUtil.addDaysToDate(DateTimeUtil.getCurrentTimeDate(), 1);
+        for (int i = 1; i <= 2; ++i) {
+            memoryCache.put("key" + i, Collections.singletonList(new byte[] {(byte) i}), expirationDate);
+            storingCache.put("key" + i, Collections.singletonList(new byte[] {(byte) i}), expirationDate);
+        }
+
+        Assert.assertNull(memoryCache.get("key1"));
+        Assert.assertArrayEquals(new byte[] {2}, memoryCache.get("key2").get(0));
+        Assert.assertArrayEquals(new byte[] {1}, storingCache.get("key1").get(0));
+        Assert.assertArrayEquals(new byte[] {2}, storingCache.get("key2").get(0));
+        for (File file : storeDirectory.listFiles()) {
+            Assert.assertTrue(file.getName().endsWith(".rev"));
+        }
+    }
+
+    private static class CountingCrlClient implements ICrlClient {
+        private final ICrlClient crlClient;
+        int calls;
+
+        CountingCrlClient(ICrlClient crlClient) {
+            this.crlClient = crlClient;
+        }
+
+        @Override
+        public Collection<byte[]> getEncoded(X509Certificate checkCert, String url) {
+            ++calls;
+            return crlClient.getEncoded(checkCert, url);
+        }
+    }
+
+    private static class CountingOcspClient implements IOcspClient {
+        private final IOcspClient ocspClient;
+        int calls;
+
+        CountingOcspClient(IOcspClient ocspClient) {
+            this.ocspClient = ocspClient;
+        }
+
+        @Override
+        public byte[] getEncoded(X509Certificate checkCert, X509Certificate issuerCert, String url) {
+            ++calls;
+            return ocspClient.getEncoded(checkCert, issuerCert, url);
+        }
+    }
+}